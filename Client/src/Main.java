@@ -1,8 +1,54 @@
 import bg.sofia.uni.fmi.mjt.splitnotsowise.client.Client;
 
+import java.nio.file.Path;
+
 public class Main {
+    private static final String HOST_OPTION = "--host";
+    private static final String PORT_OPTION = "--port";
+    private static final String BATCH_OPTION = "--batch";
+    private static final String PROTOCOL_OPTION = "--protocol";
+    private static final String TEXT_PROTOCOL = "text";
+    private static final String BINARY_PROTOCOL = "binary";
+    private static final String USAGE =
+        "usage: [--host <host>] [--port <port>] [--protocol text|binary] [--batch <commands file>]";
+
     public static void main(String[] args) {
         Client client = Client.getInstance();
-        client.connectToServer();
+        String host = "localhost";
+        int port = 1234;
+        Path batchFile = null;
+        boolean isBinaryProtocol = false;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException(USAGE);
+                }
+                switch (args[i]) {
+                    case HOST_OPTION -> host = args[i + 1];
+                    case PORT_OPTION -> port = Integer.parseInt(args[i + 1]);
+                    case BATCH_OPTION -> batchFile = Path.of(args[i + 1]);
+                    case PROTOCOL_OPTION -> isBinaryProtocol = parseProtocol(args[i + 1]);
+                    default -> throw new IllegalArgumentException(USAGE);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(USAGE);
+            return;
+        }
+        client.setServerAddress(host, port);
+        client.setBinaryProtocol(isBinaryProtocol);
+        if (batchFile != null) {
+            client.runBatch(batchFile);
+        } else {
+            client.connectToServer();
+        }
+    }
+
+    private static boolean parseProtocol(String protocol) {
+        return switch (protocol) {
+            case TEXT_PROTOCOL -> false;
+            case BINARY_PROTOCOL -> true;
+            default -> throw new IllegalArgumentException(USAGE);
+        };
     }
-}
\ No newline at end of file
+}
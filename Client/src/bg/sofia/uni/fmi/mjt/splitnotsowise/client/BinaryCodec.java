@@ -0,0 +1,99 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.client;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+public class BinaryCodec {
+    public static final int HANDSHAKE_MAGIC = 0xB15A0000;
+    public static final int PROTOCOL_VERSION = 2;
+    private static final int AMOUNT_SCALE = 2;
+    private static final int RESPONSE_OK = 0;
+    private static final int RESPONSE_INVALID_REQUEST = 1;
+    private static final int VARINT_DATA_BITS = 7;
+    private static final int VARINT_DATA_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION_BIT = 0x80;
+    private static final int SIGN_SHIFT = 63;
+
+    public static byte[] encodeRequest(String command) {
+        String[] tokens = command.trim().split(" ");
+        Opcode opcode = Opcode.fromCommand(tokens[0], tokens.length - 1);
+        if (opcode == null) {
+            throw new IllegalArgumentException("unknown command, use help");
+        }
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        writeVarLong(request, opcode.getCode());
+        int tokenIndex = 1;
+        for (Opcode.FieldType field : opcode.getFields()) {
+            if (field == Opcode.FieldType.STRING_LIST) {
+                writeVarLong(request, tokens.length - tokenIndex);
+                while (tokenIndex < tokens.length) {
+                    writeString(request, tokens[tokenIndex++]);
+                }
+                continue;
+            }
+            if (tokenIndex >= tokens.length) {
+                throw new IllegalArgumentException("invalid arguments, use help");
+            }
+            String token = tokens[tokenIndex++];
+            if (field == Opcode.FieldType.AMOUNT) {
+                writeVarLong(request, zigZag(toFixedPoint(token)));
+            } else if (field == Opcode.FieldType.COUNT) {
+                writeVarLong(request, zigZag(toCount(token)));
+            } else {
+                writeString(request, token);
+            }
+        }
+        if (tokenIndex != tokens.length) {
+            throw new IllegalArgumentException("invalid arguments, use help");
+        }
+        return request.toByteArray();
+    }
+
+    public static String decodeResponse(byte[] response) {
+        if (response.length == 0) {
+            return "";
+        }
+        String message = new String(response, 1, response.length - 1, StandardCharsets.UTF_8);
+        return switch (response[0]) {
+            case RESPONSE_OK -> message;
+            case RESPONSE_INVALID_REQUEST -> "invalid request: " + message;
+            default -> "error: " + message;
+        };
+    }
+
+    private static long toFixedPoint(String amount) {
+        try {
+            return new BigDecimal(amount).movePointRight(AMOUNT_SCALE).longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("amounts must have at most " + AMOUNT_SCALE + " decimal places", e);
+        }
+    }
+
+    private static long toCount(String count) {
+        try {
+            return Integer.parseInt(count);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("counts must be whole numbers", e);
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> SIGN_SHIFT);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        long remaining = value;
+        while ((remaining & ~VARINT_DATA_MASK) != 0) {
+            out.write((int) ((remaining & VARINT_DATA_MASK) | VARINT_CONTINUATION_BIT));
+            remaining >>>= VARINT_DATA_BITS;
+        }
+        out.write((int) remaining);
+    }
+}
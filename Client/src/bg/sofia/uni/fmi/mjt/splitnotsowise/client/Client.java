@@ -2,17 +2,28 @@ package bg.sofia.uni.fmi.mjt.splitnotsowise.client;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.function.Function;
 
 public class Client {
-    private static final int SERVER_PORT = 1234;
-    private static final int BUFFER_SIZE = 1024;
+    private static final String DEFAULT_SERVER_HOST = "localhost";
+    private static final int DEFAULT_SERVER_PORT = 1234;
+    private static final String QUIT = "quit";
+    private static final String BATCH = "batch";
     private static Client instance;
+    private String serverHost;
+    private int serverPort;
+    private int nextRequestId;
+    private boolean isBinaryProtocol;
     private Client() {
-
+        serverHost = DEFAULT_SERVER_HOST;
+        serverPort = DEFAULT_SERVER_PORT;
     }
 
     public static Client getInstance() {
@@ -22,34 +33,162 @@ public class Client {
         return instance;
     }
 
+    public void setServerAddress(String host, int port) {
+        this.serverHost = host;
+        this.serverPort = port;
+    }
+
+    public void setBinaryProtocol(boolean isBinaryProtocol) {
+        this.isBinaryProtocol = isBinaryProtocol;
+    }
+
     public void connectToServer() {
         try (SocketChannel socketChannel = SocketChannel.open();
              Scanner scanner = new Scanner(System.in)) {
-            socketChannel.connect(new InetSocketAddress("localhost", SERVER_PORT));
-            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            socketChannel.connect(new InetSocketAddress(serverHost, serverPort));
+            negotiateProtocol(socketChannel);
             while (true) {
                 String message = scanner.nextLine();
                 if (message.isBlank()) continue;
-                socketChannel.write(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)));
+                String[] tokens = message.trim().split(" ");
+                if (BATCH.equals(tokens[0]) && tokens.length == 2) {
+                    runBatch(socketChannel, Path.of(tokens[1]));
+                    continue;
+                }
+                byte[] request;
+                try {
+                    request = encode(message);
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                    continue;
+                }
+                int requestId = ++nextRequestId;
+                FrameCodec.write(socketChannel, new Frame(requestId, request));
 
-                buffer.clear();
-                int bytesRead = socketChannel.read(buffer);
-                if (bytesRead == -1) {
+                Frame reply = FrameCodec.read(socketChannel);
+                if (reply == null) {
                     break;
                 }
-
-                buffer.flip();
-                byte[] replyBytes = new byte[buffer.remaining()];
-                buffer.get(replyBytes);
-                String reply = new String(replyBytes, StandardCharsets.UTF_8);
-                System.out.println(reply);
-                if ("quit".equals(message)) {
+                if (reply.requestId() != requestId) {
+                    throw new IOException("expected reply to request " + requestId + " but got " + reply.requestId());
+                }
+                System.out.println(decode(reply));
+                if (QUIT.equals(message)) {
                     break;
                 }
             }
-        } catch (IOException e) {
+        } catch (IOException | InterruptedException e) {
+            System.out.println("an error occurred, check error_logs.txt file");
+            ErrorLogger.log(e);
+        }
+    }
+
+    public void runBatch(Path commandsFile) {
+        try (SocketChannel socketChannel = SocketChannel.open()) {
+            socketChannel.connect(new InetSocketAddress(serverHost, serverPort));
+            negotiateProtocol(socketChannel);
+            runBatch(socketChannel, commandsFile);
+        } catch (IOException | InterruptedException e) {
             System.out.println("an error occurred, check error_logs.txt file");
             ErrorLogger.log(e);
         }
     }
-}
\ No newline at end of file
+
+    private void runBatch(SocketChannel socketChannel, Path commandsFile) throws IOException, InterruptedException {
+        List<String> commands = Files.readAllLines(commandsFile).stream()
+            .filter(command -> !command.isBlank())
+            .toList();
+        List<byte[]> requests = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            try {
+                requests.add(encode(commands.get(i)));
+            } catch (IllegalArgumentException e) {
+                System.out.println("batch not started, command " + (i + 1) + ": " + e.getMessage());
+                return;
+            }
+        }
+        int firstRequestId = nextRequestId + 1;
+        nextRequestId += commands.size();
+        long startTime = System.currentTimeMillis();
+
+        BatchReplyReader replyReader = new BatchReplyReader(socketChannel, firstRequestId, commands.size(), this::decode);
+        Thread readerThread = new Thread(replyReader, "batch-reply-reader");
+        readerThread.start();
+        for (int i = 0; i < commands.size(); i++) {
+            FrameCodec.write(socketChannel, new Frame(firstRequestId + i, requests.get(i)));
+        }
+        readerThread.join();
+        if (replyReader.getError() != null) {
+            throw replyReader.getError();
+        }
+
+        System.out.println("batch finished: " + replyReader.getRepliesCount() + "/" + commands.size() +
+            " replies in " + (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    private void negotiateProtocol(SocketChannel socketChannel) throws IOException {
+        if (!isBinaryProtocol) {
+            return;
+        }
+        FrameCodec.writeHandshake(socketChannel);
+        Frame acknowledgement = FrameCodec.read(socketChannel);
+        if (acknowledgement == null || acknowledgement.requestId() != 0) {
+            throw new IOException("server does not support the binary protocol");
+        }
+    }
+
+    private byte[] encode(String message) {
+        if (isBinaryProtocol) {
+            return BinaryCodec.encodeRequest(message);
+        }
+        return message.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String decode(Frame reply) {
+        if (isBinaryProtocol) {
+            return BinaryCodec.decodeResponse(reply.payload());
+        }
+        return reply.text();
+    }
+
+    private static class BatchReplyReader implements Runnable {
+        private final SocketChannel socketChannel;
+        private final int firstRequestId;
+        private final int expectedReplies;
+        private final Function<Frame, String> decoder;
+        private int repliesCount;
+        private IOException error;
+
+        BatchReplyReader(SocketChannel socketChannel, int firstRequestId, int expectedReplies,
+                         Function<Frame, String> decoder) {
+            this.socketChannel = socketChannel;
+            this.firstRequestId = firstRequestId;
+            this.expectedReplies = expectedReplies;
+            this.decoder = decoder;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (repliesCount < expectedReplies) {
+                    Frame reply = FrameCodec.read(socketChannel);
+                    if (reply == null) {
+                        throw new IOException("server closed the connection during batch");
+                    }
+                    System.out.println("[" + (reply.requestId() - firstRequestId + 1) + "] " + decoder.apply(reply));
+                    repliesCount++;
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+
+        int getRepliesCount() {
+            return repliesCount;
+        }
+
+        IOException getError() {
+            return error;
+        }
+    }
+}
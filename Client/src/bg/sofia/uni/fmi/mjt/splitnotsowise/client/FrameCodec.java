@@ -0,0 +1,61 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.client;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+public class FrameCodec {
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    private static final int MAX_FRAME_SIZE = 1024 * 1024;
+
+    public static void write(SocketChannel channel, Frame frame) throws IOException {
+        byte[] payload = frame.payload();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt(frame.requestId());
+        buffer.put(payload);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public static void writeHandshake(SocketChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        buffer.putInt(BinaryCodec.HANDSHAKE_MAGIC);
+        buffer.putInt(BinaryCodec.PROTOCOL_VERSION);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public static Frame read(SocketChannel channel) throws IOException {
+        ByteBuffer header = readFully(channel, HEADER_SIZE);
+        if (header == null) {
+            return null;
+        }
+        int length = header.getInt();
+        int requestId = header.getInt();
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new IOException("received frame length " + length + " is out of bounds");
+        }
+        ByteBuffer payload = readFully(channel, length);
+        if (payload == null) {
+            throw new EOFException("connection closed in the middle of a frame");
+        }
+        return new Frame(requestId, payload.array());
+    }
+
+    private static ByteBuffer readFully(SocketChannel channel, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return null;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,72 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.client;
+
+import java.util.List;
+
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.client.Opcode.FieldType.AMOUNT;
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.client.Opcode.FieldType.COUNT;
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.client.Opcode.FieldType.STRING;
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.client.Opcode.FieldType.STRING_LIST;
+
+public enum Opcode {
+    HELP(1, "help"),
+    REGISTER(2, "register", STRING, STRING, STRING, STRING),
+    LOGIN(3, "login", STRING, STRING),
+    LOGOUT(4, "logout"),
+    ADD_FRIEND(5, "add-friend", STRING),
+    CREATE_GROUP(6, "create-group", STRING, STRING_LIST),
+    SPLIT_FRIEND(7, "split-friend", AMOUNT, STRING),
+    SPLIT_GROUP(8, "split-group", AMOUNT, STRING),
+    PAID(9, "paid", AMOUNT, STRING),
+    STATUS(10, "status"),
+    GROUPS(11, "groups"),
+    NOTIFICATIONS(12, "notifications"),
+    PAYMENT_HISTORY(13, "payment-history"),
+    QUIT(14, "quit"),
+    SHUTDOWN(15, "shutdown"),
+    NOTIFICATIONS_PAGE(16, "notifications", COUNT),
+    BACKUP(17, "backup"),
+    BALANCE(18, "balance"),
+    BALANCE_LEADERBOARD(19, "balance", COUNT);
+
+    enum FieldType {
+        STRING,
+        AMOUNT,
+        COUNT,
+        STRING_LIST
+    }
+
+    private final int code;
+    private final String command;
+    private final List<FieldType> fields;
+
+    Opcode(int code, String command, FieldType... fields) {
+        this.code = code;
+        this.command = command;
+        this.fields = List.of(fields);
+    }
+
+    public static Opcode fromCommand(String command, int argumentsCount) {
+        Opcode found = null;
+        for (Opcode opcode : values()) {
+            if (opcode.command.equals(command)) {
+                found = opcode;
+                if (opcode.accepts(argumentsCount)) {
+                    return opcode;
+                }
+            }
+        }
+        return found;
+    }
+
+    private boolean accepts(int argumentsCount) {
+        return fields.contains(STRING_LIST) ? argumentsCount >= fields.size() - 1 : argumentsCount == fields.size();
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    List<FieldType> getFields() {
+        return fields;
+    }
+}
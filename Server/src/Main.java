@@ -1,10 +1,20 @@
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.config.ServerConfig;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.InvalidConfigurationException;
 
 import java.io.IOException;
 
 public class Main {
     public static void main(String[] args) throws IOException {
+        ServerConfig config;
+        try {
+            config = ServerConfig.load(args);
+        } catch (InvalidConfigurationException e) {
+            System.out.println("invalid server configuration: " + e.getMessage());
+            return;
+        }
         Server server = Server.getInstance();
+        server.setConfig(config);
         server.start();
     }
-}
\ No newline at end of file
+}
@@ -1,35 +1,56 @@
 package bg.sofia.uni.fmi.mjt.splitnotsowise.server;
 
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.config.ServerConfig;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.connection.ConnectionLimiter;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.BackupManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.DebtManager;
-import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.FriendshipManager;
-import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.GroupManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.FileSynchronizer;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.NotificationManager;
-import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.SnapshotManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
-import bg.sofia.uni.fmi.mjt.splitnotsowise.server.io.IOHandler;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.execution.CommandDispatcher;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.ConnectionStatus;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.reactor.Reactor;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngines;
 
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.nio.ByteBuffer;
+import java.net.StandardSocketOptions;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class Server {
     public static final String PROJECT_NAME = "Server";
-    public static final int SERVER_PORT = 1234;
-    private static final String SERVER_HOST = "localhost";
-    private static final int BUFFER_SIZE = 1024;
+    private static final long TERMINATION_GRACE_MILLIS = 5000;
     private static Server instance;
-    private boolean isServerWorking;
+    private volatile boolean isServerWorking;
+    private volatile boolean isStopRequested;
+    private ServerConfig config;
     private Selector selector;
-    private ByteBuffer buffer;
+    private Reactor[] reactors;
+    private CommandDispatcher dispatcher;
+    private ConnectionLimiter connectionLimiter;
+    private int nextReactor;
+    private volatile long shutdownRequestedTime;
+    private final CountDownLatch terminated;
+    private ScheduledExecutorService snapshotScheduler;
 
     private Server() {
+        config = ServerConfig.defaults();
+        terminated = new CountDownLatch(1);
     }
 
     public static Server getInstance() {
@@ -43,20 +64,30 @@ public class Server {
         return isServerWorking;
     }
 
+    public void setConfig(ServerConfig config) {
+        NotNullChecker.check(config);
+        this.config = config;
+    }
+
     public void start() throws IOException {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stopAndAwaitTermination, "shutdown-hook"));
         try {
             initializeManagers();
         } catch (DataStorageException e) {
             System.out.println("a problem occurred when loading data from files");
+            terminated.countDown();
             return;
         }
         try (ServerSocketChannel serverSocketChannel = ServerSocketChannel.open()) {
             selector = Selector.open();
             configureServerSocketChannel(serverSocketChannel, selector);
-            buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            dispatcher = new CommandDispatcher();
+            connectionLimiter = new ConnectionLimiter(config.getMaxConnections(), config.getMaxConnectionsPerAddress());
+            startReactors();
+            startSnapshotScheduler();
 
             isServerWorking = true;
-            while (isServerWorking) {
+            while (!isStopRequested) {
                 try {
                     int readyChannels = selector.select();
                     if (readyChannels == 0) {
@@ -65,88 +96,247 @@ public class Server {
                     handleSelectedKeys();
 
                 } catch (IOException e) {
-                    System.out.println("error occurred while processing client request: " + e.getMessage());
+                    System.out.println("error occurred while accepting client connection: " + e.getMessage());
                 }
             }
-
+        } finally {
+            shutdown();
         }
     }
 
     private void initializeManagers() throws DataStorageException {
-        UserManager.getInstance().initialize();
-        FriendshipManager.getInstance().initialize();
-        GroupManager.getInstance().initialize();
-        DebtManager.getInstance().initialize();
-        NotificationManager.getInstance().initialize();
+        StorageEngines.setInstance(config.getStorageEngine().create(config.getDurabilityPolicy()));
+        DebtManager.getInstance().setMaxCachedUsers(config.getMaxCachedUsers());
+        NotificationManager.getInstance().setMaxCachedUsers(config.getMaxCachedUsers());
+        NotificationManager.getInstance().setInboxCapacity(config.getNotificationsInboxSize());
+        SnapshotManager.getInstance().initialize();
+        BackupManager.getInstance().setBackupDirectory(config.getBackupDirectory());
+    }
+
+    private void startSnapshotScheduler() {
+        long interval = config.getSnapshotIntervalMillis();
+        if (interval == 0) {
+            return;
+        }
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(this::takeSnapshot, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void takeSnapshot() {
+        try {
+            long startTime = System.nanoTime();
+            if (SnapshotManager.getInstance().takeSnapshot()) {
+                System.out.println("took a snapshot in " + millisSince(startTime) + " ms");
+            }
+        } catch (DataStorageException e) {
+            System.out.println("a problem occurred when taking a snapshot: " + e.getMessage());
+        }
+    }
+
+    private void startReactors() throws IOException {
+        reactors = new Reactor[config.getReactorsCount()];
+        for (int i = 0; i < reactors.length; i++) {
+            reactors[i] = new Reactor("reactor-" + i, dispatcher, config, connectionLimiter);
+            Thread thread = new Thread(reactors[i], reactors[i].getName());
+            thread.start();
+        }
+    }
+
+    private void shutdown() {
+        try {
+            stopServing();
+        } finally {
+            terminated.countDown();
+        }
+    }
+
+    private void stopServing() {
+        isServerWorking = false;
+        long acceptingStoppedTime = System.nanoTime();
+        if (shutdownRequestedTime == 0) {
+            shutdownRequestedTime = acceptingStoppedTime;
+        }
+        System.out.println("stopped accepting connections in " + millisSince(shutdownRequestedTime) + " ms");
+
+        long deadline = acceptingStoppedTime + TimeUnit.MILLISECONDS.toNanos(config.getShutdownTimeoutMillis());
+        long phaseStartTime = System.nanoTime();
+        drainReactors(deadline);
+        System.out.println("drained client connections in " + millisSince(phaseStartTime) + " ms");
+
+        phaseStartTime = System.nanoTime();
+        stopDispatcher(deadline);
+        stopReactors();
+        closeQuietly(selector);
+        System.out.println("stopped command execution in " + millisSince(phaseStartTime) + " ms");
+
+        phaseStartTime = System.nanoTime();
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+        }
+        takeSnapshot();
+        syncStorage();
+        System.out.println("synced storage in " + millisSince(phaseStartTime) + " ms");
+        System.out.println("server stopped in " + millisSince(shutdownRequestedTime) + " ms");
+    }
+
+    private void drainReactors(long deadline) {
+        if (reactors == null) {
+            return;
+        }
+        for (Reactor reactor : reactors) {
+            if (reactor == null) {
+                continue;
+            }
+            try {
+                reactor.drain().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                System.out.println(reactor.getName() + ": some replies were not delivered before shutdown");
+            } catch (ExecutionException e) {
+                System.out.println(reactor.getName() + ": could not drain client connections: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void stopDispatcher(long deadline) {
+        if (dispatcher == null) {
+            return;
+        }
+        try {
+            if (!dispatcher.shutdown(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                System.out.println("some commands did not finish before shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void stopReactors() {
+        if (reactors == null) {
+            return;
+        }
+        for (Reactor reactor : reactors) {
+            if (reactor != null) {
+                reactor.stop();
+            }
+        }
+    }
+
+    private void syncStorage() {
+        try {
+            StorageEngine storageEngine = StorageEngines.getInstance();
+            storageEngine.close();
+            System.out.println("storage engine statistics: " + storageEngine.getSyncStatistics());
+            FileSynchronizer.syncDirectory(Paths.get(PROJECT_NAME));
+        } catch (DataStorageException e) {
+            System.out.println("a problem occurred when closing the storage engine: " + e.getMessage());
+        }
+    }
+
+    private void stopAndAwaitTermination() {
+        stop();
+        try {
+            if (!terminated.await(config.getShutdownTimeoutMillis() + TERMINATION_GRACE_MILLIS,
+                TimeUnit.MILLISECONDS)) {
+                System.out.println("the server did not stop in time, exiting anyway");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long millisSince(long startTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            System.out.println("error occurred while closing: " + e.getMessage());
+        }
     }
 
     private void handleSelectedKeys() throws IOException {
         Iterator<SelectionKey> keyIterator = selector.selectedKeys().iterator();
         while (keyIterator.hasNext()) {
             SelectionKey key = keyIterator.next();
-            if (key.isReadable()) {
-                SocketChannel clientChannel = (SocketChannel) key.channel();
-                String clientInput = getClientInput(clientChannel);
-                if (clientInput == null) {
-                    continue;
-                }
-                // add try catch
-                String output = IOHandler.getInstance().handle(clientInput, key);
-                writeClientOutput(clientChannel, output);
-            } else if (key.isAcceptable()) {
+            keyIterator.remove();
+            if (key.isValid() && key.isAcceptable()) {
                 accept(key);
             }
-
-            keyIterator.remove();
         }
     }
 
     private void configureServerSocketChannel(ServerSocketChannel channel, Selector selector) throws IOException {
         NotNullChecker.check(channel, selector);
-        channel.bind(new InetSocketAddress(SERVER_HOST, SERVER_PORT));
+        if (config.getReceiveBufferSize() > 0) {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, config.getReceiveBufferSize());
+        }
+        channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        channel.bind(new InetSocketAddress(config.getHost(), config.getPort()), config.getBacklog());
         channel.configureBlocking(false);
         channel.register(selector, SelectionKey.OP_ACCEPT);
     }
 
-    private String getClientInput(SocketChannel clientChannel) throws IOException {
-        NotNullChecker.check(clientChannel);
-        buffer.clear();
-
-        int readBytes = clientChannel.read(buffer);
-        if (readBytes < 0) {
-            clientChannel.close();
-            return null;
+    private void accept(SelectionKey key) throws IOException {
+        NotNullChecker.check(key);
+        ServerSocketChannel serverSocketChannel = (ServerSocketChannel) key.channel();
+        SocketChannel acceptedSocketChannel;
+        while ((acceptedSocketChannel = serverSocketChannel.accept()) != null) {
+            ConnectionStatus status;
+            try {
+                status = acquireConnection(acceptedSocketChannel);
+            } catch (IOException e) {
+                closeQuietly(acceptedSocketChannel);
+                continue;
+            }
+            if (status != ConnectionStatus.ACCEPTED) {
+                reject(acceptedSocketChannel);
+                continue;
+            }
+            reactors[nextReactor].register(acceptedSocketChannel);
+            nextReactor = (nextReactor + 1) % reactors.length;
         }
-
-        buffer.flip();
-        byte[] clientInputBytes = new byte[buffer.remaining()];
-        buffer.get(clientInputBytes);
-
-        return new String(clientInputBytes, StandardCharsets.UTF_8);
     }
 
-    private void writeClientOutput(SocketChannel clientChannel, String output) throws IOException {
-        NotNullChecker.check(clientChannel, output);
-        buffer.clear();
-        buffer.put(output.getBytes());
-        buffer.flip();
-        clientChannel.write(buffer);
+    private ConnectionStatus acquireConnection(SocketChannel channel) throws IOException {
+        NotNullChecker.check(channel);
+        InetAddress address = ((InetSocketAddress) channel.getRemoteAddress()).getAddress();
+        return connectionLimiter.tryAcquire(channel, address);
     }
 
-    private void accept(SelectionKey key) throws IOException {
-        NotNullChecker.check(key);
-        ServerSocketChannel serverSocketChannel = (ServerSocketChannel) key.channel();
-        SocketChannel acceptedSocketChannel = serverSocketChannel.accept();
+    private void reject(SocketChannel channel) {
+        NotNullChecker.check(channel);
+        try {
+            channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+        } catch (IOException e) {
+            System.out.println("could not reset rejected client connection: " + e.getMessage());
+        }
+        closeQuietly(channel);
+    }
 
-        acceptedSocketChannel.configureBlocking(false);
-        SelectionKey newKey = acceptedSocketChannel.register(selector, SelectionKey.OP_READ);
-        newKey.attach(null);
+    public boolean isAdmin(String username) {
+        return username != null && config.getAdminUsers().contains(username);
     }
 
     public void stop() {
+        if (isServerWorking && shutdownRequestedTime == 0) {
+            shutdownRequestedTime = System.nanoTime();
+        }
+        isStopRequested = true;
         this.isServerWorking = false;
-        if (selector.isOpen()) {
+        if (selector != null && selector.isOpen()) {
             selector.wakeup();
         }
     }
-}
\ No newline at end of file
+}
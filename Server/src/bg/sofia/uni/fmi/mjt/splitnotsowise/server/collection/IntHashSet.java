@@ -0,0 +1,117 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.collection;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+public class IntHashSet {
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final int FREE_ELEMENT = -1;
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+    private int[] elements;
+    private int size;
+    private int mask;
+
+    public IntHashSet() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    public IntHashSet(IntHashSet other) {
+        NotNullChecker.check(other);
+        elements = other.elements.clone();
+        size = other.size;
+        mask = other.mask;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int element) {
+        checkElement(element);
+        return elements[indexOf(element)] == element;
+    }
+
+    public boolean add(int element) {
+        checkElement(element);
+        int index = indexOf(element);
+        if (elements[index] == element) {
+            return false;
+        }
+        elements[index] = element;
+        if (++size > elements.length - (elements.length >>> 2)) {
+            rehash(elements.length * 2);
+        }
+        return true;
+    }
+
+    public boolean remove(int element) {
+        checkElement(element);
+        int index = indexOf(element);
+        if (elements[index] != element) {
+            return false;
+        }
+        elements[index] = FREE_ELEMENT;
+        size--;
+        int next = (index + 1) & mask;
+        while (elements[next] != FREE_ELEMENT) {
+            int home = slotOf(elements[next]);
+            if (((next - home) & mask) >= ((next - index) & mask)) {
+                elements[index] = elements[next];
+                elements[next] = FREE_ELEMENT;
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+        return true;
+    }
+
+    public void forEach(IntConsumer consumer) {
+        NotNullChecker.check(consumer);
+        for (int element : elements) {
+            if (element != FREE_ELEMENT) {
+                consumer.accept(element);
+            }
+        }
+    }
+
+    private int indexOf(int element) {
+        int index = slotOf(element);
+        while (elements[index] != FREE_ELEMENT && elements[index] != element) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private int slotOf(int element) {
+        int hash = element * HASH_MULTIPLIER;
+        return (hash ^ (hash >>> Short.SIZE)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldElements = elements;
+        allocate(capacity);
+        for (int element : oldElements) {
+            if (element != FREE_ELEMENT) {
+                elements[indexOf(element)] = element;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        elements = new int[capacity];
+        Arrays.fill(elements, FREE_ELEMENT);
+        mask = capacity - 1;
+    }
+
+    private static void checkElement(int element) {
+        if (element < 0) {
+            throw new IllegalArgumentException("elements must not be negative");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.collection;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+public class IntIndexedTable<T> {
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int DEFAULT_CHUNKS_COUNT = 4;
+    private volatile AtomicReferenceArray<T>[] chunks;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public IntIndexedTable() {
+        chunks = new AtomicReferenceArray[DEFAULT_CHUNKS_COUNT];
+    }
+
+    public T get(int index) {
+        checkIndex(index);
+        AtomicReferenceArray<T>[] currentChunks = chunks;
+        int chunkIndex = index >>> CHUNK_SHIFT;
+        AtomicReferenceArray<T> chunk = chunkIndex < currentChunks.length ? currentChunks[chunkIndex] : null;
+        return chunk == null ? null : chunk.get(index & CHUNK_MASK);
+    }
+
+    public T computeIfAbsent(int index, IntFunction<T> factory) {
+        NotNullChecker.check(factory);
+        T value = get(index);
+        if (value != null) {
+            return value;
+        }
+        AtomicReferenceArray<T> chunk = getOrCreateChunk(index);
+        T created = factory.apply(index);
+        return chunk.compareAndSet(index & CHUNK_MASK, null, created) ? created : chunk.get(index & CHUNK_MASK);
+    }
+
+    public T compute(int index, UnaryOperator<T> remapping) {
+        NotNullChecker.check(remapping);
+        checkIndex(index);
+        AtomicReferenceArray<T> chunk = getOrCreateChunk(index);
+        while (true) {
+            T value = chunk.get(index & CHUNK_MASK);
+            T newValue = remapping.apply(value);
+            if (chunk.compareAndSet(index & CHUNK_MASK, value, newValue)) {
+                return newValue;
+            }
+        }
+    }
+
+    private AtomicReferenceArray<T> getOrCreateChunk(int index) {
+        AtomicReferenceArray<T>[] currentChunks = chunks;
+        int chunkIndex = index >>> CHUNK_SHIFT;
+        if (chunkIndex < currentChunks.length && currentChunks[chunkIndex] != null) {
+            return currentChunks[chunkIndex];
+        }
+        return createChunk(chunkIndex);
+    }
+
+    private synchronized AtomicReferenceArray<T> createChunk(int chunkIndex) {
+        AtomicReferenceArray<T>[] currentChunks = chunks;
+        if (chunkIndex < currentChunks.length && currentChunks[chunkIndex] != null) {
+            return currentChunks[chunkIndex];
+        }
+        AtomicReferenceArray<T>[] newChunks = Arrays.copyOf(currentChunks,
+            Math.max(currentChunks.length, Integer.highestOneBit(chunkIndex) * 2));
+        newChunks[chunkIndex] = new AtomicReferenceArray<>(CHUNK_SIZE);
+        chunks = newChunks;
+        return newChunks[chunkIndex];
+    }
+
+    public void forEach(EntryConsumer<T> consumer) {
+        NotNullChecker.check(consumer);
+        AtomicReferenceArray<T>[] currentChunks = chunks;
+        for (int chunkIndex = 0; chunkIndex < currentChunks.length; chunkIndex++) {
+            AtomicReferenceArray<T> chunk = currentChunks[chunkIndex];
+            if (chunk == null) {
+                continue;
+            }
+            for (int i = 0; i < CHUNK_SIZE; i++) {
+                T value = chunk.get(i);
+                if (value != null) {
+                    consumer.accept((chunkIndex << CHUNK_SHIFT) | i, value);
+                }
+            }
+        }
+    }
+
+    private static void checkIndex(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("indexes must not be negative");
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<T> {
+        void accept(int index, T value);
+    }
+}
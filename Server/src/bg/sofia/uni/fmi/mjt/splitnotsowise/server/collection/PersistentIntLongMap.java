@@ -0,0 +1,154 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.collection;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+public final class PersistentIntLongMap {
+    public static final PersistentIntLongMap EMPTY = new PersistentIntLongMap(Node.EMPTY, 0);
+    private static final int BITS_PER_LEVEL = 5;
+    private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+    private final Node root;
+    private final int size;
+
+    private PersistentIntLongMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return findLeaf(key) != null;
+    }
+
+    public long get(int key, long defaultValue) {
+        Leaf leaf = findLeaf(key);
+        return leaf == null ? defaultValue : leaf.value();
+    }
+
+    public PersistentIntLongMap with(int key, long value) {
+        Leaf leaf = findLeaf(key);
+        if (leaf != null && leaf.value() == value) {
+            return this;
+        }
+        return new PersistentIntLongMap(root.with(new Leaf(key, value), 0), leaf == null ? size + 1 : size);
+    }
+
+    public PersistentIntLongMap without(int key) {
+        if (findLeaf(key) == null) {
+            return this;
+        }
+        Object updatedRoot = root.without(key, 0);
+        return updatedRoot == null ? EMPTY : new PersistentIntLongMap((Node) updatedRoot, size - 1);
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        NotNullChecker.check(consumer);
+        root.forEach(consumer);
+    }
+
+    private Leaf findLeaf(int key) {
+        checkKey(key);
+        Node node = root;
+        for (int shift = 0; ; shift += BITS_PER_LEVEL) {
+            int bit = bitOf(key, shift);
+            if ((node.bitmap() & bit) == 0) {
+                return null;
+            }
+            Object child = node.children()[node.indexOf(bit)];
+            if (child instanceof Leaf leaf) {
+                return leaf.key() == key ? leaf : null;
+            }
+            node = (Node) child;
+        }
+    }
+
+    private static int bitOf(int key, int shift) {
+        return 1 << ((key >>> shift) & LEVEL_MASK);
+    }
+
+    private static void checkKey(int key) {
+        if (key < 0) {
+            throw new IllegalArgumentException("keys must not be negative");
+        }
+    }
+
+    private record Leaf(int key, long value) {
+    }
+
+    private record Node(int bitmap, Object[] children) {
+        private static final Node EMPTY = new Node(0, new Object[0]);
+
+        private int indexOf(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        private Node with(Leaf leaf, int shift) {
+            int bit = bitOf(leaf.key(), shift);
+            int index = indexOf(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] updatedChildren = new Object[children.length + 1];
+                System.arraycopy(children, 0, updatedChildren, 0, index);
+                updatedChildren[index] = leaf;
+                System.arraycopy(children, index, updatedChildren, index + 1, children.length - index);
+                return new Node(bitmap | bit, updatedChildren);
+            }
+            Object child = children[index];
+            Object updatedChild;
+            if (child instanceof Leaf existingLeaf) {
+                updatedChild = existingLeaf.key() == leaf.key()
+                    ? leaf
+                    : EMPTY.with(existingLeaf, shift + BITS_PER_LEVEL).with(leaf, shift + BITS_PER_LEVEL);
+            } else {
+                updatedChild = ((Node) child).with(leaf, shift + BITS_PER_LEVEL);
+            }
+            return withChild(index, updatedChild);
+        }
+
+        private Object without(int key, int shift) {
+            int bit = bitOf(key, shift);
+            int index = indexOf(bit);
+            Object child = children[index];
+            Object updatedChild = child instanceof Leaf ? null : ((Node) child).without(key, shift + BITS_PER_LEVEL);
+            if (updatedChild != null) {
+                return withChild(index, updatedChild);
+            }
+            if (children.length == 1) {
+                return null;
+            }
+            if (children.length == 2 && shift != 0 && children[1 - index] instanceof Leaf remainingLeaf) {
+                return remainingLeaf;
+            }
+            Object[] updatedChildren = new Object[children.length - 1];
+            System.arraycopy(children, 0, updatedChildren, 0, index);
+            System.arraycopy(children, index + 1, updatedChildren, index, children.length - index - 1);
+            return new Node(bitmap & ~bit, updatedChildren);
+        }
+
+        private Node withChild(int index, Object child) {
+            Object[] updatedChildren = children.clone();
+            updatedChildren[index] = child;
+            return new Node(bitmap, updatedChildren);
+        }
+
+        private void forEach(EntryConsumer consumer) {
+            for (Object child : children) {
+                if (child instanceof Leaf leaf) {
+                    consumer.accept(leaf.key(), leaf.value());
+                } else {
+                    ((Node) child).forEach(consumer);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, long value);
+    }
+}
@@ -0,0 +1,51 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.Backup;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.BackupManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+
+public class BackupCommand implements Command {
+    private static final String SUCCESS_MESSAGE_FORMAT = "backed up %d files (%d bytes) to %s";
+    private static final String FAIL_MESSAGE = "the backup failed: ";
+    private static final String NOT_LOGGED_IN_MESSAGE = "can't back up the server when not logged in";
+    private static final String NOT_ADMIN_MESSAGE = "only administrators can back up the server";
+    private String message;
+    private final boolean isLoggedIn;
+    private final String username;
+    private final Server server;
+    private final BackupManager backupManager;
+
+    public BackupCommand(boolean isLoggedIn, String username, Server server, BackupManager backupManager) {
+        NotNullChecker.check(isLoggedIn, server, backupManager);
+        this.isLoggedIn = isLoggedIn;
+        this.username = username;
+        this.server = server;
+        this.backupManager = backupManager;
+    }
+
+    @Override
+    public void execute() {
+        if (!isLoggedIn) {
+            message = NOT_LOGGED_IN_MESSAGE;
+            return;
+        }
+        if (!server.isAdmin(username)) {
+            message = NOT_ADMIN_MESSAGE;
+            return;
+        }
+        try {
+            Backup backup = backupManager.backup();
+            message = String.format(SUCCESS_MESSAGE_FORMAT, backup.filesCount(), backup.bytesCount(),
+                backup.directory());
+        } catch (DataStorageException e) {
+            message = FAIL_MESSAGE + e.getMessage();
+        }
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+}
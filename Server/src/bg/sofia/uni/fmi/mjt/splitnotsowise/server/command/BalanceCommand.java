@@ -0,0 +1,92 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.DebtManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserBalance;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.money.Money;
+
+import java.util.List;
+
+public class BalanceCommand implements Command {
+    private static final String NO_MONEY_RELATIONS = "you don't have any money relations";
+    private static final String NO_BALANCES = "no balances to show";
+    private static final String NOT_LOGGED_IN_MESSAGE = "can't see balances when not logged in";
+    private static final String NOT_ADMIN_MESSAGE = "only administrators can see the leaderboard";
+    private static final int NO_LEADERBOARD = 0;
+    private String message;
+    private final boolean isLoggedIn;
+    private final String username;
+    private final int leaderboardSize;
+    private final Server server;
+    private final DebtManager debtManager;
+
+    public BalanceCommand(boolean isLoggedIn, String username, Server server, DebtManager debtManager) {
+        this(isLoggedIn, username, NO_LEADERBOARD, server, debtManager);
+    }
+
+    public BalanceCommand(boolean isLoggedIn, String username, int leaderboardSize, Server server,
+                          DebtManager debtManager) {
+        NotNullChecker.check(isLoggedIn, server, debtManager);
+        if (leaderboardSize < 0) {
+            throw new IllegalArgumentException("leaderboard size must not be negative");
+        }
+        this.isLoggedIn = isLoggedIn;
+        this.username = username;
+        this.leaderboardSize = leaderboardSize;
+        this.server = server;
+        this.debtManager = debtManager;
+    }
+
+    @Override
+    public void execute() {
+        if (!isLoggedIn) {
+            message = NOT_LOGGED_IN_MESSAGE;
+            return;
+        }
+        if (leaderboardSize == NO_LEADERBOARD) {
+            buildBalanceMessage(debtManager.getBalance(username));
+            return;
+        }
+        if (!server.isAdmin(username)) {
+            message = NOT_ADMIN_MESSAGE;
+            return;
+        }
+        buildLeaderboardMessage(debtManager.getTopBalances(leaderboardSize));
+    }
+
+    private void buildBalanceMessage(UserBalance balance) {
+        if (balance.isEmpty()) {
+            message = NO_MONEY_RELATIONS;
+            return;
+        }
+        StringBuilder messageBuilder = new StringBuilder();
+        messageBuilder.append("* you are owed ");
+        Money.append(messageBuilder, balance.owedToUser()).append(" lv").append(System.lineSeparator());
+        messageBuilder.append("* you owe ");
+        Money.append(messageBuilder, balance.owedByUser()).append(" lv").append(System.lineSeparator());
+        messageBuilder.append("* net balance ");
+        Money.append(messageBuilder, balance.net()).append(" lv");
+        message = messageBuilder.toString();
+    }
+
+    private void buildLeaderboardMessage(List<UserBalance> balances) {
+        if (balances.isEmpty()) {
+            message = NO_BALANCES;
+            return;
+        }
+        StringBuilder messageBuilder = new StringBuilder();
+        int place = 1;
+        for (UserBalance balance : balances) {
+            messageBuilder.append(place++).append(". ").append(balance.username()).append(": ");
+            Money.append(messageBuilder, balance.net()).append(" lv").append(System.lineSeparator());
+        }
+        messageBuilder.delete(messageBuilder.lastIndexOf(System.lineSeparator()), messageBuilder.length());
+        message = messageBuilder.toString();
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+}
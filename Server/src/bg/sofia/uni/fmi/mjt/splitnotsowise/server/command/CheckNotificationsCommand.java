@@ -2,22 +2,31 @@ package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
 
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.NotificationManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.NotificationPage;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
 
-import java.util.List;
-
 public class CheckNotificationsCommand implements Command {
     private static final String NO_NOTIFICATIONS = "no notifications to show";
     private static final String NOT_LOGGED_IN_MESSAGE = "can't see notifications when not logged in";
     private String message;
     private final boolean isLoggedIn;
     private final String username;
+    private final int limit;
     private final NotificationManager notificationManager;
 
     public CheckNotificationsCommand(boolean isLoggedIn, String username, NotificationManager notificationManager) {
+        this(isLoggedIn, username, Integer.MAX_VALUE, notificationManager);
+    }
+
+    public CheckNotificationsCommand(boolean isLoggedIn, String username, int limit,
+                                     NotificationManager notificationManager) {
         NotNullChecker.check(isLoggedIn, notificationManager);
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
         this.isLoggedIn = isLoggedIn;
         this.username = username;
+        this.limit = limit;
         this.notificationManager = notificationManager;
     }
 
@@ -27,25 +36,29 @@ public class CheckNotificationsCommand implements Command {
             message = NOT_LOGGED_IN_MESSAGE;
             return;
         }
-        List<String> notifications;
+        NotificationPage page;
         try {
-            notifications = notificationManager.getNotifications(username);
+            page = notificationManager.getNotifications(username, limit);
         } catch (DataStorageException e) {
             message = e.getMessage();
             return;
         }
-        buildMessage(notifications);
+        buildMessage(page);
     }
 
-    private void buildMessage(List<String> notifications) {
+    private void buildMessage(NotificationPage page) {
         StringBuilder messageBuilder = new StringBuilder();
-        if (notifications.isEmpty()) {
+        if (page.notifications().isEmpty()) {
             messageBuilder.append(NO_NOTIFICATIONS);
         } else {
             messageBuilder.append("Notifications: ").append(System.lineSeparator());
-            for (String notification : notifications) {
+            for (String notification : page.notifications()) {
                 messageBuilder.append("* ").append(notification).append(System.lineSeparator());
             }
+            if (page.remainingCount() > 0) {
+                messageBuilder.append(page.remainingCount()).append(" more unread, use notifications <count>")
+                    .append(System.lineSeparator());
+            }
             messageBuilder.delete(messageBuilder.lastIndexOf(System.lineSeparator()), messageBuilder.length());
         }
         message = messageBuilder.toString();
@@ -3,6 +3,8 @@ package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.DebtManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.money.Money;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 
 import java.util.List;
@@ -32,22 +34,28 @@ public class CheckPaymentHistoryCommand implements Command {
             message = NOT_LOGGED_IN_MESSAGE;
             return;
         }
-        Map<String, List<Double>> payments = debtManager.getPaymentsByUsernameMap().get(username);
+        Map<String, List<Long>> payments;
+        try {
+            payments = debtManager.getPayments(username);
+        } catch (DataStorageException e) {
+            message = e.getMessage();
+            return;
+        }
         Map<String, User> usersByUsername = userManager.getUserByUsernameMap();
         buildMessage(payments, usersByUsername);
     }
 
-    private void buildMessage(Map<String, List<Double>> payments, Map<String, User> usersByUsername) {
+    private void buildMessage(Map<String, List<Long>> payments, Map<String, User> usersByUsername) {
         StringBuilder messageBuilder = new StringBuilder();
-        if (payments == null) {
+        if (payments.isEmpty()) {
             messageBuilder.append(NO_HISTORY);
         } else {
             for (String payee : payments.keySet()) {
-                for (double amountPaid : payments.get(payee)) {
+                for (long amountPaid : payments.get(payee)) {
                     messageBuilder.append("* ").append("you paid ").append(usersByUsername.get(payee).firstName())
                         .append(" ")
                         .append(usersByUsername.get(payee).lastName()).append(" (").append(payee).append(") ")
-                        .append(amountPaid).append(" lv").append(System.lineSeparator());
+                        .append(Money.format(amountPaid)).append(" lv").append(System.lineSeparator());
                 }
             }
             messageBuilder.delete(messageBuilder.lastIndexOf(System.lineSeparator()), messageBuilder.length());
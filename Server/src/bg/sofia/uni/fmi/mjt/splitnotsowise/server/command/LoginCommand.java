@@ -5,9 +5,9 @@ import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.hasher.PasswordHasher;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.NotificationManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.session.ClientSession;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 
-import java.nio.channels.SelectionKey;
 import java.util.List;
 
 public class LoginCommand implements Command {
@@ -17,16 +17,16 @@ public class LoginCommand implements Command {
     private static final String NO_NOTIFICATIONS = "no notifications to show";
     private static final String LOGGED_IN_MESSAGE = "can't login into another account when you are logged in";
     private String message;
-    private final SelectionKey key;
+    private final ClientSession session;
     private final String username;
     private final String passwordHash;
 
     private final UserManager userManager;
     private final NotificationManager notificationManager;
-    public LoginCommand(SelectionKey key, String username, String password, UserManager userManager,
+    public LoginCommand(ClientSession session, String username, String password, UserManager userManager,
                         NotificationManager notificationManager) {
-        NotNullChecker.check(key, username, password, userManager, notificationManager);
-        this.key = key;
+        NotNullChecker.check(session, username, password, userManager, notificationManager);
+        this.session = session;
         this.username = username;
         this.passwordHash = PasswordHasher.hash(password);
         this.userManager = userManager;
@@ -35,7 +35,7 @@ public class LoginCommand implements Command {
 
     @Override
     public void execute() {
-        if (key.attachment() != null) {
+        if (session.isLoggedIn()) {
             message = LOGGED_IN_MESSAGE;
             return;
         }
@@ -45,7 +45,7 @@ public class LoginCommand implements Command {
             return;
         }
         if (user.passwordHash().equals(passwordHash)) {
-            key.attach(user);
+            session.setUser(user);
             List<String> notifications;
             try {
                 notifications = notificationManager.getNotifications(username);
@@ -1,25 +1,24 @@
 package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
 
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
-
-import java.nio.channels.SelectionKey;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.session.ClientSession;
 
 public class LogoutCommand implements Command {
 
     private static final String SUCCESS_MESSAGE = "logged out successfully";
     private static final String NOT_LOGGED_IN_MESSAGE = "can't logout when not logged in";
     private String message;
-    private final SelectionKey key;
+    private final ClientSession session;
 
-    public LogoutCommand(SelectionKey key) {
-        NotNullChecker.check(key);
-        this.key = key;
+    public LogoutCommand(ClientSession session) {
+        NotNullChecker.check(session);
+        this.session = session;
     }
 
     @Override
     public void execute() {
-        if (key.attachment() != null) {
-            key.attach(null);
+        if (session.isLoggedIn()) {
+            session.setUser(null);
             message = SUCCESS_MESSAGE;
         } else {
             message = NOT_LOGGED_IN_MESSAGE;
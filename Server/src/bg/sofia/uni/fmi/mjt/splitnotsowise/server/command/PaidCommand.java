@@ -3,6 +3,7 @@ package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.DebtManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.money.Money;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.PaidStatus;
 
 public class PaidCommand implements Command {
@@ -14,7 +15,7 @@ public class PaidCommand implements Command {
     private static final String SAME_USERNAMES_MESSAGE = "can't get paid by yourself";
     private String message;
     private final boolean isLoggedIn;
-    private final double amount;
+    private final long amount;
     private final String payer;
     private final String payee;
 
@@ -23,7 +24,7 @@ public class PaidCommand implements Command {
     public PaidCommand(boolean isLoggedIn, String amount, String payer, String payee, DebtManager debtManager) {
         NotNullChecker.check(isLoggedIn, amount, payer, debtManager);
         this.isLoggedIn = isLoggedIn;
-        this.amount = Double.parseDouble(amount);
+        this.amount = Money.parse(amount);
         this.payer = payer;
         this.payee = payee;
         this.debtManager = debtManager;
@@ -0,0 +1,40 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+public class ShutdownCommand implements Command {
+    private static final String SUCCESS_MESSAGE = "server is shutting down";
+    private static final String NOT_LOGGED_IN_MESSAGE = "can't shutdown the server when not logged in";
+    private static final String NOT_ADMIN_MESSAGE = "only administrators can shutdown the server";
+    private String message;
+    private final boolean isLoggedIn;
+    private final String username;
+    private final Server server;
+
+    public ShutdownCommand(boolean isLoggedIn, String username, Server server) {
+        NotNullChecker.check(isLoggedIn, server);
+        this.isLoggedIn = isLoggedIn;
+        this.username = username;
+        this.server = server;
+    }
+
+    @Override
+    public void execute() {
+        if (!isLoggedIn) {
+            message = NOT_LOGGED_IN_MESSAGE;
+            return;
+        }
+        if (!server.isAdmin(username)) {
+            message = NOT_ADMIN_MESSAGE;
+            return;
+        }
+        server.stop();
+        message = SUCCESS_MESSAGE;
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+}
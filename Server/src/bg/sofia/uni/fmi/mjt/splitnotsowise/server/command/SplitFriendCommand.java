@@ -3,6 +3,7 @@ package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.DebtManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.money.Money;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.SplitFriendStatus;
 
 public class SplitFriendCommand implements Command {
@@ -13,7 +14,7 @@ public class SplitFriendCommand implements Command {
     private static final String USER_DOES_NOT_EXIST_MESSAGE = "user with this username doesn't exist";
     private String message;
     private final boolean isLoggedIn;
-    private final double amount;
+    private final long amount;
     private final String payer;
     private final String payee;
     private final DebtManager debtManager;
@@ -21,7 +22,7 @@ public class SplitFriendCommand implements Command {
     public SplitFriendCommand(boolean isLoggedIn, String amount, String payer, String payee, DebtManager debtManager) {
         NotNullChecker.check(isLoggedIn, amount, payer, debtManager);
         this.isLoggedIn = isLoggedIn;
-        this.amount = Double.parseDouble(amount);
+        this.amount = Money.parse(amount);
         this.payer = payer;
         this.payee = payee;
         this.debtManager = debtManager;
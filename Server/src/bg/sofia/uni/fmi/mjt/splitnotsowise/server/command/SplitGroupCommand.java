@@ -3,6 +3,7 @@ package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.DebtManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.money.Money;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.SplitGroupStatus;
 
 public class SplitGroupCommand implements Command {
@@ -13,7 +14,7 @@ public class SplitGroupCommand implements Command {
     private static final String GROUP_DOES_NOT_EXIST_MESSAGE = "group with this name doesn't exist";
     private String message;
     private final boolean isLoggedIn;
-    private final double amount;
+    private final long amount;
     private final String payee;
     private final String groupName;
     private final DebtManager debtManager;
@@ -22,7 +23,7 @@ public class SplitGroupCommand implements Command {
                              DebtManager debtManager) {
         NotNullChecker.check(isLoggedIn, amount, groupName, debtManager);
         this.isLoggedIn = isLoggedIn;
-        this.amount = Double.parseDouble(amount);
+        this.amount = Money.parse(amount);
         this.payee = payee;
         this.groupName = groupName;
         this.debtManager = debtManager;
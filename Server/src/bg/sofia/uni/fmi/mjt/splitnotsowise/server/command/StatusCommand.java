@@ -2,7 +2,9 @@ package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
 
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.DebtManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserDebts;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.money.Money;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 
 import java.util.Map;
@@ -30,34 +32,29 @@ public class StatusCommand implements Command {
             message = NOT_LOGGED_IN_MESSAGE;
             return;
         }
-        Map<String, Double> payers = debtManager.getPayeesMap().get(username);
-        Map<String, Double> payees = debtManager.getPayersMap().get(username);
+        UserDebts debts = debtManager.getDebts(username);
         Map<String, User> usersByUsername = userManager.getUserByUsernameMap();
-        if (payers == null && payees == null ||
-            (payers != null && payers.isEmpty()) &&
-                (payees != null && payees.isEmpty())) {
+        if (debts.isEmpty()) {
             message = NO_MONEY_RELATIONS;
             return;
         }
-        buildMessage(payers, payees, usersByUsername);
+        buildMessage(debts.owedToUser(), debts.owedByUser(), usersByUsername);
     }
 
-    private void buildMessage(Map<String, Double> payers, Map<String, Double> payees,
+    private void buildMessage(Map<String, Long> payers, Map<String, Long> payees,
                               Map<String, User> usersByUsername) {
         StringBuilder messageBuilder = new StringBuilder();
-        if (payers != null) {
-            for (String payer : payers.keySet()) {
-                messageBuilder.append("* ").append(usersByUsername.get(payer).firstName()).append(" ")
-                    .append(usersByUsername.get(payer).lastName()).append(" (").append(payer).append("): owes you ")
-                    .append(payers.get(payer)).append(" lv").append(System.lineSeparator());
-            }
+        for (Map.Entry<String, Long> payer : payers.entrySet()) {
+            User user = usersByUsername.get(payer.getKey());
+            messageBuilder.append("* ").append(user.firstName()).append(" ").append(user.lastName())
+                .append(" (").append(payer.getKey()).append("): owes you ");
+            Money.append(messageBuilder, payer.getValue()).append(" lv").append(System.lineSeparator());
         }
-        if (payees != null) {
-            for (String payee : payees.keySet()) {
-                messageBuilder.append("* ").append(usersByUsername.get(payee).firstName()).append(" ")
-                    .append(usersByUsername.get(payee).lastName()).append(" (").append(payee).append("): you owe ")
-                    .append(payees.get(payee)).append(" lv").append(System.lineSeparator());
-            }
+        for (Map.Entry<String, Long> payee : payees.entrySet()) {
+            User user = usersByUsername.get(payee.getKey());
+            messageBuilder.append("* ").append(user.firstName()).append(" ").append(user.lastName())
+                .append(" (").append(payee.getKey()).append("): you owe ");
+            Money.append(messageBuilder, payee.getValue()).append(" lv").append(System.lineSeparator());
         }
         messageBuilder.delete(messageBuilder.lastIndexOf(System.lineSeparator()), messageBuilder.length());
         message = messageBuilder.toString();
@@ -0,0 +1,335 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.config;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.InvalidConfigurationException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.DurabilityMode;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.DurabilityPolicy;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngineType;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server.PROJECT_NAME;
+
+public class ServerConfig {
+    public static final Path DEFAULT_CONFIG_FILE_PATH = Paths.get(PROJECT_NAME, "server.properties");
+    public static final String CONFIG_FILE = "config";
+    public static final String HOST = "host";
+    public static final String PORT = "port";
+    public static final String BACKLOG = "backlog";
+    public static final String TCP_NO_DELAY = "tcp.nodelay";
+    public static final String RECEIVE_BUFFER_SIZE = "so.rcvbuf";
+    public static final String SEND_BUFFER_SIZE = "so.sndbuf";
+    public static final String REACTORS = "reactors";
+    public static final String BUFFER_SIZE = "buffer.size";
+    public static final String MAX_PENDING_OUTPUT_BYTES = "max.pending.output.bytes";
+    public static final String MAX_PENDING_COMMANDS = "max.pending.commands";
+    public static final String SHUTDOWN_TIMEOUT_MILLIS = "shutdown.timeout.ms";
+    public static final String IDLE_TIMEOUT_MILLIS = "idle.timeout.ms";
+    public static final String MAX_CONNECTIONS = "max.connections";
+    public static final String MAX_CONNECTIONS_PER_ADDRESS = "max.connections.per.ip";
+    public static final String ADMIN_USERS = "admin.users";
+    public static final String SNAPSHOT_INTERVAL_MILLIS = "snapshot.interval.ms";
+    public static final String STORAGE_ENGINE = "storage.engine";
+    public static final String DURABILITY_MODE = "durability.mode";
+    public static final String DURABILITY_INTERVAL_MILLIS = "durability.interval.ms";
+    public static final String MAX_CACHED_USERS = "max.cached.users";
+    public static final String NOTIFICATIONS_INBOX_SIZE = "notifications.inbox.size";
+    public static final String BACKUP_DIRECTORY = "backup.directory";
+    private static final String ARGUMENT_PREFIX = "--";
+    private static final String LIST_SEPARATOR = ",";
+    private static final int MAX_PORT = 65535;
+    private final Properties properties;
+    private final String host;
+    private final int port;
+    private final int backlog;
+    private final boolean tcpNoDelay;
+    private final int receiveBufferSize;
+    private final int sendBufferSize;
+    private final int reactorsCount;
+    private final int bufferSize;
+    private final long maxPendingOutputBytes;
+    private final int maxPendingCommands;
+    private final long shutdownTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final int maxConnections;
+    private final int maxConnectionsPerAddress;
+    private final Set<String> adminUsers;
+    private final long snapshotIntervalMillis;
+    private final StorageEngineType storageEngine;
+    private final DurabilityPolicy durabilityPolicy;
+    private final int maxCachedUsers;
+    private final int notificationsInboxSize;
+    private final Path backupDirectory;
+
+    private ServerConfig(Properties properties) throws InvalidConfigurationException {
+        this.properties = properties;
+        validate();
+        host = properties.getProperty(HOST).trim();
+        port = getInt(PORT);
+        backlog = getInt(BACKLOG);
+        tcpNoDelay = Boolean.parseBoolean(properties.getProperty(TCP_NO_DELAY).trim());
+        receiveBufferSize = getInt(RECEIVE_BUFFER_SIZE);
+        sendBufferSize = getInt(SEND_BUFFER_SIZE);
+        reactorsCount = getInt(REACTORS);
+        bufferSize = getInt(BUFFER_SIZE);
+        maxPendingOutputBytes = getLong(MAX_PENDING_OUTPUT_BYTES);
+        maxPendingCommands = getInt(MAX_PENDING_COMMANDS);
+        shutdownTimeoutMillis = getLong(SHUTDOWN_TIMEOUT_MILLIS);
+        idleTimeoutMillis = getLong(IDLE_TIMEOUT_MILLIS);
+        maxConnections = getInt(MAX_CONNECTIONS);
+        maxConnectionsPerAddress = getInt(MAX_CONNECTIONS_PER_ADDRESS);
+        adminUsers = getSet(ADMIN_USERS);
+        snapshotIntervalMillis = getLong(SNAPSHOT_INTERVAL_MILLIS);
+        storageEngine = StorageEngineType.fromName(properties.getProperty(STORAGE_ENGINE));
+        durabilityPolicy = new DurabilityPolicy(DurabilityMode.fromName(properties.getProperty(DURABILITY_MODE)),
+            getLong(DURABILITY_INTERVAL_MILLIS));
+        maxCachedUsers = getInt(MAX_CACHED_USERS);
+        notificationsInboxSize = getInt(NOTIFICATIONS_INBOX_SIZE);
+        backupDirectory = Paths.get(properties.getProperty(BACKUP_DIRECTORY).trim());
+    }
+
+    public static ServerConfig defaults() {
+        try {
+            return new ServerConfig(defaultProperties());
+        } catch (InvalidConfigurationException e) {
+            throw new IllegalStateException("default configuration is invalid", e);
+        }
+    }
+
+    public static ServerConfig load(String... args) throws InvalidConfigurationException {
+        NotNullChecker.check((Object) args);
+        Properties overrides = parseArguments(args);
+        Path configFilePath = overrides.containsKey(CONFIG_FILE) ?
+            Paths.get(overrides.getProperty(CONFIG_FILE)) : DEFAULT_CONFIG_FILE_PATH;
+
+        Properties properties = defaultProperties();
+        if (Files.exists(configFilePath)) {
+            try (BufferedReader br = new BufferedReader(new FileReader(configFilePath.toString()))) {
+                properties.load(br);
+            } catch (IOException e) {
+                throw new InvalidConfigurationException("could not read config file " + configFilePath, e);
+            }
+        } else if (overrides.containsKey(CONFIG_FILE)) {
+            throw new InvalidConfigurationException("config file " + configFilePath + " does not exist");
+        }
+        properties.putAll(overrides);
+
+        return new ServerConfig(properties);
+    }
+
+    private static Properties defaultProperties() {
+        Properties properties = new Properties();
+        properties.setProperty(HOST, "localhost");
+        properties.setProperty(PORT, "1234");
+        properties.setProperty(BACKLOG, "128");
+        properties.setProperty(TCP_NO_DELAY, "true");
+        properties.setProperty(RECEIVE_BUFFER_SIZE, "0");
+        properties.setProperty(SEND_BUFFER_SIZE, "0");
+        properties.setProperty(REACTORS, String.valueOf(Runtime.getRuntime().availableProcessors()));
+        properties.setProperty(BUFFER_SIZE, "1024");
+        properties.setProperty(MAX_PENDING_OUTPUT_BYTES, String.valueOf(1024 * 1024));
+        properties.setProperty(MAX_PENDING_COMMANDS, "1024");
+        properties.setProperty(SHUTDOWN_TIMEOUT_MILLIS, "10000");
+        properties.setProperty(IDLE_TIMEOUT_MILLIS, "300000");
+        properties.setProperty(MAX_CONNECTIONS, "10000");
+        properties.setProperty(MAX_CONNECTIONS_PER_ADDRESS, "100");
+        properties.setProperty(ADMIN_USERS, "");
+        properties.setProperty(SNAPSHOT_INTERVAL_MILLIS, "600000");
+        properties.setProperty(STORAGE_ENGINE, StorageEngineType.FLAT_FILE.getName());
+        properties.setProperty(DURABILITY_MODE, DurabilityMode.COMMIT.getName());
+        properties.setProperty(DURABILITY_INTERVAL_MILLIS, "10");
+        properties.setProperty(MAX_CACHED_USERS, "0");
+        properties.setProperty(NOTIFICATIONS_INBOX_SIZE, "100");
+        properties.setProperty(BACKUP_DIRECTORY, Paths.get(PROJECT_NAME, "backups").toString());
+        return properties;
+    }
+
+    private static Properties parseArguments(String[] args) throws InvalidConfigurationException {
+        Properties overrides = new Properties();
+        for (String arg : args) {
+            int separatorIndex = arg.indexOf('=');
+            if (!arg.startsWith(ARGUMENT_PREFIX) || separatorIndex < 0) {
+                throw new InvalidConfigurationException("invalid argument " + arg + ", expected --<key>=<value>");
+            }
+            overrides.setProperty(arg.substring(ARGUMENT_PREFIX.length(), separatorIndex),
+                arg.substring(separatorIndex + 1));
+        }
+        return overrides;
+    }
+
+    private void validate() throws InvalidConfigurationException {
+        requireRange(PORT, 1, MAX_PORT);
+        requireRange(BACKLOG, 1, Integer.MAX_VALUE);
+        requireRange(RECEIVE_BUFFER_SIZE, 0, Integer.MAX_VALUE);
+        requireRange(SEND_BUFFER_SIZE, 0, Integer.MAX_VALUE);
+        requireRange(REACTORS, 1, Integer.MAX_VALUE);
+        requireRange(BUFFER_SIZE, Integer.BYTES + Integer.BYTES, Integer.MAX_VALUE);
+        requireRange(MAX_PENDING_OUTPUT_BYTES, 1, Long.MAX_VALUE);
+        requireRange(MAX_PENDING_COMMANDS, 1, Integer.MAX_VALUE);
+        requireRange(SHUTDOWN_TIMEOUT_MILLIS, 0, Long.MAX_VALUE);
+        requireRange(IDLE_TIMEOUT_MILLIS, 0, Long.MAX_VALUE);
+        requireRange(MAX_CONNECTIONS, 1, Integer.MAX_VALUE);
+        requireRange(MAX_CONNECTIONS_PER_ADDRESS, 1, Integer.MAX_VALUE);
+        requireRange(SNAPSHOT_INTERVAL_MILLIS, 0, Long.MAX_VALUE);
+        requireRange(DURABILITY_INTERVAL_MILLIS, 0, Long.MAX_VALUE);
+        requireRange(MAX_CACHED_USERS, 0, Integer.MAX_VALUE);
+        requireRange(NOTIFICATIONS_INBOX_SIZE, 1, Integer.MAX_VALUE);
+        requireBoolean(TCP_NO_DELAY);
+        requireStorageEngine(STORAGE_ENGINE);
+        requireDurabilityMode(DURABILITY_MODE);
+        requireNotBlank(HOST);
+        requireNotBlank(BACKUP_DIRECTORY);
+    }
+
+    private void requireRange(String key, long min, long max) throws InvalidConfigurationException {
+        long value = parseLong(key);
+        if (value < min || value > max) {
+            throw new InvalidConfigurationException(key + " must be between " + min + " and " + max);
+        }
+    }
+
+    private void requireNotBlank(String key) throws InvalidConfigurationException {
+        if (properties.getProperty(key).isBlank()) {
+            throw new InvalidConfigurationException(key + " must not be blank");
+        }
+    }
+
+    private void requireBoolean(String key) throws InvalidConfigurationException {
+        String value = properties.getProperty(key).trim();
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new InvalidConfigurationException(key + " must be true or false");
+        }
+    }
+
+    private void requireStorageEngine(String key) throws InvalidConfigurationException {
+        try {
+            StorageEngineType.fromName(properties.getProperty(key));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidConfigurationException(key + " must be one of memory, flat-file or run-log", e);
+        }
+    }
+
+    private void requireDurabilityMode(String key) throws InvalidConfigurationException {
+        try {
+            DurabilityMode.fromName(properties.getProperty(key));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidConfigurationException(key + " must be one of none, batch or commit", e);
+        }
+    }
+
+    private long parseLong(String key) throws InvalidConfigurationException {
+        try {
+            return Long.parseLong(properties.getProperty(key).trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidConfigurationException(key + " must be a number", e);
+        }
+    }
+
+    private int getInt(String key) {
+        return Integer.parseInt(properties.getProperty(key).trim());
+    }
+
+    private long getLong(String key) {
+        return Long.parseLong(properties.getProperty(key).trim());
+    }
+
+    private Set<String> getSet(String key) {
+        return Arrays.stream(properties.getProperty(key).split(LIST_SEPARATOR))
+            .map(String::trim)
+            .filter(value -> !value.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public int getReactorsCount() {
+        return reactorsCount;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public long getMaxPendingOutputBytes() {
+        return maxPendingOutputBytes;
+    }
+
+    public int getMaxPendingCommands() {
+        return maxPendingCommands;
+    }
+
+    public long getShutdownTimeoutMillis() {
+        return shutdownTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getMaxConnectionsPerAddress() {
+        return maxConnectionsPerAddress;
+    }
+
+    public Set<String> getAdminUsers() {
+        return adminUsers;
+    }
+
+    public long getSnapshotIntervalMillis() {
+        return snapshotIntervalMillis;
+    }
+
+    public StorageEngineType getStorageEngine() {
+        return storageEngine;
+    }
+
+    public DurabilityPolicy getDurabilityPolicy() {
+        return durabilityPolicy;
+    }
+
+    public int getMaxCachedUsers() {
+        return maxCachedUsers;
+    }
+
+    public int getNotificationsInboxSize() {
+        return notificationsInboxSize;
+    }
+
+    public Path getBackupDirectory() {
+        return backupDirectory;
+    }
+}
@@ -0,0 +1,71 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.connection;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.ConnectionStatus;
+
+import java.net.InetAddress;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConnectionLimiter {
+    private final int maxConnections;
+    private final int maxConnectionsPerAddress;
+    private final AtomicInteger connectionsCount;
+    private final Map<InetAddress, Integer> connectionsCountByAddress;
+    private final Map<SocketChannel, InetAddress> addressByChannel;
+
+    public ConnectionLimiter(int maxConnections, int maxConnectionsPerAddress) {
+        if (maxConnections <= 0 || maxConnectionsPerAddress <= 0) {
+            throw new IllegalArgumentException("connection limits must be positive");
+        }
+        this.maxConnections = maxConnections;
+        this.maxConnectionsPerAddress = maxConnectionsPerAddress;
+        this.connectionsCount = new AtomicInteger();
+        this.connectionsCountByAddress = new ConcurrentHashMap<>();
+        this.addressByChannel = new ConcurrentHashMap<>();
+    }
+
+    public ConnectionStatus tryAcquire(SocketChannel channel, InetAddress address) {
+        NotNullChecker.check(channel, address);
+        if (connectionsCount.incrementAndGet() > maxConnections) {
+            connectionsCount.decrementAndGet();
+            return ConnectionStatus.TOO_MANY_CONNECTIONS;
+        }
+        boolean[] isAcquired = {false};
+        connectionsCountByAddress.compute(address, (k, count) -> {
+            int currentCount = count == null ? 0 : count;
+            if (currentCount >= maxConnectionsPerAddress) {
+                return count;
+            }
+            isAcquired[0] = true;
+            return currentCount + 1;
+        });
+        if (!isAcquired[0]) {
+            connectionsCount.decrementAndGet();
+            return ConnectionStatus.TOO_MANY_CONNECTIONS_FROM_ADDRESS;
+        }
+        addressByChannel.put(channel, address);
+        return ConnectionStatus.ACCEPTED;
+    }
+
+    public void release(SocketChannel channel) {
+        NotNullChecker.check(channel);
+        InetAddress address = addressByChannel.remove(channel);
+        if (address == null) {
+            return;
+        }
+        connectionsCountByAddress.computeIfPresent(address, (k, count) -> count == 1 ? null : count - 1);
+        connectionsCount.decrementAndGet();
+    }
+
+    public int getConnectionsCount() {
+        return connectionsCount.get();
+    }
+
+    public int getConnectionsCount(InetAddress address) {
+        NotNullChecker.check(address);
+        return connectionsCountByAddress.getOrDefault(address, 0);
+    }
+}
@@ -0,0 +1,69 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.connection;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+public class TimerWheel<T> {
+    private final long tickMillis;
+    private final List<Queue<Timeout<T>>> slots;
+    private long currentTick;
+    private int size;
+
+    private record Timeout<T>(T item, long deadlineTick) {
+    }
+
+    public TimerWheel(long tickMillis, int slotsCount, long nowMillis) {
+        if (tickMillis <= 0 || slotsCount <= 0) {
+            throw new IllegalArgumentException("tick duration and slots count must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(slotsCount);
+        for (int i = 0; i < slotsCount; i++) {
+            slots.add(new ArrayDeque<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void schedule(T item, long deadlineMillis) {
+        NotNullChecker.check(item);
+        long deadlineTick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        slots.get(slotIndex(deadlineTick)).add(new Timeout<>(item, deadlineTick));
+        size++;
+    }
+
+    public List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            Queue<Timeout<T>> slot = slots.get(slotIndex(currentTick));
+            int slotSize = slot.size();
+            for (int i = 0; i < slotSize; i++) {
+                Timeout<T> timeout = slot.poll();
+                if (timeout.deadlineTick() <= currentTick) {
+                    expired.add(timeout.item());
+                    size--;
+                } else {
+                    slot.add(timeout);
+                }
+            }
+        }
+        return expired;
+    }
+
+    private int slotIndex(long tick) {
+        return (int) (tick % slots.size());
+    }
+}
@@ -0,0 +1,11 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.nio.file.Path;
+
+public record Backup(Path directory, int filesCount, long bytesCount) {
+    public Backup {
+        NotNullChecker.check(directory);
+    }
+}
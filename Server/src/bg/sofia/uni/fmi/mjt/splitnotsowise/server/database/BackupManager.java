@@ -0,0 +1,147 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.FrozenFile;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngines;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server.PROJECT_NAME;
+
+public class BackupManager {
+    public static final Path DATA_DIRECTORY = Paths.get(PROJECT_NAME);
+    public static final Path BACKUP_DIRECTORY = DATA_DIRECTORY.resolve("backups");
+    private static final String BACKUP_NAME_PREFIX = "backup-";
+    private static final String INCOMPLETE_BACKUP_POSTFIX = ".tmp";
+    private static final String DATA_FILE_NAME_POSTFIX = ".txt";
+    private static final DateTimeFormatter BACKUP_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static BackupManager instance;
+    private Path dataDirectory;
+    private Path backupDirectory;
+    private StorageEngine storageEngine;
+
+    private BackupManager() {
+        dataDirectory = DATA_DIRECTORY;
+        backupDirectory = BACKUP_DIRECTORY;
+    }
+
+    public static void resetInstance() {
+        instance = new BackupManager();
+    }
+
+    public static void setInstance(BackupManager backupManager) {
+        NotNullChecker.check(backupManager);
+        instance = backupManager;
+    }
+
+    public static synchronized BackupManager getInstance() {
+        if (instance == null) {
+            instance = new BackupManager();
+        }
+        return instance;
+    }
+
+    public void setDataDirectory(Path dataDirectory) {
+        NotNullChecker.check(dataDirectory);
+        this.dataDirectory = dataDirectory;
+    }
+
+    public void setBackupDirectory(Path backupDirectory) {
+        NotNullChecker.check(backupDirectory);
+        this.backupDirectory = backupDirectory;
+    }
+
+    public void setStorageEngine(StorageEngine storageEngine) {
+        NotNullChecker.check(storageEngine);
+        this.storageEngine = storageEngine;
+    }
+
+    private StorageEngine getStorageEngine() {
+        if (storageEngine == null) {
+            storageEngine = StorageEngines.getInstance();
+        }
+        return storageEngine;
+    }
+
+    public synchronized Backup backup() throws DataStorageException {
+        List<FrozenFile> files = new ArrayList<>();
+        try {
+            files.addAll(freezeDataFiles());
+            files.addAll(getStorageEngine().freeze());
+            return write(files);
+        } finally {
+            FrozenFile.closeAll(files);
+        }
+    }
+
+    private List<FrozenFile> freezeDataFiles() throws DataStorageException {
+        List<FrozenFile> files = new ArrayList<>();
+        if (!Files.isDirectory(dataDirectory)) {
+            return files;
+        }
+        try (Stream<Path> entries = Files.list(dataDirectory)) {
+            for (Path file : entries.sorted().toList()) {
+                if (Files.isRegularFile(file) && file.getFileName().toString().endsWith(DATA_FILE_NAME_POSTFIX)) {
+                    files.add(FrozenFile.open(file));
+                }
+            }
+            return files;
+        } catch (IOException e) {
+            FrozenFile.closeAll(files);
+            throw new DataStorageException("an error occurred when opening the data files in " + dataDirectory, e);
+        }
+    }
+
+    private Backup write(List<FrozenFile> files) throws DataStorageException {
+        String backupName = BACKUP_NAME_PREFIX + LocalDateTime.now().format(BACKUP_NAME_FORMATTER);
+        Path target = backupDirectory.resolve(backupName);
+        Path incompleteTarget = backupDirectory.resolve(backupName + INCOMPLETE_BACKUP_POSTFIX);
+        long bytesCount = 0;
+        try {
+            Files.createDirectories(incompleteTarget);
+            for (FrozenFile file : files) {
+                Path copy = incompleteTarget.resolve(getRelativePath(file.getPath()));
+                bytesCount += file.transferTo(copy);
+                FileSynchronizer.syncDirectory(copy.getParent());
+            }
+            Files.move(incompleteTarget, target, StandardCopyOption.ATOMIC_MOVE);
+            FileSynchronizer.syncDirectory(backupDirectory);
+        } catch (IOException e) {
+            deleteIncompleteBackup(incompleteTarget, e);
+            throw new DataStorageException("an error occurred when writing the backup " + target, e);
+        }
+        return new Backup(target, files.size(), bytesCount);
+    }
+
+    private Path getRelativePath(Path file) {
+        Path absoluteDataDirectory = dataDirectory.toAbsolutePath().normalize();
+        Path absoluteFile = file.toAbsolutePath().normalize();
+        return absoluteFile.startsWith(absoluteDataDirectory) ?
+            absoluteDataDirectory.relativize(absoluteFile) : file.getFileName();
+    }
+
+    private static void deleteIncompleteBackup(Path directory, IOException cause) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> entries = Files.walk(directory)) {
+            for (Path entry : entries.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(entry);
+            }
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+}
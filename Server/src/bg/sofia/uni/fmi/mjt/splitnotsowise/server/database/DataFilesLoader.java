@@ -0,0 +1,93 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class DataFilesLoader implements AutoCloseable {
+    private final ForkJoinPool pool;
+    private final Map<Path, List<Path>> filesByDirectory;
+
+    public DataFilesLoader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public DataFilesLoader(int parallelism) {
+        pool = new ForkJoinPool(parallelism);
+        filesByDirectory = new HashMap<>();
+    }
+
+    public <T> Map<String, T> load(Path directory, String fileNamePostfix, Set<String> usernames,
+                                   BiFunction<String, List<String>, T> parser) throws DataStorageException {
+        NotNullChecker.check(directory, fileNamePostfix, usernames, parser);
+        Map<String, Path> fileByUsername = new HashMap<>();
+        for (Path file : listFiles(directory)) {
+            String fileName = file.getFileName().toString();
+            if (!fileName.endsWith(fileNamePostfix)) {
+                continue;
+            }
+            String username = fileName.substring(0, fileName.length() - fileNamePostfix.length());
+            if (usernames.contains(username)) {
+                fileByUsername.put(username, file);
+            }
+        }
+
+        try {
+            return pool.submit(() -> fileByUsername.entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                    entry -> parser.apply(entry.getKey(), readLines(entry.getValue())))))
+                .get();
+        } catch (ExecutionException e) {
+            throw new DataStorageException("an error occurred when loading the " + fileNamePostfix + " files",
+                e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataStorageException("interrupted while loading the " + fileNamePostfix + " files", e);
+        }
+    }
+
+    private List<Path> listFiles(Path directory) throws DataStorageException {
+        List<Path> files = filesByDirectory.get(directory);
+        if (files != null) {
+            return files;
+        }
+        Path listedDirectory = directory.toString().isEmpty() ? Path.of(".") : directory;
+        if (!Files.isDirectory(listedDirectory)) {
+            files = List.of();
+        } else {
+            try (Stream<Path> entries = Files.list(listedDirectory)) {
+                files = entries.toList();
+            } catch (IOException e) {
+                throw new DataStorageException("an error occurred when listing the data directory " + directory, e);
+            }
+        }
+        filesByDirectory.put(directory, files);
+        return files;
+    }
+
+    private static List<String> readLines(Path file) {
+        try {
+            return LegacyDataFile.readLines(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
@@ -1,56 +1,72 @@
 package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
 
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.collection.IntIndexedTable;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.money.Money;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.PaidStatus;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.SplitFriendStatus;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.SplitGroupStatus;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.LogRecord;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.RecordType;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngines;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server.PROJECT_NAME;
 
 public class DebtManager {
     private static final String DEBTS_FILE_NAME_POSTFIX = "_debts.txt";
     private static final String PAYMENTS_FILE_NAME_POSTFIX = "_payments.txt";
+    private static final String CACHED_PAYMENTS_FILE_NAME_POSTFIX = ".payments";
+    private static final Comparator<UserBalance> BY_NET_BALANCE = Comparator.comparingLong(UserBalance::net)
+        .thenComparing(UserBalance::username, Comparator.reverseOrder());
     public static String projectName;
     public static String debtsFileNamePostfix;
     public static String paymentsFileNamePostfix;
-    private static final String DEBTS_FILE_HEADER = "payee,amount";
-    private static final String PAYMENTS_FILE_HEADER = "payee,amount";
     private static DebtManager instance;
-    private final Map<String, Map<String, Double>> payers;
-    private final Map<String, Map<String, Double>> payees;
-    private final Map<String, Map<String, List<Double>>> paymentsByUsername;
+    private final IntIndexedTable<UserLedger> ledgersByUserId;
+    private final NavigableSet<UserBalance> rankedBalances;
+    private final UserIdTable userIds;
+    private final UserStateCache<Map<String, List<Long>>> paymentsByUsername;
     private UserManager userManager;
     private FriendshipManager friendshipManager;
     private GroupManager groupManager;
     private NotificationManager notificationManager;
+    private StorageEngine storageEngine;
     private boolean dataLoaded;
     private DebtManager() {
-        payers = new HashMap<>();
-        payees = new HashMap<>();
-        paymentsByUsername = new HashMap<>();
+        ledgersByUserId = new IntIndexedTable<>();
+        rankedBalances = new ConcurrentSkipListSet<>(BY_NET_BALANCE.reversed());
+        userIds = UserIdTable.getInstance();
+        paymentsByUsername = new UserStateCache<>(UserStateCache.SPILL_DIRECTORY, CACHED_PAYMENTS_FILE_NAME_POSTFIX,
+            DebtManager::toPaymentRecords, DebtManager::fromPaymentRecords);
         dataLoaded = false;
     }
 
     public void initialize() throws DataStorageException {
+        try (DataFilesLoader loader = new DataFilesLoader()) {
+            initialize(loader);
+        }
+    }
+
+    public void initialize(DataFilesLoader loader) throws DataStorageException {
+        NotNullChecker.check(loader);
         if (!dataLoaded) {
-            loadDebts();
-            loadPayments();
+            loadDebts(loader);
+            loadPayments(loader);
             dataLoaded = true;
         }
     }
@@ -76,6 +92,7 @@ public class DebtManager {
         friendshipManager = FriendshipManager.getInstance();
         groupManager = GroupManager.getInstance();
         notificationManager = NotificationManager.getInstance();
+        storageEngine = StorageEngines.getInstance();
     }
 
     private void initializeFilesInfo() {
@@ -90,16 +107,96 @@ public class DebtManager {
         }
     }
 
-    public Map<String, Map<String, Double>> getPayersMap() {
-        return payers;
+    public UserDebts getDebts(String username) {
+        NotNullChecker.check(username);
+        int userId = userIds.getId(username);
+        UserLedger ledger = userId == UserIdTable.UNKNOWN_USER_ID ? UserLedger.EMPTY : getLedger(userId);
+        if (ledger.isEmpty()) {
+            return UserDebts.EMPTY;
+        }
+        Map<String, Long> owedToUser = new HashMap<>();
+        Map<String, Long> owedByUser = new HashMap<>();
+        ledger.forEach((otherUserId, balance) -> {
+            if (balance > 0) {
+                owedByUser.put(userIds.getUsername(otherUserId), balance);
+            } else {
+                owedToUser.put(userIds.getUsername(otherUserId), -balance);
+            }
+        });
+        return new UserDebts(owedToUser, owedByUser);
+    }
+
+    public Map<String, Long> getDebtsOwedBy(String payer) {
+        return getDebts(payer).owedByUser();
+    }
+
+    public Map<String, Long> getDebtsOwedTo(String payee) {
+        return getDebts(payee).owedToUser();
+    }
+
+    public UserBalance getBalance(String username) {
+        NotNullChecker.check(username);
+        int userId = userIds.getId(username);
+        UserLedger ledger = userId == UserIdTable.UNKNOWN_USER_ID ? UserLedger.EMPTY : getLedger(userId);
+        return toUserBalance(username, ledger);
+    }
+
+    public List<UserBalance> getTopBalances(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        return rankedBalances.stream()
+            .limit(count)
+            .toList();
+    }
+
+    private UserLedger getLedger(int userId) {
+        UserLedger ledger = ledgersByUserId.get(userId);
+        return ledger == null ? UserLedger.EMPTY : ledger;
+    }
+
+    public long getDebt(String payer, String payee) {
+        NotNullChecker.check(payer, payee);
+        int payerId = userIds.getId(payer);
+        int payeeId = userIds.getId(payee);
+        if (payerId == UserIdTable.UNKNOWN_USER_ID || payeeId == UserIdTable.UNKNOWN_USER_ID) {
+            return 0;
+        }
+        return getDebt(payerId, payeeId);
+    }
+
+    private long getDebt(int payerId, int payeeId) {
+        return Math.max(0, getLedger(payerId).getBalance(payeeId));
+    }
+
+    public Map<String, List<Long>> getPayments(String payer) throws DataStorageException {
+        NotNullChecker.check(payer);
+        Map<String, List<Long>> payments = paymentsByUsername.get(payer);
+        return payments == null ? Map.of() : payments;
     }
 
-    public Map<String, Map<String, Double>> getPayeesMap() {
-        return payees;
+    public void setMaxCachedUsers(int maxCachedUsers) throws DataStorageException {
+        paymentsByUsername.setMaxCachedUsers(maxCachedUsers);
     }
 
-    public Map<String, Map<String, List<Double>>> getPaymentsByUsernameMap() {
-        return paymentsByUsername;
+    private static List<LogRecord> toPaymentRecords(String payer, Map<String, List<Long>> payments) {
+        List<LogRecord> records = new ArrayList<>();
+        for (Map.Entry<String, List<Long>> paymentsToPayee : payments.entrySet()) {
+            for (long amountPaid : paymentsToPayee.getValue()) {
+                records.add(new LogRecord(RecordType.PAYMENT_RECORDED,
+                    payer, paymentsToPayee.getKey(), Money.format(amountPaid)));
+            }
+        }
+        return records;
+    }
+
+    private static Map<String, List<Long>> fromPaymentRecords(List<LogRecord> records) {
+        Map<String, List<Long>> payments = new HashMap<>();
+        for (LogRecord record : records) {
+            payments.computeIfAbsent(record.field(1), k -> new ArrayList<>()).add(Money.parseRounded(record.field(2)));
+        }
+        payments.replaceAll((payee, amounts) -> Collections.unmodifiableList(amounts));
+        return Collections.unmodifiableMap(payments);
     }
 
     public static void setProjectName(String name) {
@@ -129,166 +226,172 @@ public class DebtManager {
         paymentsFileNamePostfix = PAYMENTS_FILE_NAME_POSTFIX;
     }
 
-    private static double round(double amount) {
-        NotNullChecker.check(amount);
-        final double hundred = 100;
-        return Math.round(amount * hundred) / hundred;
+    private void addToDebtsMaps(String payer, String payee, long amount) {
+        NotNullChecker.check(payer, payee);
+        int payerId = userIds.intern(payer);
+        int payeeId = userIds.intern(payee);
+        setBalance(payerId, payeeId, getLedger(payerId).getBalance(payeeId) + amount);
     }
 
-    private synchronized void addToDebtsMaps(String payer, String payee, double amount) {
-        NotNullChecker.check(payer, payee, amount);
-        payers.computeIfAbsent(payer, k -> new HashMap<>());
-        payees.computeIfAbsent(payee, k -> new HashMap<>());
-
-        payers.computeIfAbsent(payee, k -> new HashMap<>());
-        payees.computeIfAbsent(payer, k -> new HashMap<>());
+    private void addToPaymentsMap(String payer, String payee, long amountPaid) throws DataStorageException {
+        NotNullChecker.check(payer, payee);
+        paymentsByUsername.compute(payer, payments -> withPayment(payments, payee, amountPaid));
+    }
 
-        Double payeeToPayerDebt = payers.get(payee).get(payer);
-        Double payerToPayeeDebt = payers.get(payer).get(payee);
+    private static Map<String, List<Long>> withPayment(Map<String, List<Long>> payments, String payee,
+                                                       long amountPaid) {
+        Map<String, List<Long>> updatedPayments = payments == null ? new HashMap<>() : new HashMap<>(payments);
+        List<Long> paymentsToPayee = new ArrayList<>(updatedPayments.getOrDefault(payee, List.of()));
+        paymentsToPayee.add(amountPaid);
+        updatedPayments.put(payee, Collections.unmodifiableList(paymentsToPayee));
+        return Collections.unmodifiableMap(updatedPayments);
+    }
 
-        if (payeeToPayerDebt != null) {
-            double amountOwedByPayeeToPayer = payeeToPayerDebt;
+    private void setBalance(int payerId, int payeeId, long balance) {
+        updateLedger(payerId, payeeId, balance);
+        updateLedger(payeeId, payerId, -balance);
+    }
 
-            if (amount < amountOwedByPayeeToPayer) {
-                addDebt(payee, payer, round(amountOwedByPayeeToPayer - amount));
-            } else if (amountOwedByPayeeToPayer < amount) {
-                clearDebt(payee, payer);
-                addDebt(payer, payee, round(amount - amountOwedByPayeeToPayer));
-            } else {
-                clearDebt(payee, payer);
-            }
-        } else if (payerToPayeeDebt != null) {
-            mergeDebt(payer, payee, amount);
-        } else {
-            addDebt(payer, payee, amount);
+    private void updateLedger(int userId, int otherUserId, long balance) {
+        AtomicReference<UserLedger> previousLedger = new AtomicReference<>();
+        UserLedger updatedLedger = ledgersByUserId.compute(userId, ledger -> {
+            previousLedger.set(ledger == null ? UserLedger.EMPTY : ledger);
+            return previousLedger.get().withBalance(otherUserId, balance);
+        });
+        if (updatedLedger == previousLedger.get()) {
+            return;
+        }
+        String username = userIds.getUsername(userId);
+        if (!previousLedger.get().isEmpty()) {
+            rankedBalances.remove(toUserBalance(username, previousLedger.get()));
+        }
+        if (!updatedLedger.isEmpty()) {
+            rankedBalances.add(toUserBalance(username, updatedLedger));
         }
     }
 
-    private synchronized void addToPaymentsMap(String payer, String payee, double amountPaid) {
-        NotNullChecker.check(payer, payee, amountPaid);
-        paymentsByUsername.computeIfAbsent(payer, k -> new HashMap<>());
-        paymentsByUsername.get(payer).computeIfAbsent(payee, k -> new ArrayList<>());
-        paymentsByUsername.get(payer).get(payee).add(amountPaid);
+    private static UserBalance toUserBalance(String username, UserLedger ledger) {
+        return new UserBalance(username, ledger.getOwedToUserTotal(), ledger.getOwedByUserTotal());
     }
 
-    private synchronized void clearDebt(String payer, String payee) {
+    private void recalculateDebts(String payer, String payee, long amountPaid) throws DataStorageException {
         NotNullChecker.check(payer, payee);
-        payers.get(payer).remove(payee);
-        payees.get(payee).remove(payer);
+        int payerId = userIds.intern(payer);
+        int payeeId = userIds.intern(payee);
+        setBalance(payerId, payeeId, getLedger(payerId).getBalance(payeeId) - amountPaid);
+        addToPaymentsMap(payer, payee, amountPaid);
     }
 
-    private synchronized void mergeDebt(String payer, String payee, double amount) {
-        NotNullChecker.check(payer, payee, amount);
-        payers.get(payer).merge(payee, amount, Double::sum);
-        payees.get(payee).merge(payer, amount, Double::sum);
+    public void loadDebts() throws DataStorageException {
+        try (DataFilesLoader loader = new DataFilesLoader()) {
+            loadDebts(loader);
+        }
     }
 
-    private synchronized void addDebt(String payer, String payee, double amount) {
-        NotNullChecker.check(payer, payee, amount);
-        if (amount == 0) {
-            clearDebt(payer, payee);
-        } else {
-            payers.get(payer).put(payee, amount);
-            payees.get(payee).put(payer, amount);
+    public void loadDebts(DataFilesLoader loader) throws DataStorageException {
+        NotNullChecker.check(loader);
+        initializeManagers();
+        initializeFilesInfo();
+        Map<String, Map<String, Long>> debtsByPayer = loader.load(Paths.get(projectName), debtsFileNamePostfix,
+            userManager.getUserByUsernameMap().keySet(), (payer, lines) -> parseDebts(payer, lines));
+
+        for (Map.Entry<String, Map<String, Long>> debts : debtsByPayer.entrySet()) {
+            for (Map.Entry<String, Long> debt : debts.getValue().entrySet()) {
+                addToDebtsMaps(debts.getKey(), debt.getKey(), debt.getValue());
+            }
         }
     }
 
-    private void recalculateDebts(String payer, String payee, double amountPaid) {
-        NotNullChecker.check(payer, payee, amountPaid);
-        double owedAmount = 0;
-        if (payers.containsKey(payer) && payers.get(payer).containsKey(payee)) {
-            owedAmount = payers.get(payer).get(payee);
+    private Map<String, Long> parseDebts(String payer, List<String> lines) {
+        Map<String, Long> amountByPayee = new HashMap<>();
+        for (Map.Entry<String, Long> debt : parseAmounts(payer + debtsFileNamePostfix, lines)) {
+            amountByPayee.merge(debt.getKey(), debt.getValue(), Long::sum);
         }
-        double newAmount = owedAmount - amountPaid;
-        newAmount = round(newAmount);
-        if (newAmount >= 0) {
-            addDebt(payer, payee, newAmount);
-        } else {
-            clearDebt(payer, payee);
-            addDebt(payee, payer, -newAmount);
+        return amountByPayee;
+    }
+
+    public void loadPayments() throws DataStorageException {
+        try (DataFilesLoader loader = new DataFilesLoader()) {
+            loadPayments(loader);
         }
-        addToPaymentsMap(payer, payee, amountPaid);
     }
 
-    public void loadDebts() throws DataStorageException {
+    public void loadPayments(DataFilesLoader loader) throws DataStorageException {
+        NotNullChecker.check(loader);
         initializeManagers();
         initializeFilesInfo();
-        Set<String> usernames = userManager.getUserByUsernameMap().keySet();
-
-        for (String payer : usernames) {
-            Path debtsFilePath = Paths.get(projectName, payer + debtsFileNamePostfix);
-
-            if (Files.exists(debtsFilePath)) {
-                try (BufferedReader br = new BufferedReader(new FileReader(debtsFilePath.toString()))) {
-                    br.readLine();
-                    String line;
-
-                    while ((line = br.readLine()) != null) {
-                        if (line.isBlank()) {
-                            continue;
-                        }
-                        String[] data = line.split(",");
-                        String payee = data[0].trim();
-                        double amount = round(Double.parseDouble(data[1]));
-                        addToDebtsMaps(payer, payee, amount);
-                    }
-                } catch (IOException e) {
-                    throw new DataStorageException("an error occurred when loading the debts file", e);
-                }
+        Map<String, List<Map.Entry<String, Long>>> paymentsByPayer = loader.load(Paths.get(projectName),
+            paymentsFileNamePostfix, userManager.getUserByUsernameMap().keySet(),
+            (payer, lines) -> parseAmounts(payer + paymentsFileNamePostfix, lines));
+
+        for (Map.Entry<String, List<Map.Entry<String, Long>>> payments : paymentsByPayer.entrySet()) {
+            for (Map.Entry<String, Long> payment : payments.getValue()) {
+                recalculateDebts(payments.getKey(), payment.getKey(), payment.getValue());
             }
         }
     }
 
-    public void loadPayments() throws DataStorageException {
-        initializeManagers();
-        initializeFilesInfo();
-        Set<String> usernames = userManager.getUserByUsernameMap().keySet();
-
-        for (String payer : usernames) {
-            Path paymentsFilePath = Paths.get(projectName, payer + paymentsFileNamePostfix);
-
-            if (Files.exists(paymentsFilePath)) {
-                try (BufferedReader br = new BufferedReader(new FileReader(paymentsFilePath.toString()))) {
-                    br.readLine();
-                    String line;
-
-                    while ((line = br.readLine()) != null) {
-                        if (line.isBlank()) {
-                            continue;
-                        }
-                        String[] data = line.split(",");
-                        String payee = data[0].trim();
-                        double amountPaid = round(Double.parseDouble(data[1]));
-                        recalculateDebts(payer, payee, amountPaid);
-                    }
-                } catch (IOException e) {
-                    throw new DataStorageException("an error occurred when loading the payments file", e);
-                }
+    private static List<Map.Entry<String, Long>> parseAmounts(String file, List<String> lines) {
+        List<Map.Entry<String, Long>> amounts = new ArrayList<>(lines.size());
+        int skippedCount = 0;
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] data = LegacyDataFile.split(line, 2);
+            if (data == null) {
+                skippedCount++;
+                continue;
+            }
+            try {
+                amounts.add(Map.entry(data[0], Money.parseRounded(data[1])));
+            } catch (NumberFormatException | ArithmeticException e) {
+                skippedCount++;
             }
         }
+        LegacyDataFile.reportSkippedLines(file, skippedCount);
+        return amounts;
     }
 
-    private synchronized void addToDebtsFile(String payer, String payee, double owedAmount)
-        throws DataStorageException {
-        NotNullChecker.check(payer, payee, owedAmount);
-        initializeFilesInfo();
-        Path payerDebtsFilePath = Paths.get(projectName, payer + debtsFileNamePostfix);
-        boolean needsHeader = !Files.exists(payerDebtsFilePath);
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(payerDebtsFilePath.toString(), true))) {
-            if (needsHeader) {
-                bw.write(DEBTS_FILE_HEADER);
-                bw.newLine();
+    public void apply(LogRecord record) throws DataStorageException {
+        NotNullChecker.check(record);
+        switch (record.type()) {
+            case DEBT_ADDED -> addToDebtsMaps(record.field(0), record.field(1),
+                Money.parseRounded(record.field(2)));
+            case PAYMENT_MADE -> recalculateDebts(record.field(0), record.field(1),
+                Money.parseRounded(record.field(2)));
+            case DEBT_BALANCE -> setDebt(record.field(0), record.field(1), Money.parseRounded(record.field(2)));
+            case PAYMENT_RECORDED -> addToPaymentsMap(record.field(0), record.field(1),
+                Money.parseRounded(record.field(2)));
+            default -> {
             }
-            String line = payee + ',' + owedAmount;
-            bw.write(line);
-            bw.newLine();
-        } catch (IOException e) {
-            throw new DataStorageException("an error occurred when updating debts file", e);
         }
     }
 
-    public SplitFriendStatus splitFriend(String payer, String payee, double amount) throws DataStorageException {
-        NotNullChecker.check(payer, payee, amount);
+    public List<LogRecord> snapshot() throws DataStorageException {
+        List<LogRecord> records = new ArrayList<>();
+        ledgersByUserId.forEach((payerId, ledger) -> ledger.forEach((payeeId, balance) -> {
+            if (balance > 0) {
+                records.add(new LogRecord(RecordType.DEBT_BALANCE,
+                    userIds.getUsername(payerId), userIds.getUsername(payeeId), Money.format(balance)));
+            }
+        }));
+        paymentsByUsername.forEach((payer, payments) -> records.addAll(toPaymentRecords(payer, payments)));
+        return records;
+    }
+
+    private void setDebt(String payer, String payee, long amount) {
+        NotNullChecker.check(payer, payee);
+        setBalance(userIds.intern(payer), userIds.intern(payee), amount);
+    }
+
+    private void addDebtRecord(String payer, String payee, long owedAmount) throws DataStorageException {
+        NotNullChecker.check(payer, payee);
+        storageEngine.append(new LogRecord(RecordType.DEBT_ADDED, payer, payee, Money.format(owedAmount)));
+    }
+
+    public SplitFriendStatus splitFriend(String payer, String payee, long amount) throws DataStorageException {
+        NotNullChecker.check(payer, payee);
         initializeManagers();
         initializeFilesInfo();
         Map<String, User> userByUsername = userManager.getUserByUsernameMap();
@@ -298,15 +401,21 @@ public class DebtManager {
         if (!friendshipManager.friendshipExist(payee, payer)) {
             return SplitFriendStatus.FRIENDSHIP_DOES_NOT_EXIST;
         }
-        double owedAmount = round(amount / 2);
-        addToDebtsFile(payer, payee, owedAmount);
-        addToDebtsMaps(payer, payee, owedAmount);
-        notificationManager.addAmountSplitNotification(payer, payee, owedAmount);
+        long owedAmount = (amount + 1) / 2;
+        storageEngine.beginMutation();
+        try {
+            addDebtRecord(payer, payee, owedAmount);
+            addToDebtsMaps(payer, payee, owedAmount);
+            notificationManager.addAmountSplitNotification(payer, payee, owedAmount);
+        } finally {
+            storageEngine.endMutation();
+        }
+        storageEngine.flush();
         return SplitFriendStatus.SUCCESS;
     }
 
-    public SplitGroupStatus splitGroup(String groupName, String payee, double amount) throws DataStorageException {
-        NotNullChecker.check(groupName, payee, amount);
+    public SplitGroupStatus splitGroup(String groupName, String payee, long amount) throws DataStorageException {
+        NotNullChecker.check(groupName, payee);
         initializeManagers();
         initializeFilesInfo();
         Map<String, Set<String>> groupMembersByGroupName = groupManager.getGroupMembersByGroupNameMap();
@@ -317,20 +426,32 @@ public class DebtManager {
         if (!members.contains(payee)) {
             return SplitGroupStatus.USER_NOT_IN_GROUP;
         }
-        for (String payer : members) {
-            if (payer.equals(payee)) {
-                continue;
+        long share = amount / members.size();
+        long remainingCents = amount % members.size();
+        storageEngine.beginMutation();
+        try {
+            for (String payer : members) {
+                if (payer.equals(payee)) {
+                    continue;
+                }
+                long owedAmount = share;
+                if (remainingCents > 0) {
+                    owedAmount++;
+                    remainingCents--;
+                }
+                addDebtRecord(payer, payee, owedAmount);
+                addToDebtsMaps(payer, payee, owedAmount);
+                notificationManager.addAmountSplitNotification(payer, payee, owedAmount);
             }
-            double owedAmount = round(amount / members.size());
-            addToDebtsFile(payer, payee, owedAmount);
-            addToDebtsMaps(payer, payee, owedAmount);
-            notificationManager.addAmountSplitNotification(payer, payee, owedAmount);
+        } finally {
+            storageEngine.endMutation();
         }
+        storageEngine.flush();
         return SplitGroupStatus.SUCCESS;
     }
 
-    public PaidStatus payDebt(String payer, String payee, double amountPaid) throws DataStorageException {
-        NotNullChecker.check(payer, payee, amountPaid);
+    public PaidStatus payDebt(String payer, String payee, long amountPaid) throws DataStorageException {
+        NotNullChecker.check(payer, payee);
         if (payer.equals(payee)) {
             return PaidStatus.SAME_USERNAMES;
         }
@@ -339,24 +460,18 @@ public class DebtManager {
         if (!userManager.getUserByUsernameMap().containsKey(payer)) {
             return PaidStatus.USER_DOES_NOT_EXIST;
         }
-        if (!payers.containsKey(payer) || !payers.get(payer).containsKey(payee)) {
+        if (getDebt(payer, payee) == 0) {
             return PaidStatus.PAYER_DOES_NOT_OWE_PAYEE;
         }
-        Path paymentsFilePath = Paths.get(projectName, payer + paymentsFileNamePostfix);
-        boolean needsHeader = !Files.exists(paymentsFilePath);
-        synchronized (this) {
-            try (BufferedWriter bw = new BufferedWriter(new FileWriter(paymentsFilePath.toString(), true))) {
-                if (needsHeader) {
-                    bw.write(PAYMENTS_FILE_HEADER);
-                }
-                bw.write(payee + ',' + amountPaid);
-                bw.newLine();
-            } catch (IOException e) {
-                throw new DataStorageException("an error occurred when updating payments file", e);
-            }
+        storageEngine.beginMutation();
+        try {
+            storageEngine.append(new LogRecord(RecordType.PAYMENT_MADE, payer, payee, Money.format(amountPaid)));
+            recalculateDebts(payer, payee, amountPaid);
+            notificationManager.addPaymentApprovedNotification(payer, payee, amountPaid);
+        } finally {
+            storageEngine.endMutation();
         }
-        recalculateDebts(payer, payee, amountPaid);
-        notificationManager.addPaymentApprovedNotification(payer, payee, amountPaid);
+        storageEngine.flush();
         return PaidStatus.SUCCESS;
     }
 }
@@ -0,0 +1,36 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class FileSynchronizer {
+    public static void sync(Path path) throws DataStorageException {
+        NotNullChecker.check(path);
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when syncing " + path + " to disk", e);
+        }
+    }
+
+    public static void syncDirectory(Path path) {
+        NotNullChecker.check(path);
+        if (!Files.isDirectory(path)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            System.out.println("directory " + path + " can not be synced on this platform: " + e.getMessage());
+        }
+    }
+}
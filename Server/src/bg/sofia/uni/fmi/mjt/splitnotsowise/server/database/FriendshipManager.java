@@ -1,19 +1,22 @@
 package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
 
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.collection.IntHashSet;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.collection.IntIndexedTable;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.AddFriendshipStatus;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.LogRecord;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.RecordType;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngines;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -24,12 +27,15 @@ public class FriendshipManager {
     private static final Path FRIENDS_FILE_PATH = Paths.get(PROJECT_NAME, FRIENDS_FILE_NAME);
     private static Path friendsFilePath;
     private static FriendshipManager instance;
-    private final Map<String, Set<String>> friendsByUsername;
+    private final IntIndexedTable<IntHashSet> friendsByUserId;
+    private final UserIdTable userIds;
     private UserManager userManager;
     private NotificationManager notificationManager;
+    private StorageEngine storageEngine;
     private boolean dataLoaded;
     private FriendshipManager() {
-        this.friendsByUsername = new HashMap<>();
+        this.friendsByUserId = new IntIndexedTable<>();
+        this.userIds = UserIdTable.getInstance();
         dataLoaded = false;
     }
 
@@ -59,6 +65,7 @@ public class FriendshipManager {
     private void initializeManagers() {
         userManager = UserManager.getInstance();
         notificationManager = NotificationManager.getInstance();
+        storageEngine = StorageEngines.getInstance();
     }
 
     private void initializeFilePath() {
@@ -67,8 +74,15 @@ public class FriendshipManager {
         }
     }
 
-    public Map<String, Set<String>> getFriendsByUsernameMap() {
-        return friendsByUsername;
+    public Set<String> getFriends(String username) {
+        NotNullChecker.check(username);
+        Set<String> friends = new HashSet<>();
+        int userId = userIds.getId(username);
+        IntHashSet friendIds = userId == UserIdTable.UNKNOWN_USER_ID ? null : friendsByUserId.get(userId);
+        if (friendIds != null) {
+            friendIds.forEach(friendId -> friends.add(userIds.getUsername(friendId)));
+        }
+        return friends;
     }
 
     public static void setFriendsFilePath(Path path) {
@@ -82,35 +96,72 @@ public class FriendshipManager {
 
     public void loadFriendships() throws DataStorageException {
         initializeFilePath();
-        try (BufferedReader br = new BufferedReader(new FileReader(friendsFilePath.toString()))) {
-            br.readLine();
-            String line;
-            while ((line = br.readLine()) != null) {
+        try {
+            List<String> lines = LegacyDataFile.readLines(friendsFilePath);
+            int skippedCount = 0;
+            for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
                 if (line.isBlank()) {
                     continue;
                 }
-                String[] data = line.split(",");
-                String friend1 = data[0].trim();
-                String friend2 = data[1].trim();
-                updateFriendsMap(friend1, friend2);
+                String[] data = LegacyDataFile.split(line, 2);
+                if (data == null) {
+                    skippedCount++;
+                    continue;
+                }
+                updateFriendsMap(data[0], data[1]);
             }
+            LegacyDataFile.reportSkippedLines(friendsFilePath.toString(), skippedCount);
         } catch (IOException e) {
             throw new DataStorageException("an error occurred when loading the friends file", e);
         }
     }
 
+    public void apply(LogRecord record) {
+        NotNullChecker.check(record);
+        if (record.type() == RecordType.FRIENDSHIP_ADDED) {
+            updateFriendsMap(record.field(0), record.field(1));
+        }
+    }
+
+    public List<LogRecord> snapshot() {
+        List<LogRecord> records = new ArrayList<>();
+        friendsByUserId.forEach((userId, friendIds) -> friendIds.forEach(friendId -> {
+            if (userId < friendId) {
+                records.add(new LogRecord(RecordType.FRIENDSHIP_ADDED,
+                    userIds.getUsername(userId), userIds.getUsername(friendId)));
+            }
+        }));
+        return records;
+    }
+
     public boolean friendshipExist(String friend1, String friend2) {
         NotNullChecker.check(friend1, friend2);
-        return friendsByUsername.containsKey(friend1) &&
-            friendsByUsername.containsKey(friend2) &&
-            friendsByUsername.get(friend1).contains(friend2) &&
-            friendsByUsername.get(friend2).contains(friend1);
+        int friend1Id = userIds.getId(friend1);
+        int friend2Id = userIds.getId(friend2);
+        if (friend1Id == UserIdTable.UNKNOWN_USER_ID || friend2Id == UserIdTable.UNKNOWN_USER_ID) {
+            return false;
+        }
+        IntHashSet friendsOfFriend1 = friendsByUserId.get(friend1Id);
+        IntHashSet friendsOfFriend2 = friendsByUserId.get(friend2Id);
+        return friendsOfFriend1 != null && friendsOfFriend2 != null &&
+            friendsOfFriend1.contains(friend2Id) && friendsOfFriend2.contains(friend1Id);
     }
 
-    private synchronized void updateFriendsMap(String friend1, String friend2) {
+    private void updateFriendsMap(String friend1, String friend2) {
         NotNullChecker.check(friend1, friend2);
-        friendsByUsername.computeIfAbsent(friend1, k -> new HashSet<>()).add(friend2);
-        friendsByUsername.computeIfAbsent(friend2, k -> new HashSet<>()).add(friend1);
+        int friend1Id = userIds.intern(friend1);
+        int friend2Id = userIds.intern(friend2);
+        friendsByUserId.compute(friend1Id, friendIds -> withFriend(friendIds, friend2Id));
+        friendsByUserId.compute(friend2Id, friendIds -> withFriend(friendIds, friend1Id));
+    }
+
+    private static IntHashSet withFriend(IntHashSet friendIds, int friendId) {
+        if (friendIds != null && friendIds.contains(friendId)) {
+            return friendIds;
+        }
+        IntHashSet updatedFriendIds = friendIds == null ? new IntHashSet() : new IntHashSet(friendIds);
+        updatedFriendIds.add(friendId);
+        return updatedFriendIds;
     }
 
     public AddFriendshipStatus addFriendship(String userWhoAdded, String userWhoWasAdded) throws DataStorageException {
@@ -119,7 +170,6 @@ public class FriendshipManager {
             return AddFriendshipStatus.SAME_USERNAMES;
         }
         initializeManagers();
-        initializeFilePath();
         Map<String, User> userByUsername = userManager.getUserByUsernameMap();
         if (!userByUsername.containsKey(userWhoWasAdded)) {
             return AddFriendshipStatus.USER_DOES_NOT_EXIST;
@@ -127,17 +177,15 @@ public class FriendshipManager {
         if (friendshipExist(userWhoAdded, userWhoWasAdded)) {
             return AddFriendshipStatus.FRIENDSHIP_ALREADY_EXISTS;
         }
-        synchronized (this) {
-            try (BufferedWriter bw = new BufferedWriter(new FileWriter(friendsFilePath.toString(), true))) {
-                String line = userWhoAdded + ',' + userWhoWasAdded;
-                bw.write(line);
-                bw.newLine();
-                updateFriendsMap(userWhoAdded, userWhoWasAdded);
-                notificationManager.addFriendAddedNotification(userWhoWasAdded, userWhoAdded);
-                return AddFriendshipStatus.SUCCESS;
-            } catch (IOException e) {
-                throw new DataStorageException("an error occurred when writing to the friends file", e);
-            }
+        storageEngine.beginMutation();
+        try {
+            storageEngine.append(new LogRecord(RecordType.FRIENDSHIP_ADDED, userWhoAdded, userWhoWasAdded));
+            updateFriendsMap(userWhoAdded, userWhoWasAdded);
+            notificationManager.addFriendAddedNotification(userWhoWasAdded, userWhoAdded);
+        } finally {
+            storageEngine.endMutation();
         }
+        storageEngine.flush();
+        return AddFriendshipStatus.SUCCESS;
     }
 }
@@ -3,19 +3,23 @@ package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.CreateGroupStatus;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.LogRecord;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.RecordType;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngines;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server.PROJECT_NAME;
 
@@ -26,12 +30,17 @@ public class GroupManager {
     private static GroupManager instance;
     private final Map<String, Set<String>> groupMembersByGroupName;
     private final Map<String, Set<String>> groupNamesByUsername;
+    private final Map<String, Set<String>> groupMembersByGroupNameView;
+    private final Map<String, Set<String>> groupNamesByUsernameView;
     private UserManager userManager;
     private NotificationManager notificationManager;
+    private StorageEngine storageEngine;
     private boolean dataLoaded;
     private GroupManager() {
-        this.groupMembersByGroupName = new HashMap<>();
-        this.groupNamesByUsername = new HashMap<>();
+        this.groupMembersByGroupName = new ConcurrentHashMap<>();
+        this.groupNamesByUsername = new ConcurrentHashMap<>();
+        this.groupMembersByGroupNameView = Collections.unmodifiableMap(groupMembersByGroupName);
+        this.groupNamesByUsernameView = Collections.unmodifiableMap(groupNamesByUsername);
         dataLoaded = false;
     }
 
@@ -61,6 +70,7 @@ public class GroupManager {
     private void initializeManagers() {
         userManager = UserManager.getInstance();
         notificationManager = NotificationManager.getInstance();
+        storageEngine = StorageEngines.getInstance();
     }
 
     public void initializeFilePath() {
@@ -70,11 +80,11 @@ public class GroupManager {
     }
 
     public Map<String, Set<String>> getGroupMembersByGroupNameMap() {
-        return groupMembersByGroupName;
+        return groupMembersByGroupNameView;
     }
 
     public Map<String, Set<String>> getGroupNamesByUsernameMap() {
-        return groupNamesByUsername;
+        return groupNamesByUsernameView;
     }
 
     public static void setGroupsFilePath(Path path) {
@@ -86,83 +96,109 @@ public class GroupManager {
         groupsFilePath = GROUPS_FILE_PATH;
     }
 
-    private synchronized void updateGroupsMap(String groupName, String... members) {
+    private void updateGroupsMap(String groupName, String... members) {
         NotNullChecker.check(groupName, members);
-        Set<String> memberSet = new HashSet<>(Arrays.asList(members));
+        Set<String> memberSet = toMemberSet(Arrays.asList(members));
         groupMembersByGroupName.put(groupName, memberSet);
+        addToGroupNamesMap(groupName, memberSet);
+    }
 
+    private void addToGroupNamesMap(String groupName, Set<String> members) {
         for (String member : members) {
-            groupNamesByUsername.computeIfAbsent(member, k -> new HashSet<>()).add(groupName);
+            groupNamesByUsername.merge(member, Set.of(groupName), GroupManager::union);
         }
     }
 
+    private static Set<String> toMemberSet(Collection<String> members) {
+        return Collections.unmodifiableSet(new HashSet<>(members));
+    }
+
+    private static Set<String> union(Set<String> groupNames, Set<String> addedGroupNames) {
+        Set<String> allGroupNames = new HashSet<>(groupNames);
+        allGroupNames.addAll(addedGroupNames);
+        return Collections.unmodifiableSet(allGroupNames);
+    }
+
     public void loadGroups() throws DataStorageException {
         initializeFilePath();
-        try (BufferedReader br = new BufferedReader(new FileReader(groupsFilePath.toString()))) {
-            br.readLine();
-            String line;
-            while ((line = br.readLine()) != null) {
+        try {
+            List<String> lines = LegacyDataFile.readLines(groupsFilePath);
+            int skippedCount = 0;
+            for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
                 if (line.isBlank()) {
                     continue;
                 }
-                String[] data = line.split(",");
-                String groupName = data[0].trim();
-                String[] members = data[1].split(";");
-                updateGroupsMap(groupName, members);
+                String[] data = LegacyDataFile.split(line, 2);
+                if (data == null) {
+                    skippedCount++;
+                    continue;
+                }
+                updateGroupsMap(data[0], data[1].split(";"));
             }
+            LegacyDataFile.reportSkippedLines(groupsFilePath.toString(), skippedCount);
         } catch (IOException e) {
             throw new DataStorageException("an error occurred when loading the groups file", e);
         }
     }
 
+    public void apply(LogRecord record) {
+        NotNullChecker.check(record);
+        if (record.type() == RecordType.GROUP_CREATED) {
+            updateGroupsMap(record.field(0), record.fields().subList(1, record.fields().size())
+                .toArray(String[]::new));
+        }
+    }
+
+    public List<LogRecord> snapshot() {
+        List<LogRecord> records = new ArrayList<>(groupMembersByGroupName.size());
+        for (Map.Entry<String, Set<String>> entry : groupMembersByGroupName.entrySet()) {
+            List<String> fields = new ArrayList<>(entry.getValue().size() + 1);
+            fields.add(entry.getKey());
+            fields.addAll(entry.getValue());
+            records.add(new LogRecord(RecordType.GROUP_CREATED, fields));
+        }
+        return records;
+    }
+
     public CreateGroupStatus createGroup(String groupName, String groupCreator, String... members)
         throws DataStorageException {
         NotNullChecker.check(groupName, groupCreator, members);
         if (groupMembersByGroupName.containsKey(groupName)) {
             return CreateGroupStatus.GROUP_NAME_ALREADY_EXISTS;
         }
-        synchronized (this) {
-            initializeManagers();
-            initializeFilePath();
-            for (String member : members) {
-                if (!userManager.getUserByUsernameMap().containsKey(member)) {
-                    return CreateGroupStatus.MEMBER_DOES_NOT_EXIST;
-                }
-                if (member.equals(groupCreator)) {
-                    return CreateGroupStatus.MEMBERS_CONTAIN_CREATORS_USERNAME;
-                }
+        initializeManagers();
+        for (String member : members) {
+            if (!userManager.getUserByUsernameMap().containsKey(member)) {
+                return CreateGroupStatus.MEMBER_DOES_NOT_EXIST;
             }
-            addGroupToFile(groupName, groupCreator, members);
-            updateGroupsMap(groupName, groupCreator, members);
-            for (String member : members) {
-                notificationManager.addAddedToGroupNotification(member, groupCreator, groupName);
+            if (member.equals(groupCreator)) {
+                return CreateGroupStatus.MEMBERS_CONTAIN_CREATORS_USERNAME;
             }
-            return CreateGroupStatus.SUCCESS;
         }
-    }
-
-    private synchronized void addGroupToFile(String groupName, String groupCreator, String[] members)
-        throws DataStorageException {
-        NotNullChecker.check(groupName, groupCreator, members);
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(groupsFilePath.toString(), true))) {
-            StringBuilder line = new StringBuilder()
-                .append(groupName).append(',').append(groupCreator).append(';');
+        List<String> fields = new ArrayList<>(members.length + 2);
+        fields.add(groupName);
+        fields.add(groupCreator);
+        fields.addAll(Arrays.asList(members));
+        Set<String> memberSet = toMemberSet(fields.subList(1, fields.size()));
+        storageEngine.beginMutation();
+        try {
+            if (groupMembersByGroupName.putIfAbsent(groupName, memberSet) != null) {
+                return CreateGroupStatus.GROUP_NAME_ALREADY_EXISTS;
+            }
+            try {
+                storageEngine.append(new LogRecord(RecordType.GROUP_CREATED, fields));
+            } catch (DataStorageException e) {
+                groupMembersByGroupName.remove(groupName, memberSet);
+                throw e;
+            }
+            addToGroupNamesMap(groupName, memberSet);
             for (String member : members) {
-                line.append(member).append(';');
+                notificationManager.addAddedToGroupNotification(member, groupCreator, groupName);
             }
-            line.deleteCharAt(line.lastIndexOf(";"));
-            bw.write(line.toString());
-            bw.newLine();
-        } catch (IOException e) {
-            throw new DataStorageException("an error occurred when updating the groups file", e);
+        } finally {
+            storageEngine.endMutation();
         }
-    }
-
-    private synchronized void updateGroupsMap(String groupName, String groupCreator, String[] members) {
-        NotNullChecker.check(groupName, groupCreator, members);
-        String[] allMembers = new String[members.length + 1];
-        allMembers[0] = groupCreator;
-        System.arraycopy(members, 0, allMembers, 1, members.length);
-        updateGroupsMap(groupName, allMembers);
+        storageEngine.flush();
+        return CreateGroupStatus.SUCCESS;
     }
 }
@@ -0,0 +1,58 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LegacyDataFile {
+    private static final String FIELD_SEPARATOR = ",";
+    private static final char LINE_SEPARATOR = '\n';
+    private static final char CARRIAGE_RETURN = '\r';
+
+    private LegacyDataFile() {
+    }
+
+    public static List<String> readLines(Path file) throws IOException {
+        NotNullChecker.check(file);
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        List<String> lines = new ArrayList<>();
+        int lineStart = 0;
+        int lineEnd;
+        while ((lineEnd = content.indexOf(LINE_SEPARATOR, lineStart)) >= 0) {
+            int end = lineEnd > lineStart && content.charAt(lineEnd - 1) == CARRIAGE_RETURN ? lineEnd - 1 : lineEnd;
+            lines.add(content.substring(lineStart, end));
+            lineStart = lineEnd + 1;
+        }
+        if (lineStart < content.length() && !content.substring(lineStart).isBlank()) {
+            System.out.println("discarding the unterminated last line of " + file);
+        }
+        return lines;
+    }
+
+    public static String[] split(String line, int fieldsCount) {
+        NotNullChecker.check(line);
+        String[] fields = line.split(FIELD_SEPARATOR, -1);
+        if (fields.length != fieldsCount) {
+            return null;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+            if (fields[i].isEmpty()) {
+                return null;
+            }
+        }
+        return fields;
+    }
+
+    public static void reportSkippedLines(String file, int skippedCount) {
+        NotNullChecker.check(file);
+        if (skippedCount > 0) {
+            System.out.println("skipped " + skippedCount + " malformed lines of " + file);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class NotificationInbox {
+    private static final int INITIAL_SIZE = 4;
+    private final int capacity;
+    private String[] notifications;
+    private int readCursor;
+    private int unreadCount;
+
+    public NotificationInbox(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("inbox capacity must be positive");
+        }
+        this.capacity = capacity;
+        notifications = new String[Math.min(capacity, INITIAL_SIZE)];
+    }
+
+    public void add(String notification) {
+        NotNullChecker.check(notification);
+        if (unreadCount == notifications.length && notifications.length < capacity) {
+            grow();
+        }
+        if (unreadCount == capacity) {
+            notifications[readCursor] = notification;
+            readCursor = next(readCursor);
+            return;
+        }
+        notifications[(readCursor + unreadCount) % notifications.length] = notification;
+        unreadCount++;
+    }
+
+    public List<String> peek(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        int count = Math.min(limit, unreadCount);
+        List<String> page = new ArrayList<>(count);
+        for (int i = 0, index = readCursor; i < count; i++, index = next(index)) {
+            page.add(notifications[index]);
+        }
+        return page;
+    }
+
+    public List<String> peekAll() {
+        return unreadCount == 0 ? List.of() : peek(unreadCount);
+    }
+
+    public void acknowledge(int count) {
+        if (count < 0 || count > unreadCount) {
+            throw new IllegalArgumentException("can't acknowledge " + count + " of " + unreadCount
+                + " unread notifications");
+        }
+        for (int i = 0; i < count; i++) {
+            notifications[readCursor] = null;
+            readCursor = next(readCursor);
+        }
+        unreadCount -= count;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    public boolean isEmpty() {
+        return unreadCount == 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void grow() {
+        String[] grown = new String[(int) Math.min(capacity, 2L * notifications.length)];
+        for (int i = 0, index = readCursor; i < unreadCount; i++, index = next(index)) {
+            grown[i] = notifications[index];
+        }
+        notifications = grown;
+        readCursor = 0;
+    }
+
+    private int next(int index) {
+        return index + 1 == notifications.length ? 0 : index + 1;
+    }
+}
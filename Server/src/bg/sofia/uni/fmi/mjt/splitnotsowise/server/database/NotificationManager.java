@@ -2,39 +2,48 @@ package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
 
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.money.Money;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.LogRecord;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.RecordType;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngines;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server.PROJECT_NAME;
 
 public class NotificationManager {
     public static final String NOTIFICATIONS_FILE_NAME_POSTFIX = "_notifications.txt";
+    public static final int DEFAULT_INBOX_CAPACITY = 100;
+    private static final String CACHED_NOTIFICATIONS_FILE_NAME_POSTFIX = ".notifications";
     public static String projectName;
     public static String notificationsFileNamePostfix;
     private static NotificationManager instance;
-    private final Map<String, List<String>> notificationsByUsername;
+    private final UserStateCache<NotificationInbox> inboxesByUsername;
     private UserManager userManager;
     private boolean dataLoaded;
+    private int inboxCapacity;
     private NotificationManager() {
-        notificationsByUsername = new HashMap<>();
+        inboxesByUsername = new UserStateCache<>(UserStateCache.SPILL_DIRECTORY,
+            CACHED_NOTIFICATIONS_FILE_NAME_POSTFIX, NotificationManager::toRecords, this::fromRecords);
         dataLoaded = false;
+        inboxCapacity = DEFAULT_INBOX_CAPACITY;
     }
 
     public void initialize() throws DataStorageException {
+        try (DataFilesLoader loader = new DataFilesLoader()) {
+            initialize(loader);
+        }
+    }
+
+    public void initialize(DataFilesLoader loader) throws DataStorageException {
+        NotNullChecker.check(loader);
         if (!dataLoaded) {
-            loadNotifications();
+            loadNotifications(loader);
             dataLoaded = true;
         }
     }
@@ -68,8 +77,37 @@ public class NotificationManager {
         }
     }
 
-    public Map<String, List<String>> getNotificationsByUsernameMap() {
-        return notificationsByUsername;
+    public void setMaxCachedUsers(int maxCachedUsers) throws DataStorageException {
+        inboxesByUsername.setMaxCachedUsers(maxCachedUsers);
+    }
+
+    public void setInboxCapacity(int inboxCapacity) {
+        if (inboxCapacity <= 0) {
+            throw new IllegalArgumentException("inbox capacity must be positive");
+        }
+        this.inboxCapacity = inboxCapacity;
+    }
+
+    public List<String> getUnreadNotifications(String user) throws DataStorageException {
+        NotNullChecker.check(user);
+        List<String> notifications = inboxesByUsername.read(user, NotificationInbox::peekAll);
+        return notifications == null ? List.of() : notifications;
+    }
+
+    private static List<LogRecord> toRecords(String user, NotificationInbox inbox) {
+        List<LogRecord> records = new ArrayList<>(inbox.getUnreadCount());
+        for (String notification : inbox.peekAll()) {
+            records.add(new LogRecord(RecordType.NOTIFICATION_ADDED, user, notification));
+        }
+        return records;
+    }
+
+    private NotificationInbox fromRecords(List<LogRecord> records) {
+        NotificationInbox inbox = new NotificationInbox(inboxCapacity);
+        for (LogRecord record : records) {
+            inbox.add(record.field(1));
+        }
+        return inbox;
     }
 
     public static void setProjectName(String name) {
@@ -90,96 +128,122 @@ public class NotificationManager {
         notificationsFileNamePostfix = NOTIFICATIONS_FILE_NAME_POSTFIX;
     }
 
-    private synchronized void addToNotificationsMap(String user, String notification) {
+    private void addToInbox(String user, String notification) throws DataStorageException {
         NotNullChecker.check(user, notification);
-        notificationsByUsername.computeIfAbsent(user, k -> new ArrayList<>());
-        notificationsByUsername.get(user).add(notification);
+        inboxesByUsername.compute(user, inbox -> {
+            NotificationInbox updatedInbox = inbox == null ? new NotificationInbox(inboxCapacity) : inbox;
+            updatedInbox.add(notification);
+            return updatedInbox;
+        });
+    }
+
+    private void acknowledge(String user, int count) throws DataStorageException {
+        NotNullChecker.check(user);
+        inboxesByUsername.compute(user, inbox -> {
+            if (inbox == null) {
+                return null;
+            }
+            inbox.acknowledge(Math.min(count, inbox.getUnreadCount()));
+            return inbox.isEmpty() ? null : inbox;
+        });
     }
 
     public void loadNotifications() throws DataStorageException {
+        try (DataFilesLoader loader = new DataFilesLoader()) {
+            loadNotifications(loader);
+        }
+    }
+
+    public void loadNotifications(DataFilesLoader loader) throws DataStorageException {
+        NotNullChecker.check(loader);
         initializeManagers();
         initializeFileInfo();
-        Set<String> usernames = userManager.getUserByUsernameMap().keySet();
-
-        for (String user : usernames) {
-            Path notificationsFilePath = Paths.get(projectName, user + notificationsFileNamePostfix);
-
-            if (Files.exists(notificationsFilePath)) {
-                try (BufferedReader br = new BufferedReader(new FileReader(notificationsFilePath.toString()))) {
-                    String data;
-
-                    while ((data = br.readLine()) != null) {
-                        if (data.isBlank()) {
-                            continue;
-                        }
-                        addToNotificationsMap(user, data);
-                    }
-                } catch (IOException e) {
-                    throw new DataStorageException("an error occurred when loading the notifications file", e);
-                }
+        Map<String, List<String>> notificationsByUser = loader.load(Paths.get(projectName),
+            notificationsFileNamePostfix, userManager.getUserByUsernameMap().keySet(),
+            (user, lines) -> lines.stream().filter(line -> !line.isBlank()).toList());
+
+        for (Map.Entry<String, List<String>> notifications : notificationsByUser.entrySet()) {
+            for (String notification : notifications.getValue()) {
+                addToInbox(notifications.getKey(), notification);
             }
         }
     }
 
-    private synchronized void addToNotificationFile(String user, String notification) throws DataStorageException {
-        NotNullChecker.check(user, notification);
-        initializeFileInfo();
-        Path payerDebtsFilePath = Paths.get(projectName, user + notificationsFileNamePostfix);
-
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(payerDebtsFilePath.toString(), true))) {
-            bw.write(notification);
-            bw.newLine();
-            addToNotificationsMap(user, notification);
-        } catch (IOException e) {
-            throw new DataStorageException("an error occurred when updating notifications file", e);
+    public void apply(LogRecord record) throws DataStorageException {
+        NotNullChecker.check(record);
+        switch (record.type()) {
+            case NOTIFICATION_ADDED -> addToInbox(record.field(0), record.field(1));
+            case NOTIFICATIONS_READ -> acknowledge(record.field(0),
+                record.fields().size() > 1 ? Integer.parseInt(record.field(1)) : Integer.MAX_VALUE);
+            default -> {
+            }
         }
     }
 
-    public void addPaymentApprovedNotification(String payer, String payee, double amount) throws DataStorageException {
-        NotNullChecker.check(payer, payee, amount);
-        addToNotificationFile(payer, payee + " approved your payment of " + amount + " lv");
+    public List<LogRecord> snapshot() throws DataStorageException {
+        List<LogRecord> records = new ArrayList<>();
+        inboxesByUsername.forEach((user, inbox) -> records.addAll(toRecords(user, inbox)));
+        return records;
+    }
+
+    private void addNotification(String user, String notification) throws DataStorageException {
+        NotNullChecker.check(user, notification);
+        StorageEngines.getInstance().append(new LogRecord(RecordType.NOTIFICATION_ADDED, user, notification));
+        addToInbox(user, notification);
     }
 
-    public void addAmountSplitNotification(String payer, String payee, double amount) throws DataStorageException {
-        NotNullChecker.check(payer, payee, amount);
-        addToNotificationFile(payer, payee + " added " + amount + " lv to your debt to him");
+    public void addPaymentApprovedNotification(String payer, String payee, long amount) throws DataStorageException {
+        NotNullChecker.check(payer, payee);
+        addNotification(payer, payee + " approved your payment of " + Money.format(amount) + " lv");
+    }
+
+    public void addAmountSplitNotification(String payer, String payee, long amount) throws DataStorageException {
+        NotNullChecker.check(payer, payee);
+        addNotification(payer, payee + " added " + Money.format(amount) + " lv to your debt to him");
     }
 
     public void addFriendAddedNotification(String userWhoWasAdded, String userWhoAdded) throws DataStorageException {
         NotNullChecker.check(userWhoWasAdded, userWhoAdded);
-        addToNotificationFile(userWhoWasAdded, userWhoAdded + " added you as a friend");
+        addNotification(userWhoWasAdded, userWhoAdded + " added you as a friend");
     }
 
     public void addAddedToGroupNotification(String userWhoWasAdded, String userWhoAdded, String groupName)
         throws DataStorageException {
         NotNullChecker.check(userWhoWasAdded, userWhoAdded, groupName);
-        addToNotificationFile(userWhoWasAdded, userWhoAdded + " added you to \"" + groupName + "\" group");
+        addNotification(userWhoWasAdded, userWhoAdded + " added you to \"" + groupName + "\" group");
     }
 
     public List<String> getNotifications(String user) throws DataStorageException {
+        return getNotifications(user, Integer.MAX_VALUE).notifications();
+    }
+
+    public NotificationPage getNotifications(String user, int limit) throws DataStorageException {
         NotNullChecker.check(user);
-        initializeFileInfo();
-        Path notificationsFilePath = Paths.get(projectName, user + notificationsFileNamePostfix);
-        List<String> notifications = new ArrayList<>();
-
-        synchronized (this) {
-            if (Files.exists(notificationsFilePath)) {
-                try (BufferedReader br = new BufferedReader(new FileReader(notificationsFilePath.toString()))) {
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        if (!line.isBlank()) {
-                            notifications.add(line);
-                        }
-                    }
-                    br.close();
-                    Files.delete(notificationsFilePath);
-                } catch (IOException e) {
-                    throw new DataStorageException("an error occurred when reading or clearing the notifications file",
-                        e);
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        StorageEngine storageEngine = StorageEngines.getInstance();
+        AtomicReference<NotificationPage> page = new AtomicReference<>();
+        storageEngine.beginMutation();
+        try {
+            inboxesByUsername.compute(user, inbox -> {
+                if (inbox == null) {
+                    return null;
                 }
-            }
+                List<String> notifications = inbox.peek(limit);
+                storageEngine.append(new LogRecord(RecordType.NOTIFICATIONS_READ, user,
+                    String.valueOf(notifications.size())));
+                page.set(new NotificationPage(notifications, inbox.getUnreadCount() - notifications.size()));
+                inbox.acknowledge(notifications.size());
+                return inbox.isEmpty() ? null : inbox;
+            });
+        } finally {
+            storageEngine.endMutation();
         }
-
-        return notifications;
+        if (page.get() == null) {
+            return NotificationPage.EMPTY;
+        }
+        storageEngine.flush();
+        return page.get();
     }
 }
@@ -0,0 +1,14 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.util.List;
+
+public record NotificationPage(List<String> notifications, int remainingCount) {
+    public static final NotificationPage EMPTY = new NotificationPage(List.of(), 0);
+
+    public NotificationPage {
+        NotNullChecker.check(notifications);
+        notifications = List.copyOf(notifications);
+    }
+}
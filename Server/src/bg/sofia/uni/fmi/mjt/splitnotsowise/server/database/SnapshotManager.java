@@ -0,0 +1,126 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.LogRecord;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngines;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SnapshotManager {
+    private static final long NANOS_IN_MILLI = 1_000_000;
+    private static SnapshotManager instance;
+    private UserManager userManager;
+    private FriendshipManager friendshipManager;
+    private GroupManager groupManager;
+    private DebtManager debtManager;
+    private NotificationManager notificationManager;
+    private StorageEngine storageEngine;
+    private boolean dataLoaded;
+
+    private SnapshotManager() {
+        dataLoaded = false;
+    }
+
+    public static void resetInstance() {
+        instance = new SnapshotManager();
+    }
+
+    public static void setInstance(SnapshotManager snapshotManager) {
+        NotNullChecker.check(snapshotManager);
+        instance = snapshotManager;
+    }
+
+    public static SnapshotManager getInstance() {
+        if (instance == null) {
+            instance = new SnapshotManager();
+        }
+        return instance;
+    }
+
+    private void initializeManagers() {
+        userManager = UserManager.getInstance();
+        friendshipManager = FriendshipManager.getInstance();
+        groupManager = GroupManager.getInstance();
+        debtManager = DebtManager.getInstance();
+        notificationManager = NotificationManager.getInstance();
+        storageEngine = StorageEngines.getInstance();
+    }
+
+    public void initialize() throws DataStorageException {
+        if (dataLoaded) {
+            return;
+        }
+        initializeManagers();
+        long startTime = System.nanoTime();
+        List<LogRecord> checkpoint = storageEngine.loadCheckpoint();
+        if (checkpoint == null) {
+            loadDataFiles();
+        } else {
+            for (LogRecord record : checkpoint) {
+                apply(record);
+            }
+            reportPhase("loaded " + checkpoint.size() + " snapshot records", startTime);
+        }
+        long phaseStartTime = System.nanoTime();
+        List<LogRecord> records = storageEngine.recover();
+        for (LogRecord record : records) {
+            apply(record);
+        }
+        dataLoaded = true;
+        reportPhase("replayed " + records.size() + " log records", phaseStartTime);
+        reportPhase("loaded all data", startTime);
+
+        if (!records.isEmpty()) {
+            takeSnapshot();
+        }
+    }
+
+    private void loadDataFiles() throws DataStorageException {
+        try (DataFilesLoader loader = new DataFilesLoader()) {
+            long phaseStartTime = System.nanoTime();
+            userManager.initialize();
+            phaseStartTime = reportPhase("loaded users", phaseStartTime);
+            friendshipManager.initialize();
+            phaseStartTime = reportPhase("loaded friendships", phaseStartTime);
+            groupManager.initialize();
+            phaseStartTime = reportPhase("loaded groups", phaseStartTime);
+            debtManager.initialize(loader);
+            phaseStartTime = reportPhase("loaded debts and payments", phaseStartTime);
+            notificationManager.initialize(loader);
+            reportPhase("loaded notifications", phaseStartTime);
+        }
+    }
+
+    private static long reportPhase(String phase, long phaseStartTime) {
+        long now = System.nanoTime();
+        System.out.println(phase + " in " + (now - phaseStartTime) / NANOS_IN_MILLI + " ms");
+        return now;
+    }
+
+    public synchronized boolean takeSnapshot() throws DataStorageException {
+        initializeManagers();
+        return storageEngine.checkpoint(this::captureState);
+    }
+
+    private List<LogRecord> captureState() throws DataStorageException {
+        List<LogRecord> state = new ArrayList<>(userManager.snapshot());
+        state.addAll(friendshipManager.snapshot());
+        state.addAll(groupManager.snapshot());
+        state.addAll(debtManager.snapshot());
+        state.addAll(notificationManager.snapshot());
+        return state;
+    }
+
+    private void apply(LogRecord record) throws DataStorageException {
+        switch (record.type()) {
+            case USER_REGISTERED -> userManager.apply(record);
+            case FRIENDSHIP_ADDED -> friendshipManager.apply(record);
+            case GROUP_CREATED -> groupManager.apply(record);
+            case DEBT_ADDED, PAYMENT_MADE, DEBT_BALANCE, PAYMENT_RECORDED -> debtManager.apply(record);
+            case NOTIFICATION_ADDED, NOTIFICATIONS_READ -> notificationManager.apply(record);
+        }
+    }
+}
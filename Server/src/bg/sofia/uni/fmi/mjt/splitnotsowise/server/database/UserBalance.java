@@ -0,0 +1,17 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+public record UserBalance(String username, long owedToUser, long owedByUser) {
+    public UserBalance {
+        NotNullChecker.check(username);
+    }
+
+    public long net() {
+        return owedToUser - owedByUser;
+    }
+
+    public boolean isEmpty() {
+        return owedToUser == 0 && owedByUser == 0;
+    }
+}
@@ -0,0 +1,20 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.util.Collections;
+import java.util.Map;
+
+public record UserDebts(Map<String, Long> owedToUser, Map<String, Long> owedByUser) {
+    public static final UserDebts EMPTY = new UserDebts(Map.of(), Map.of());
+
+    public UserDebts {
+        NotNullChecker.check(owedToUser, owedByUser);
+        owedToUser = Collections.unmodifiableMap(owedToUser);
+        owedByUser = Collections.unmodifiableMap(owedByUser);
+    }
+
+    public boolean isEmpty() {
+        return owedToUser.isEmpty() && owedByUser.isEmpty();
+    }
+}
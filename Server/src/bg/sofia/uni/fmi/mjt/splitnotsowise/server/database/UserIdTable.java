@@ -0,0 +1,76 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class UserIdTable {
+    public static final int UNKNOWN_USER_ID = -1;
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static UserIdTable instance;
+    private final Map<String, Integer> idByUsername;
+    private volatile String[] usernameById;
+    private int usersCount;
+
+    private UserIdTable() {
+        idByUsername = new ConcurrentHashMap<>();
+        usernameById = new String[DEFAULT_CAPACITY];
+    }
+
+    public static void resetInstance() {
+        instance = new UserIdTable();
+    }
+
+    public static void setInstance(UserIdTable userIdTable) {
+        NotNullChecker.check(userIdTable);
+        instance = userIdTable;
+    }
+
+    public static synchronized UserIdTable getInstance() {
+        if (instance == null) {
+            instance = new UserIdTable();
+        }
+        return instance;
+    }
+
+    public int intern(String username) {
+        NotNullChecker.check(username);
+        Integer id = idByUsername.get(username);
+        return id != null ? id : assignId(username);
+    }
+
+    private synchronized int assignId(String username) {
+        Integer id = idByUsername.get(username);
+        if (id != null) {
+            return id;
+        }
+        String[] usernames = usernameById;
+        if (usersCount == usernames.length) {
+            usernames = Arrays.copyOf(usernames, usernames.length * 2);
+        }
+        usernames[usersCount] = username;
+        usernameById = usernames;
+        idByUsername.put(username, usersCount);
+        return usersCount++;
+    }
+
+    public int getId(String username) {
+        NotNullChecker.check(username);
+        Integer id = idByUsername.get(username);
+        return id != null ? id : UNKNOWN_USER_ID;
+    }
+
+    public String getUsername(int id) {
+        String[] usernames = usernameById;
+        if (id < 0 || id >= usernames.length || usernames[id] == null) {
+            throw new IllegalArgumentException("unknown user id " + id);
+        }
+        return usernames[id];
+    }
+
+    public int size() {
+        return idByUsername.size();
+    }
+}
@@ -0,0 +1,61 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.collection.PersistentIntLongMap;
+
+public class UserLedger {
+    public static final UserLedger EMPTY = new UserLedger(PersistentIntLongMap.EMPTY, 0, 0);
+    private final PersistentIntLongMap balanceByUserId;
+    private final long owedToUserTotal;
+    private final long owedByUserTotal;
+
+    private UserLedger(PersistentIntLongMap balanceByUserId, long owedToUserTotal, long owedByUserTotal) {
+        this.balanceByUserId = balanceByUserId;
+        this.owedToUserTotal = owedToUserTotal;
+        this.owedByUserTotal = owedByUserTotal;
+    }
+
+    public long getBalance(int userId) {
+        return balanceByUserId.get(userId, 0);
+    }
+
+    public long getOwedToUserTotal() {
+        return owedToUserTotal;
+    }
+
+    public long getOwedByUserTotal() {
+        return owedByUserTotal;
+    }
+
+    public long getNetBalance() {
+        return owedToUserTotal - owedByUserTotal;
+    }
+
+    public UserLedger withBalance(int userId, long balance) {
+        long previousBalance = getBalance(userId);
+        if (balance == previousBalance) {
+            return this;
+        }
+        PersistentIntLongMap updatedBalances = balance == 0
+            ? balanceByUserId.without(userId)
+            : balanceByUserId.with(userId, balance);
+        long updatedOwedToUserTotal = owedToUserTotal - owedToUser(previousBalance) + owedToUser(balance);
+        long updatedOwedByUserTotal = owedByUserTotal - owedByUser(previousBalance) + owedByUser(balance);
+        return new UserLedger(updatedBalances, updatedOwedToUserTotal, updatedOwedByUserTotal);
+    }
+
+    private static long owedToUser(long balance) {
+        return balance < 0 ? -balance : 0;
+    }
+
+    private static long owedByUser(long balance) {
+        return balance > 0 ? balance : 0;
+    }
+
+    public boolean isEmpty() {
+        return balanceByUserId.isEmpty();
+    }
+
+    public void forEach(PersistentIntLongMap.EntryConsumer consumer) {
+        balanceByUserId.forEach(consumer);
+    }
+}
@@ -4,17 +4,20 @@ import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.constants.NumbersConstants;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.RegistrationStatus;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.LogRecord;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.RecordType;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngines;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server.PROJECT_NAME;
 
@@ -24,9 +27,11 @@ public class UserManager {
     private static Path usersFilePath;
     private static UserManager instance;
     private final Map<String, User> userByUsername;
+    private final Map<String, User> userByUsernameView;
     private boolean dataLoaded;
     private UserManager() {
-        this.userByUsername = new HashMap<>();
+        this.userByUsername = new ConcurrentHashMap<>();
+        this.userByUsernameView = Collections.unmodifiableMap(userByUsername);
         dataLoaded = false;
     }
 
@@ -60,7 +65,7 @@ public class UserManager {
     }
 
     public Map<String, User> getUserByUsernameMap() {
-        return userByUsername;
+        return userByUsernameView;
     }
 
     public static void setUsersFilePath(Path path) {
@@ -74,49 +79,73 @@ public class UserManager {
 
     public void loadUsers() throws DataStorageException {
         initializeFilePath();
-        try (BufferedReader br = new BufferedReader(new FileReader(usersFilePath.toString()))) {
-            br.readLine();
-            String line;
-            while ((line = br.readLine()) != null) {
+        try {
+            List<String> lines = LegacyDataFile.readLines(usersFilePath);
+            int skippedCount = 0;
+            for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
                 if (line.isBlank()) {
                     continue;
                 }
-                String[] data = line.split(",");
-                String firstName = data[0].trim();
-                String lastName = data[1].trim();
-                String username = data[2].trim();
-                String passwordHash = data[NumbersConstants.THREE].trim();
-                addToUsersMap(username, new User(firstName, lastName, username, passwordHash));
+                String[] data = LegacyDataFile.split(line, NumbersConstants.FOUR);
+                if (data == null) {
+                    skippedCount++;
+                    continue;
+                }
+                addToUsersMap(data[2], new User(data[0], data[1], data[2], data[NumbersConstants.THREE]));
             }
+            LegacyDataFile.reportSkippedLines(usersFilePath.toString(), skippedCount);
         } catch (IOException e) {
             throw new DataStorageException("an error occurred when loading the users file", e);
         }
     }
 
-    private synchronized void addToUsersMap(String username, User user) {
+    public void apply(LogRecord record) {
+        NotNullChecker.check(record);
+        if (record.type() == RecordType.USER_REGISTERED) {
+            addToUsersMap(record.field(2), new User(record.field(0), record.field(1), record.field(2),
+                record.field(NumbersConstants.THREE)));
+        }
+    }
+
+    public List<LogRecord> snapshot() {
+        List<LogRecord> records = new ArrayList<>(userByUsername.size());
+        for (User user : userByUsername.values()) {
+            records.add(new LogRecord(RecordType.USER_REGISTERED,
+                user.firstName(), user.lastName(), user.username(), user.passwordHash()));
+        }
+        return records;
+    }
+
+    private void addToUsersMap(String username, User user) {
         NotNullChecker.check(username, user);
         userByUsername.put(username, user);
+        UserIdTable.getInstance().intern(username);
     }
 
     public RegistrationStatus registerUser(User newUser) throws DataStorageException {
         NotNullChecker.check(newUser);
-        if (userByUsername.containsKey(newUser.username())) {
-            return RegistrationStatus.USERNAME_ALREADY_EXISTS;
-        }
-        initializeFilePath();
-        synchronized (this) {
-            try (BufferedWriter bw = new BufferedWriter(new FileWriter(usersFilePath.toString(), true))) {
-                String line = newUser.firstName() + ',' +
-                    newUser.lastName() + ',' +
-                    newUser.username() + ',' +
-                    newUser.passwordHash();
-                bw.write(line);
-                bw.newLine();
-                addToUsersMap(newUser.username(), newUser);
-                return RegistrationStatus.SUCCESS;
-            } catch (IOException e) {
-                throw new DataStorageException("an error occurred when updating the users file", e);
+        StorageEngine storageEngine = StorageEngines.getInstance();
+        long sequence;
+        storageEngine.beginMutation();
+        try {
+            if (userByUsername.putIfAbsent(newUser.username(), newUser) != null) {
+                return RegistrationStatus.USERNAME_ALREADY_EXISTS;
             }
+            sequence = storageEngine.append(new LogRecord(RecordType.USER_REGISTERED,
+                newUser.firstName(), newUser.lastName(), newUser.username(), newUser.passwordHash()));
+        } catch (DataStorageException e) {
+            userByUsername.remove(newUser.username(), newUser);
+            throw e;
+        } finally {
+            storageEngine.endMutation();
+        }
+        try {
+            storageEngine.awaitDurable(sequence);
+        } catch (DataStorageException e) {
+            userByUsername.remove(newUser.username(), newUser);
+            throw e;
         }
+        UserIdTable.getInstance().intern(newUser.username());
+        return RegistrationStatus.SUCCESS;
     }
 }
@@ -0,0 +1,361 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.Checkpoint;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.LogRecord;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.SnapshotFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server.PROJECT_NAME;
+
+public class UserStateCache<V> {
+    public static final Path SPILL_DIRECTORY = Paths.get(PROJECT_NAME, "cache");
+    public static final int UNBOUNDED = 0;
+    private final Path spillDirectory;
+    private final String fileNamePostfix;
+    private final BiFunction<String, V, List<LogRecord>> encoder;
+    private final Function<List<LogRecord>, V> decoder;
+    private final ConcurrentHashMap<String, Slot<V>> slotByUsername;
+    private final AtomicInteger cachedUsersCount;
+    private final Set<String> spillingUsernames;
+    private final LinkedHashMap<String, Boolean> accessOrder;
+    private volatile int maxCachedUsers;
+
+    public UserStateCache(Path spillDirectory, String fileNamePostfix, BiFunction<String, V, List<LogRecord>> encoder,
+                          Function<List<LogRecord>, V> decoder) {
+        NotNullChecker.check(spillDirectory, fileNamePostfix, encoder, decoder);
+        this.spillDirectory = spillDirectory;
+        this.fileNamePostfix = fileNamePostfix;
+        this.encoder = encoder;
+        this.decoder = decoder;
+        slotByUsername = new ConcurrentHashMap<>();
+        cachedUsersCount = new AtomicInteger();
+        spillingUsernames = ConcurrentHashMap.newKeySet();
+        accessOrder = new LinkedHashMap<>(16, 0.75f, true);
+        maxCachedUsers = UNBOUNDED;
+    }
+
+    public void setMaxCachedUsers(int maxCachedUsers) throws DataStorageException {
+        if (maxCachedUsers < UNBOUNDED) {
+            throw new IllegalArgumentException("max cached users must not be negative");
+        }
+        synchronized (accessOrder) {
+            if (this.maxCachedUsers == UNBOUNDED) {
+                slotByUsername.forEach((username, slot) -> {
+                    if (slot instanceof CachedSlot<V>) {
+                        accessOrder.putIfAbsent(username, Boolean.TRUE);
+                    }
+                });
+            }
+            this.maxCachedUsers = maxCachedUsers;
+            if (maxCachedUsers == UNBOUNDED) {
+                accessOrder.clear();
+            }
+        }
+        if (maxCachedUsers != UNBOUNDED && !hasSpilledUsers()) {
+            deleteStaleSpillFiles();
+        }
+        evictColdUsers();
+    }
+
+    public V get(String username) throws DataStorageException {
+        return read(username, Function.identity());
+    }
+
+    public <R> R read(String username, Function<V, R> reader) throws DataStorageException {
+        NotNullChecker.check(username, reader);
+        AtomicReference<R> result = new AtomicReference<>();
+        AtomicBoolean isLoadNeeded = new AtomicBoolean();
+        do {
+            isLoadNeeded.set(false);
+            slotByUsername.computeIfPresent(username, (key, slot) -> {
+                if (slot instanceof CachedSlot<V> cachedSlot) {
+                    result.set(reader.apply(cachedSlot.state()));
+                } else {
+                    isLoadNeeded.set(true);
+                }
+                return slot;
+            });
+        } while (isLoadNeeded.get() && load(username));
+        touch(username);
+        evictColdUsers();
+        return result.get();
+    }
+
+    public void compute(String username, StateUpdate<V> update) throws DataStorageException {
+        NotNullChecker.check(username, update);
+        AtomicReference<DataStorageException> failure = new AtomicReference<>();
+        AtomicBoolean isLoadNeeded = new AtomicBoolean();
+        do {
+            isLoadNeeded.set(false);
+            slotByUsername.compute(username, (key, slot) -> {
+                if (slot != null && !(slot instanceof CachedSlot<V>)) {
+                    isLoadNeeded.set(true);
+                    return slot;
+                }
+                V currentState = slot instanceof CachedSlot<V> cachedSlot ? cachedSlot.state() : null;
+                V updatedState;
+                try {
+                    updatedState = update.apply(currentState);
+                } catch (DataStorageException e) {
+                    failure.set(e);
+                    updatedState = currentState;
+                }
+                if (updatedState == null) {
+                    if (slot != null) {
+                        cachedUsersCount.decrementAndGet();
+                    }
+                    return null;
+                }
+                if (slot == null) {
+                    cachedUsersCount.incrementAndGet();
+                }
+                return new CachedSlot<>(updatedState);
+            });
+        } while (isLoadNeeded.get() && load(username));
+        touch(username);
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        evictColdUsers();
+    }
+
+    public void forEach(BiConsumer<String, V> consumer) throws DataStorageException {
+        NotNullChecker.check(consumer);
+        for (String username : List.copyOf(slotByUsername.keySet())) {
+            AtomicReference<LoadingSlot<V>> pin = new AtomicReference<>();
+            AtomicReference<LoadingSlot<V>> busySlot = new AtomicReference<>();
+            do {
+                busySlot.set(null);
+                slotByUsername.computeIfPresent(username, (key, slot) -> {
+                    if (slot instanceof CachedSlot<V> cachedSlot) {
+                        consumer.accept(key, cachedSlot.state());
+                    } else if (slot instanceof SpilledSlot<V>) {
+                        pin.set(new LoadingSlot<>(new CompletableFuture<>()));
+                        return pin.get();
+                    } else {
+                        busySlot.set((LoadingSlot<V>) slot);
+                    }
+                    return slot;
+                });
+                if (busySlot.get() != null) {
+                    busySlot.get().loaded().join();
+                }
+            } while (busySlot.get() != null);
+            if (pin.get() != null) {
+                try {
+                    consumer.accept(username, readSpilledState(username));
+                } finally {
+                    slotByUsername.computeIfPresent(username,
+                        (key, slot) -> slot == pin.get() ? new SpilledSlot<>() : slot);
+                    pin.get().loaded().complete(null);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return slotByUsername.size();
+    }
+
+    public int getCachedUsersCount() {
+        return cachedUsersCount.get();
+    }
+
+    public void clear() throws DataStorageException {
+        for (String username : List.copyOf(slotByUsername.keySet())) {
+            Slot<V> slot = slotByUsername.remove(username);
+            if (slot instanceof CachedSlot<V>) {
+                cachedUsersCount.decrementAndGet();
+            } else if (slot instanceof SpilledSlot<V>) {
+                deleteSpillFile(username);
+            }
+        }
+        synchronized (accessOrder) {
+            accessOrder.clear();
+        }
+    }
+
+    private boolean load(String username) throws DataStorageException {
+        LoadingSlot<V> loadingSlot = new LoadingSlot<>(new CompletableFuture<>());
+        Slot<V> slot = slotByUsername.computeIfPresent(username,
+            (key, currentSlot) -> currentSlot instanceof SpilledSlot<V> ? loadingSlot : currentSlot);
+        if (slot instanceof LoadingSlot<V> otherLoadingSlot && slot != loadingSlot) {
+            otherLoadingSlot.loaded().join();
+            return true;
+        }
+        if (slot != loadingSlot) {
+            return slot != null;
+        }
+        try {
+            V state = readSpilledState(username);
+            deleteSpillFile(username);
+            slotByUsername.computeIfPresent(username, (key, currentSlot) -> {
+                if (currentSlot != loadingSlot) {
+                    return currentSlot;
+                }
+                cachedUsersCount.incrementAndGet();
+                return new CachedSlot<>(state);
+            });
+        } catch (DataStorageException e) {
+            slotByUsername.computeIfPresent(username,
+                (key, currentSlot) -> currentSlot == loadingSlot ? new SpilledSlot<>() : currentSlot);
+            throw e;
+        } finally {
+            loadingSlot.loaded().complete(null);
+        }
+        return true;
+    }
+
+    private boolean hasSpilledUsers() {
+        return slotByUsername.values().stream().anyMatch(slot -> !(slot instanceof CachedSlot<V>));
+    }
+
+    private void touch(String username) {
+        if (maxCachedUsers == UNBOUNDED) {
+            return;
+        }
+        synchronized (accessOrder) {
+            if (slotByUsername.get(username) instanceof CachedSlot<V>) {
+                accessOrder.put(username, Boolean.TRUE);
+            } else {
+                accessOrder.remove(username);
+            }
+        }
+    }
+
+    private String claimColdestUser() {
+        synchronized (accessOrder) {
+            int limit = maxCachedUsers;
+            if (limit == UNBOUNDED || cachedUsersCount.get() <= limit || accessOrder.isEmpty()) {
+                return null;
+            }
+            String coldest = accessOrder.keySet().iterator().next();
+            accessOrder.remove(coldest);
+            return coldest;
+        }
+    }
+
+    private void evictColdUsers() throws DataStorageException {
+        String coldest;
+        while ((coldest = claimColdestUser()) != null) {
+            spill(coldest);
+        }
+    }
+
+    private void spill(String username) throws DataStorageException {
+        if (!spillingUsernames.add(username)) {
+            return;
+        }
+        AtomicBoolean isSpilled = new AtomicBoolean();
+        try {
+            AtomicReference<Slot<V>> spilledSlot = new AtomicReference<>();
+            AtomicReference<List<LogRecord>> records = new AtomicReference<>();
+            slotByUsername.computeIfPresent(username, (key, slot) -> {
+                if (slot instanceof CachedSlot<V> cachedSlot) {
+                    spilledSlot.set(slot);
+                    records.set(encoder.apply(key, cachedSlot.state()));
+                }
+                return slot;
+            });
+            if (records.get() == null) {
+                return;
+            }
+            Path spillFilePath = getSpillFilePath(username);
+            SnapshotFile.write(spillFilePath, new Checkpoint(0, records.get()), false);
+            slotByUsername.computeIfPresent(username, (key, slot) -> {
+                if (slot != spilledSlot.get()) {
+                    return slot;
+                }
+                cachedUsersCount.decrementAndGet();
+                isSpilled.set(true);
+                return new SpilledSlot<>();
+            });
+            if (!isSpilled.get()) {
+                deleteSpillFileQuietly(spillFilePath);
+            }
+        } finally {
+            spillingUsernames.remove(username);
+            if (!isSpilled.get()) {
+                touch(username);
+            }
+        }
+    }
+
+    private V readSpilledState(String username) throws DataStorageException {
+        Checkpoint spilledState = SnapshotFile.read(getSpillFilePath(username));
+        if (spilledState == null) {
+            throw new DataStorageException("the cached state of " + username + " is missing");
+        }
+        return decoder.apply(spilledState.state());
+    }
+
+    private void deleteSpillFile(String username) throws DataStorageException {
+        try {
+            Files.deleteIfExists(getSpillFilePath(username));
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when deleting the cached state of " + username, e);
+        }
+    }
+
+    private static void deleteSpillFileQuietly(Path spillFilePath) {
+        try {
+            Files.deleteIfExists(spillFilePath);
+        } catch (IOException e) {
+            System.out.println("could not delete the abandoned cache file " + spillFilePath + ": " + e.getMessage());
+        }
+    }
+
+    private void deleteStaleSpillFiles() throws DataStorageException {
+        try {
+            Files.createDirectories(spillDirectory);
+            try (Stream<Path> files = Files.list(spillDirectory)) {
+                for (Path file : files.toList()) {
+                    if (file.getFileName().toString().endsWith(fileNamePostfix)) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when clearing the cache directory " + spillDirectory, e);
+        }
+    }
+
+    private Path getSpillFilePath(String username) {
+        return spillDirectory.resolve(username + fileNamePostfix);
+    }
+
+    @FunctionalInterface
+    public interface StateUpdate<V> {
+        V apply(V state) throws DataStorageException;
+    }
+
+    private interface Slot<V> {
+    }
+
+    private record CachedSlot<V>(V state) implements Slot<V> {
+    }
+
+    private record SpilledSlot<V>() implements Slot<V> {
+    }
+
+    private record LoadingSlot<V>(CompletableFuture<Void> loaded) implements Slot<V> {
+    }
+}
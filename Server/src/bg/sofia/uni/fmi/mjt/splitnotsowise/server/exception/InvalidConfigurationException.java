@@ -0,0 +1,12 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception;
+
+public class InvalidConfigurationException extends Exception {
+
+    public InvalidConfigurationException(String message) {
+        super(message);
+    }
+
+    public InvalidConfigurationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
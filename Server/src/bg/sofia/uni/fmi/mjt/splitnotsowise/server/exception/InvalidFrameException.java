@@ -0,0 +1,12 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception;
+
+public class InvalidFrameException extends Exception {
+
+    public InvalidFrameException(String message) {
+        super(message);
+    }
+
+    public InvalidFrameException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
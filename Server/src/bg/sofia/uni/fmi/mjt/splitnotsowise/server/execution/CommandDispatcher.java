@@ -0,0 +1,70 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.execution;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.InvalidFrameException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.io.IOHandler;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.BinaryCodec;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.Frame;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.Protocol;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.ResponseStatus;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.session.ClientSession;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class CommandDispatcher {
+    private static final String INTERNAL_ERROR_MESSAGE = "an error occurred while executing the command";
+    private static final String SHUTTING_DOWN_MESSAGE = "server is shutting down, try again later";
+    private final ExecutorService executor;
+
+    public CommandDispatcher() {
+        this(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public CommandDispatcher(ExecutorService executor) {
+        NotNullChecker.check(executor);
+        this.executor = executor;
+    }
+
+    public void dispatch(Frame request, ClientSession session, Consumer<Frame> onComplete) {
+        NotNullChecker.check(request, session, onComplete);
+        try {
+            executor.execute(() -> onComplete.accept(execute(request, session)));
+        } catch (RejectedExecutionException e) {
+            onComplete.accept(reply(request, session, ResponseStatus.ERROR, SHUTTING_DOWN_MESSAGE));
+        }
+    }
+
+    private Frame execute(Frame request, ClientSession session) {
+        try {
+            String output;
+            if (session.getProtocol() == Protocol.BINARY) {
+                output = IOHandler.getInstance().handle(BinaryCodec.decodeRequest(request.payload()), session);
+            } else {
+                output = IOHandler.getInstance().handle(request.text(), session);
+            }
+            return reply(request, session, ResponseStatus.OK, output == null ? "" : output);
+        } catch (InvalidFrameException e) {
+            return reply(request, session, ResponseStatus.INVALID_REQUEST, e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println("error occurred while executing command: " + e.getMessage());
+            return reply(request, session, ResponseStatus.ERROR, INTERNAL_ERROR_MESSAGE);
+        }
+    }
+
+    private static Frame reply(Frame request, ClientSession session, ResponseStatus status, String message) {
+        if (session.getProtocol() == Protocol.BINARY) {
+            return new Frame(request.requestId(), BinaryCodec.encodeResponse(status, message));
+        }
+        return new Frame(request.requestId(), message);
+    }
+
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        NotNullChecker.check(unit);
+        executor.shutdown();
+        return executor.awaitTermination(timeout, unit);
+    }
+}
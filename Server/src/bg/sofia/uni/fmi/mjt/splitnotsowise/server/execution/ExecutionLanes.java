@@ -0,0 +1,56 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.execution;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+public class ExecutionLanes {
+    public static final int DEFAULT_LANES_COUNT = 256;
+    private final ReentrantLock[] lanes;
+
+    public ExecutionLanes() {
+        this(DEFAULT_LANES_COUNT);
+    }
+
+    public ExecutionLanes(int lanesCount) {
+        if (lanesCount <= 0) {
+            throw new IllegalArgumentException("lanes count must be positive");
+        }
+        lanes = new ReentrantLock[lanesCount];
+        for (int i = 0; i < lanesCount; i++) {
+            lanes[i] = new ReentrantLock();
+        }
+    }
+
+    public int laneOf(String key) {
+        NotNullChecker.check(key);
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    public <T> T execute(Collection<String> keys, Supplier<T> task) {
+        NotNullChecker.check(keys, task);
+        boolean[] used = new boolean[lanes.length];
+        for (String key : keys) {
+            used[laneOf(key)] = true;
+        }
+        int locked = 0;
+        try {
+            for (int i = 0; i < lanes.length; i++) {
+                if (used[i]) {
+                    lanes[i].lock();
+                    locked = i + 1;
+                }
+            }
+            return task.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                if (used[i]) {
+                    lanes[i].unlock();
+                }
+            }
+        }
+    }
+}
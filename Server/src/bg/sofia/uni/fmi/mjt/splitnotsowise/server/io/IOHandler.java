@@ -1,7 +1,10 @@
 package bg.sofia.uni.fmi.mjt.splitnotsowise.server.io;
 
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.AddFriendCommand;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.BackupCommand;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.BalanceCommand;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.CheckGroupsCommand;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.CheckNotificationsCommand;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.CheckPaymentHistoryCommand;
@@ -11,18 +14,25 @@ import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.LoginCommand;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.LogoutCommand;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.PaidCommand;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.RegisterCommand;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.ShutdownCommand;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.SplitFriendCommand;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.SplitGroupCommand;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.StatusCommand;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.BackupManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.DebtManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.FriendshipManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.GroupManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.NotificationManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.constants.NumbersConstants;
-import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.execution.ExecutionLanes;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.session.ClientSession;
 
-import java.nio.channels.SelectionKey;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 public class IOHandler {
     private static final String QUIT_MESSAGE = "bye, see you soon :)";
@@ -44,8 +54,12 @@ public class IOHandler {
             paid <amount> <username>
             payment-history
             status
+            balance
+            balance <count> (administrators only)
             groups
-            notifications
+            notifications [<count>]
+            shutdown (administrators only)
+            backup (administrators only)
             quit""";
     public static final String HELP = "help";
     public static final String REGISTER = "register";
@@ -61,7 +75,12 @@ public class IOHandler {
     public static final String NOTIFICATIONS = "notifications";
     public static final String PAYMENT_HISTORY = "payment-history";
     public static final String QUIT = "quit";
+    public static final String SHUTDOWN = "shutdown";
+    public static final String BACKUP = "backup";
+    public static final String BALANCE = "balance";
+    private static final String GROUP_KEY_PREFIX = "group:";
     private static IOHandler instance;
+    private final ExecutionLanes executionLanes;
     private UserManager userManager;
     private FriendshipManager friendshipManager;
     private GroupManager groupManager;
@@ -70,6 +89,7 @@ public class IOHandler {
     private InputValidator inputValidator;
 
     private IOHandler() {
+        executionLanes = new ExecutionLanes();
     }
 
     public static void resetInstance() {
@@ -97,24 +117,76 @@ public class IOHandler {
         inputValidator = InputValidator.getInstance();
     }
 
-    public String handle(String input, SelectionKey key) {
-        NotNullChecker.check(input, key);
+    public String handle(String input, ClientSession session) {
+        NotNullChecker.check(input, session);
+        return handle(input.trim().split(" "), session);
+    }
+
+    public String handle(String[] tokens, ClientSession session) {
+        NotNullChecker.check(tokens, session);
         initializeManagers();
-        String[] tokens = input.trim().split(" ");
         if (tokens.length == NumbersConstants.ZERO) {
             return null;
         }
         if (!inputValidator.validateInputArgs(tokens)) {
             return INVALID_ARGUMENTS_MESSAGE;
         }
-        User user = (User) key.attachment();
-        boolean isLoggedIn = user != null;
-        String username = isLoggedIn ? user.username() : null;
-        return processCommand(tokens, isLoggedIn, username, key);
+        boolean isLoggedIn = session.isLoggedIn();
+        String username = isLoggedIn ? session.getUser().username() : null;
+        return executeOnStableKeys(tokens, username, () -> processCommand(tokens, isLoggedIn, username, session));
+    }
+
+    private String executeOnStableKeys(String[] tokens, String username, Supplier<String> task) {
+        AtomicReference<Set<String>> changedKeys = new AtomicReference<>();
+        Set<String> keys = getAffectedKeys(tokens, username);
+        while (true) {
+            Set<String> lockedKeys = keys;
+            changedKeys.set(null);
+            String output = executionLanes.execute(lockedKeys, () -> {
+                Set<String> affectedKeys = getAffectedKeys(tokens, username);
+                if (!lockedKeys.containsAll(affectedKeys)) {
+                    changedKeys.set(affectedKeys);
+                    return null;
+                }
+                return task.get();
+            });
+            if (changedKeys.get() == null) {
+                return output;
+            }
+            keys = changedKeys.get();
+        }
+    }
+
+    private Set<String> getAffectedKeys(String[] tokens, String username) {
+        NotNullChecker.check((Object) tokens);
+        Set<String> keys = new HashSet<>();
+        if (username != null) {
+            keys.add(username);
+        }
+        switch (tokens[NumbersConstants.ZERO]) {
+            case REGISTER -> keys.add(tokens[NumbersConstants.THREE]);
+            case LOGIN, ADD_FRIEND -> keys.add(tokens[NumbersConstants.ONE]);
+            case SPLIT_FRIEND, PAID -> keys.add(tokens[NumbersConstants.TWO]);
+            case CREATE_GROUP -> {
+                keys.add(GROUP_KEY_PREFIX + tokens[NumbersConstants.ONE]);
+                keys.addAll(Arrays.asList(tokens).subList(NumbersConstants.TWO, tokens.length));
+            }
+            case SPLIT_GROUP -> {
+                keys.add(GROUP_KEY_PREFIX + tokens[NumbersConstants.TWO]);
+                Set<String> members = groupManager.getGroupMembersByGroupNameMap().get(tokens[NumbersConstants.TWO]);
+                if (members != null) {
+                    keys.addAll(members);
+                }
+            }
+            case HELP, QUIT, LOGOUT, SHUTDOWN, BACKUP -> keys.clear();
+            default -> {
+            }
+        }
+        return keys;
     }
 
-    private String processCommand(String[] tokens, boolean isLoggedIn, String username, SelectionKey key) {
-        NotNullChecker.check(tokens, isLoggedIn, key);
+    private String processCommand(String[] tokens, boolean isLoggedIn, String username, ClientSession session) {
+        NotNullChecker.check(tokens, isLoggedIn, session);
         Command command;
         switch (tokens[NumbersConstants.ZERO]) {
             case HELP -> {
@@ -123,7 +195,7 @@ public class IOHandler {
             case QUIT -> {
                 return QUIT_MESSAGE;
             }
-            default -> command = generateCommandObject(tokens, isLoggedIn, username, key);
+            default -> command = generateCommandObject(tokens, isLoggedIn, username, session);
         }
         if (command == null) {
             return UNKNOWN_COMMAND_MESSAGE;
@@ -132,13 +204,13 @@ public class IOHandler {
         return command.getMessage();
     }
 
-    private Command generateCommandObject(String[] tokens, boolean isLoggedIn, String username, SelectionKey key) {
-        NotNullChecker.check(tokens, isLoggedIn, key);
+    private Command generateCommandObject(String[] tokens, boolean isLoggedIn, String username, ClientSession session) {
+        NotNullChecker.check(tokens, isLoggedIn, session);
         return switch (tokens[NumbersConstants.ZERO]) {
             case REGISTER ->
                 new RegisterCommand(isLoggedIn, tokens[NumbersConstants.ONE], tokens[NumbersConstants.TWO], tokens[NumbersConstants.THREE], tokens[NumbersConstants.FOUR], userManager);
-            case LOGIN -> new LoginCommand(key, tokens[NumbersConstants.ONE], tokens[NumbersConstants.TWO], userManager, notificationManager);
-            case LOGOUT -> new LogoutCommand(key);
+            case LOGIN -> new LoginCommand(session, tokens[NumbersConstants.ONE], tokens[NumbersConstants.TWO], userManager, notificationManager);
+            case LOGOUT -> new LogoutCommand(session);
             case ADD_FRIEND -> new AddFriendCommand(isLoggedIn, username, tokens[NumbersConstants.ONE], friendshipManager);
             case CREATE_GROUP -> {
                 String[] members = new String[tokens.length - NumbersConstants.TWO];
@@ -150,8 +222,17 @@ public class IOHandler {
             case PAID -> new PaidCommand(isLoggedIn, tokens[NumbersConstants.ONE], tokens[NumbersConstants.TWO], username, debtManager);
             case STATUS -> new StatusCommand(isLoggedIn, username, userManager, debtManager);
             case GROUPS -> new CheckGroupsCommand(isLoggedIn, username, groupManager);
-            case NOTIFICATIONS -> new CheckNotificationsCommand(isLoggedIn, username, notificationManager);
+            case NOTIFICATIONS -> tokens.length == NumbersConstants.ONE ?
+                new CheckNotificationsCommand(isLoggedIn, username, notificationManager) :
+                new CheckNotificationsCommand(isLoggedIn, username, Integer.parseInt(tokens[NumbersConstants.ONE]),
+                    notificationManager);
             case PAYMENT_HISTORY -> new CheckPaymentHistoryCommand(isLoggedIn, username, userManager, debtManager);
+            case SHUTDOWN -> new ShutdownCommand(isLoggedIn, username, Server.getInstance());
+            case BACKUP -> new BackupCommand(isLoggedIn, username, Server.getInstance(), BackupManager.getInstance());
+            case BALANCE -> tokens.length == NumbersConstants.ONE ?
+                new BalanceCommand(isLoggedIn, username, Server.getInstance(), debtManager) :
+                new BalanceCommand(isLoggedIn, username, Integer.parseInt(tokens[NumbersConstants.ONE]),
+                    Server.getInstance(), debtManager);
             default -> null;
         };
     }
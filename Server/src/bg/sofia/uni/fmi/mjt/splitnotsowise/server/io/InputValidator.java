@@ -2,6 +2,7 @@ package bg.sofia.uni.fmi.mjt.splitnotsowise.server.io;
 
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.constants.NumbersConstants;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.money.Money;
 
 import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.io.IOHandler.*;
 
@@ -54,7 +55,7 @@ public class InputValidator {
             return false;
         }
         String amount = tokens[1];
-        return validateDouble(amount);
+        return validateAmount(amount);
     }
 
     private boolean validatePaid(String[] tokens) {
@@ -64,7 +65,24 @@ public class InputValidator {
         }
 
         String amount = tokens[1];
-        return validateDouble(amount);
+        return validateAmount(amount);
+    }
+
+    private boolean validateOptionalCount(String[] tokens) {
+        NotNullChecker.check((Object) tokens);
+        if (tokens.length == NumbersConstants.ONE) {
+            return true;
+        }
+        return tokens.length == NumbersConstants.TWO && validateCount(tokens[1]);
+    }
+
+    private boolean validateCount(String str) {
+        NotNullChecker.check(str);
+        try {
+            return Integer.parseInt(str) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
     }
 
     private boolean validateName(String username) {
@@ -72,12 +90,11 @@ public class InputValidator {
         return username.matches("[a-zA-Z0-9]+");
     }
 
-    private boolean validateDouble(String str) {
+    private boolean validateAmount(String str) {
         NotNullChecker.check(str);
         try {
-            double d = Double.parseDouble(str);
-            return d > 0;
-        } catch (NumberFormatException e) {
+            return Money.parse(str) > 0;
+        } catch (NumberFormatException | ArithmeticException e) {
             return false;
         }
     }
@@ -85,7 +102,9 @@ public class InputValidator {
     public boolean validateInputArgs(String[] tokens) {
         NotNullChecker.check((Object) tokens);
         return switch (tokens[0]) {
-            case HELP, LOGOUT, STATUS, QUIT, GROUPS, NOTIFICATIONS, PAYMENT_HISTORY -> tokens.length == NumbersConstants.ONE;
+            case HELP, LOGOUT, STATUS, QUIT, GROUPS, PAYMENT_HISTORY, SHUTDOWN, BACKUP ->
+                tokens.length == NumbersConstants.ONE;
+            case NOTIFICATIONS, BALANCE -> validateOptionalCount(tokens);
             case REGISTER -> validateRegister(tokens);
             case LOGIN -> tokens.length == NumbersConstants.THREE;
             case ADD_FRIEND -> tokens.length == NumbersConstants.TWO;
@@ -0,0 +1,71 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.money;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public class Money {
+    public static final int CENTS_IN_UNIT = 100;
+    private static final int FRACTION_DIGITS = 2;
+    private static final int RADIX = 10;
+
+    private Money() {
+    }
+
+    public static long parse(String amount) {
+        NotNullChecker.check(amount);
+        int length = amount.length();
+        int separatorIndex = amount.indexOf('.');
+        int unitsEnd = separatorIndex < 0 ? length : separatorIndex;
+        int fractionDigits = separatorIndex < 0 ? 0 : length - separatorIndex - 1;
+        if (unitsEnd == 0 || separatorIndex >= 0 && (fractionDigits == 0 || fractionDigits > FRACTION_DIGITS)) {
+            throw new NumberFormatException("invalid amount: " + amount);
+        }
+        long cents = 0;
+        for (int i = 0; i < length; i++) {
+            if (i == separatorIndex) {
+                continue;
+            }
+            int digit = Character.digit(amount.charAt(i), RADIX);
+            if (digit < 0) {
+                throw new NumberFormatException("invalid amount: " + amount);
+            }
+            cents = Math.addExact(Math.multiplyExact(cents, RADIX), digit);
+        }
+        for (int i = fractionDigits; i < FRACTION_DIGITS; i++) {
+            cents = Math.multiplyExact(cents, RADIX);
+        }
+        return cents;
+    }
+
+    public static long parseRounded(String amount) {
+        NotNullChecker.check(amount);
+        try {
+            return parse(amount);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return new BigDecimal(amount.trim()).setScale(FRACTION_DIGITS, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
+        }
+    }
+
+    public static String format(long cents) {
+        StringBuilder builder = new StringBuilder();
+        append(builder, cents);
+        return builder.toString();
+    }
+
+    public static StringBuilder append(StringBuilder builder, long cents) {
+        NotNullChecker.check(builder);
+        if (cents < 0) {
+            builder.append('-');
+        }
+        long units = Math.abs(cents / CENTS_IN_UNIT);
+        long fraction = Math.abs(cents % CENTS_IN_UNIT);
+        builder.append(units).append('.');
+        if (fraction < RADIX) {
+            builder.append('0');
+        }
+        return builder.append(fraction);
+    }
+}
@@ -0,0 +1,7 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus;
+
+public enum ConnectionStatus {
+    ACCEPTED,
+    TOO_MANY_CONNECTIONS,
+    TOO_MANY_CONNECTIONS_FROM_ADDRESS
+}
@@ -0,0 +1,127 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.InvalidFrameException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.money.Money;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BinaryCodec {
+    public static final int HANDSHAKE_MAGIC = 0xB15A0000;
+    public static final int PROTOCOL_VERSION = 2;
+    private static final int VARINT_DATA_BITS = 7;
+    private static final int VARINT_DATA_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION_BIT = 0x80;
+    private static final int MAX_VARINT_SHIFT = 63;
+
+    public static Frame handshakeAcknowledgement() {
+        return new Frame(0, new byte[] {(byte) PROTOCOL_VERSION});
+    }
+
+    public static String[] decodeRequest(byte[] payload) throws InvalidFrameException {
+        NotNullChecker.check((Object) payload);
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        try {
+            Opcode opcode = Opcode.fromCode(readVarInt(buffer));
+            if (opcode == null) {
+                throw new InvalidFrameException("unknown opcode");
+            }
+            List<String> tokens = new ArrayList<>();
+            tokens.add(opcode.getCommand());
+            for (FieldType field : opcode.getFields()) {
+                switch (field) {
+                    case STRING -> tokens.add(readString(buffer));
+                    case AMOUNT -> tokens.add(Money.format(readSignedVarLong(buffer)));
+                    case COUNT -> tokens.add(Integer.toString(readCount(buffer)));
+                    case STRING_LIST -> {
+                        int count = readVarInt(buffer);
+                        for (int i = 0; i < count; i++) {
+                            tokens.add(readString(buffer));
+                        }
+                    }
+                }
+            }
+            if (buffer.hasRemaining()) {
+                throw new InvalidFrameException("unexpected bytes after the fields of " + opcode.getCommand());
+            }
+            return tokens.toArray(String[]::new);
+        } catch (BufferUnderflowException e) {
+            throw new InvalidFrameException("request is truncated", e);
+        }
+    }
+
+    public static byte[] encodeResponse(ResponseStatus status, String message) {
+        NotNullChecker.check(status, message);
+        byte[] text = message.getBytes(StandardCharsets.UTF_8);
+        byte[] response = new byte[text.length + 1];
+        response[0] = (byte) status.getCode();
+        System.arraycopy(text, 0, response, 1, text.length);
+        return response;
+    }
+
+    public static void writeVarLong(ByteBuffer buffer, long value) {
+        NotNullChecker.check(buffer);
+        long remaining = value;
+        while ((remaining & ~VARINT_DATA_MASK) != 0) {
+            buffer.put((byte) ((remaining & VARINT_DATA_MASK) | VARINT_CONTINUATION_BIT));
+            remaining >>>= VARINT_DATA_BITS;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    public static void writeSignedVarLong(ByteBuffer buffer, long value) {
+        writeVarLong(buffer, (value << 1) ^ (value >> MAX_VARINT_SHIFT));
+    }
+
+    public static long readVarLong(ByteBuffer buffer) throws InvalidFrameException {
+        NotNullChecker.check(buffer);
+        long value = 0;
+        for (int shift = 0; shift <= MAX_VARINT_SHIFT; shift += VARINT_DATA_BITS) {
+            byte current = buffer.get();
+            if (shift == MAX_VARINT_SHIFT && (current & ~1) != 0) {
+                throw new InvalidFrameException("varint overflows 64 bits");
+            }
+            value |= (long) (current & VARINT_DATA_MASK) << shift;
+            if ((current & VARINT_CONTINUATION_BIT) == 0) {
+                return value;
+            }
+        }
+        throw new InvalidFrameException("varint is too long");
+    }
+
+    public static long readSignedVarLong(ByteBuffer buffer) throws InvalidFrameException {
+        long value = readVarLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int readCount(ByteBuffer buffer) throws InvalidFrameException {
+        long value = readSignedVarLong(buffer);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new InvalidFrameException("count " + value + " is out of bounds");
+        }
+        return (int) value;
+    }
+
+    private static int readVarInt(ByteBuffer buffer) throws InvalidFrameException {
+        long value = readVarLong(buffer);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new InvalidFrameException("varint " + value + " is out of bounds");
+        }
+        return (int) value;
+    }
+
+    private static String readString(ByteBuffer buffer) throws InvalidFrameException {
+        int length = readVarInt(buffer);
+        if (length > buffer.remaining()) {
+            throw new InvalidFrameException("string length " + length + " exceeds the request");
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+            StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,8 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol;
+
+public enum FieldType {
+    STRING,
+    AMOUNT,
+    COUNT,
+    STRING_LIST
+}
@@ -0,0 +1,29 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public record Frame(int requestId, byte[] payload) {
+    public Frame(int requestId, String payload) {
+        this(requestId, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String text() {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Frame frame && requestId == frame.requestId && Arrays.equals(payload, frame.payload);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * requestId + Arrays.hashCode(payload);
+    }
+
+    @Override
+    public String toString() {
+        return "Frame[requestId=" + requestId + ", payload=" + payload.length + " bytes]";
+    }
+}
@@ -0,0 +1,31 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class FrameCodec {
+    public static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    public static final int MAX_FRAME_SIZE = 1024 * 1024;
+
+    public static ByteBuffer encode(Frame frame) {
+        NotNullChecker.check(frame);
+        return encode(frame.requestId(), frame.payload());
+    }
+
+    public static ByteBuffer encode(int requestId, String message) {
+        NotNullChecker.check(message);
+        return encode(requestId, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ByteBuffer encode(int requestId, byte[] payload) {
+        NotNullChecker.check((Object) payload);
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        frame.putInt(payload.length);
+        frame.putInt(requestId);
+        frame.put(payload);
+        frame.flip();
+        return frame;
+    }
+}
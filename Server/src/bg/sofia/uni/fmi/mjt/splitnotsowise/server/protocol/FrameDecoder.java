@@ -0,0 +1,77 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.InvalidFrameException;
+
+import java.nio.ByteBuffer;
+
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.FrameCodec.HEADER_SIZE;
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.FrameCodec.MAX_FRAME_SIZE;
+
+public class FrameDecoder {
+    private ByteBuffer buffer;
+
+    public FrameDecoder(int initialCapacity) {
+        if (initialCapacity < HEADER_SIZE) {
+            throw new IllegalArgumentException("initial capacity must fit a frame header");
+        }
+        buffer = ByteBuffer.allocate(initialCapacity);
+    }
+
+    public ByteBuffer getBuffer() {
+        if (!buffer.hasRemaining()) {
+            grow(buffer.capacity() * 2);
+        }
+        return buffer;
+    }
+
+    public Protocol negotiateProtocol() throws InvalidFrameException {
+        if (buffer.position() < Integer.BYTES) {
+            return null;
+        }
+        if (buffer.getInt(0) != BinaryCodec.HANDSHAKE_MAGIC) {
+            return Protocol.TEXT;
+        }
+        if (buffer.position() < HEADER_SIZE) {
+            return null;
+        }
+        int version = buffer.getInt(Integer.BYTES);
+        if (version != BinaryCodec.PROTOCOL_VERSION) {
+            throw new InvalidFrameException("binary protocol version " + version + " is not supported");
+        }
+        buffer.flip();
+        buffer.position(HEADER_SIZE);
+        buffer.compact();
+        return Protocol.BINARY;
+    }
+
+    public Frame nextFrame() throws InvalidFrameException {
+        if (buffer.position() < HEADER_SIZE) {
+            return null;
+        }
+        int length = buffer.getInt(0);
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new InvalidFrameException("frame length " + length + " is out of bounds");
+        }
+        int frameSize = HEADER_SIZE + length;
+        if (buffer.position() < frameSize) {
+            if (frameSize > buffer.capacity()) {
+                grow(frameSize);
+            }
+            return null;
+        }
+        int requestId = buffer.getInt(Integer.BYTES);
+        buffer.flip();
+        buffer.position(HEADER_SIZE);
+        byte[] payload = new byte[length];
+        buffer.get(payload);
+        buffer.compact();
+        return new Frame(requestId, payload);
+    }
+
+    private void grow(int capacity) {
+        ByteBuffer grown = ByteBuffer.allocate(Math.min(capacity, HEADER_SIZE + MAX_FRAME_SIZE));
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+}
@@ -0,0 +1,65 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.io.IOHandler;
+
+import java.util.List;
+
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.FieldType.AMOUNT;
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.FieldType.COUNT;
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.FieldType.STRING;
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.FieldType.STRING_LIST;
+
+public enum Opcode {
+    HELP(1, IOHandler.HELP),
+    REGISTER(2, IOHandler.REGISTER, STRING, STRING, STRING, STRING),
+    LOGIN(3, IOHandler.LOGIN, STRING, STRING),
+    LOGOUT(4, IOHandler.LOGOUT),
+    ADD_FRIEND(5, IOHandler.ADD_FRIEND, STRING),
+    CREATE_GROUP(6, IOHandler.CREATE_GROUP, STRING, STRING_LIST),
+    SPLIT_FRIEND(7, IOHandler.SPLIT_FRIEND, AMOUNT, STRING),
+    SPLIT_GROUP(8, IOHandler.SPLIT_GROUP, AMOUNT, STRING),
+    PAID(9, IOHandler.PAID, AMOUNT, STRING),
+    STATUS(10, IOHandler.STATUS),
+    GROUPS(11, IOHandler.GROUPS),
+    NOTIFICATIONS(12, IOHandler.NOTIFICATIONS),
+    PAYMENT_HISTORY(13, IOHandler.PAYMENT_HISTORY),
+    QUIT(14, IOHandler.QUIT),
+    SHUTDOWN(15, IOHandler.SHUTDOWN),
+    NOTIFICATIONS_PAGE(16, IOHandler.NOTIFICATIONS, COUNT),
+    BACKUP(17, IOHandler.BACKUP),
+    BALANCE(18, IOHandler.BALANCE),
+    BALANCE_LEADERBOARD(19, IOHandler.BALANCE, COUNT);
+
+    private static final Opcode[] BY_CODE = new Opcode[values().length + 1];
+    private final int code;
+    private final String command;
+    private final List<FieldType> fields;
+
+    static {
+        for (Opcode opcode : values()) {
+            BY_CODE[opcode.code] = opcode;
+        }
+    }
+
+    Opcode(int code, String command, FieldType... fields) {
+        this.code = code;
+        this.command = command;
+        this.fields = List.of(fields);
+    }
+
+    public static Opcode fromCode(int code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public List<FieldType> getFields() {
+        return fields;
+    }
+}
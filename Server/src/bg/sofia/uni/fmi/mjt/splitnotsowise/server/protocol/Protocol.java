@@ -0,0 +1,6 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol;
+
+public enum Protocol {
+    TEXT,
+    BINARY
+}
@@ -0,0 +1,17 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol;
+
+public enum ResponseStatus {
+    OK(0),
+    INVALID_REQUEST(1),
+    ERROR(2);
+
+    private final int code;
+
+    ResponseStatus(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+}
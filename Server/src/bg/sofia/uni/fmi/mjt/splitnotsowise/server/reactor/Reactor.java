@@ -0,0 +1,331 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.reactor;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.config.ServerConfig;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.connection.ConnectionLimiter;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.connection.TimerWheel;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.InvalidFrameException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.execution.CommandDispatcher;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.BinaryCodec;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.Frame;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.FrameDecoder;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.Protocol;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.session.ClientSession;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+public class Reactor implements Runnable {
+    private static final int IDLE_TIMER_SLOTS_COUNT = 512;
+    private final String name;
+    private final Selector selector;
+    private final CommandDispatcher dispatcher;
+    private final ServerConfig config;
+    private final ConnectionLimiter connectionLimiter;
+    private final TimerWheel<SelectionKey> idleTimers;
+    private final Queue<SocketChannel> pendingChannels;
+    private final Queue<Runnable> pendingTasks;
+    private final CompletableFuture<Void> drained;
+    private volatile boolean isWorking;
+    private boolean isDraining;
+
+    public Reactor(String name, CommandDispatcher dispatcher, ServerConfig config, ConnectionLimiter connectionLimiter)
+        throws IOException {
+        NotNullChecker.check(name, dispatcher, config, connectionLimiter);
+        this.name = name;
+        this.dispatcher = dispatcher;
+        this.config = config;
+        this.connectionLimiter = connectionLimiter;
+        this.idleTimers = config.getIdleTimeoutMillis() > 0 ? new TimerWheel<>(
+            Math.max(1, config.getIdleTimeoutMillis() / IDLE_TIMER_SLOTS_COUNT), IDLE_TIMER_SLOTS_COUNT, now()) : null;
+        this.selector = Selector.open();
+        this.pendingChannels = new ConcurrentLinkedQueue<>();
+        this.pendingTasks = new ConcurrentLinkedQueue<>();
+        this.drained = new CompletableFuture<>();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void register(SocketChannel channel) {
+        NotNullChecker.check(channel);
+        pendingChannels.add(channel);
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        isWorking = true;
+        while (isWorking) {
+            try {
+                selector.select(idleTimers == null ? 0 : idleTimers.getTickMillis());
+                registerPendingChannels();
+                runPendingTasks();
+                handleSelectedKeys();
+                closeIdleConnections();
+                if (isDraining) {
+                    completeDrainIfIdle();
+                }
+            } catch (IOException e) {
+                System.out.println(name + ": error occurred while processing client request: " + e.getMessage());
+            }
+        }
+        closeAll();
+    }
+
+    public CompletableFuture<Void> drain() {
+        post(() -> {
+            isDraining = true;
+            for (SelectionKey key : selector.keys()) {
+                updateInterestOps(key);
+            }
+        });
+        return drained;
+    }
+
+    public void stop() {
+        isWorking = false;
+        selector.wakeup();
+    }
+
+    private void registerPendingChannels() {
+        SocketChannel channel;
+        while ((channel = pendingChannels.poll()) != null) {
+            try {
+                configureClientChannel(channel);
+                ClientSession session = new ClientSession(config.getBufferSize());
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ, session);
+                session.touch(now());
+                if (idleTimers != null) {
+                    idleTimers.schedule(key, now() + config.getIdleTimeoutMillis());
+                }
+            } catch (IOException e) {
+                System.out.println(name + ": could not register client connection: " + e.getMessage());
+                closeChannel(channel);
+            }
+        }
+    }
+
+    private void configureClientChannel(SocketChannel channel) throws IOException {
+        NotNullChecker.check(channel);
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, config.isTcpNoDelay());
+        if (config.getReceiveBufferSize() > 0) {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, config.getReceiveBufferSize());
+        }
+        if (config.getSendBufferSize() > 0) {
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, config.getSendBufferSize());
+        }
+    }
+
+    private void post(Runnable task) {
+        pendingTasks.add(task);
+        selector.wakeup();
+    }
+
+    private void completeDrainIfIdle() {
+        for (SelectionKey key : selector.keys()) {
+            if (!key.isValid()) {
+                continue;
+            }
+            ClientSession session = (ClientSession) key.attachment();
+            if (session.isExecuting() || session.getPendingCommandsCount() > 0 || session.hasPendingOutput()) {
+                return;
+            }
+        }
+        drained.complete(null);
+    }
+
+    private void closeIdleConnections() {
+        if (idleTimers == null) {
+            return;
+        }
+        long now = now();
+        for (SelectionKey key : idleTimers.advance(now)) {
+            if (!key.isValid()) {
+                continue;
+            }
+            ClientSession session = (ClientSession) key.attachment();
+            long idleDeadline = session.getLastActivityMillis() + config.getIdleTimeoutMillis();
+            if (session.isExecuting()) {
+                idleTimers.schedule(key, now + config.getIdleTimeoutMillis());
+            } else if (idleDeadline > now) {
+                idleTimers.schedule(key, idleDeadline);
+            } else {
+                closeClientChannel(key);
+            }
+        }
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    private void runPendingTasks() {
+        Runnable task;
+        while ((task = pendingTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void handleSelectedKeys() {
+        Iterator<SelectionKey> keyIterator = selector.selectedKeys().iterator();
+        while (keyIterator.hasNext()) {
+            SelectionKey key = keyIterator.next();
+            keyIterator.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            try {
+                if (key.isReadable()) {
+                    read(key);
+                }
+                if (key.isValid() && key.isWritable()) {
+                    write(key);
+                }
+            } catch (IOException e) {
+                System.out.println(name + ": closing client connection: " + e.getMessage());
+                closeClientChannel(key);
+            }
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        NotNullChecker.check(key);
+        SocketChannel clientChannel = (SocketChannel) key.channel();
+        ClientSession session = (ClientSession) key.attachment();
+        FrameDecoder decoder = session.getDecoder();
+
+        int readBytes = clientChannel.read(decoder.getBuffer());
+        if (readBytes < 0) {
+            closeClientChannel(key);
+            return;
+        }
+        session.touch(now());
+
+        try {
+            if (!session.isProtocolNegotiated() && !negotiateProtocol(session)) {
+                updateInterestOps(key);
+                return;
+            }
+            Frame clientInput;
+            while ((clientInput = decoder.nextFrame()) != null) {
+                session.addPendingCommand(clientInput);
+            }
+        } catch (InvalidFrameException e) {
+            System.out.println(name + ": closing client connection: " + e.getMessage());
+            closeClientChannel(key);
+            return;
+        }
+        dispatchNextCommand(key);
+        updateInterestOps(key);
+    }
+
+    private boolean negotiateProtocol(ClientSession session) throws InvalidFrameException {
+        NotNullChecker.check(session);
+        Protocol protocol = session.getDecoder().negotiateProtocol();
+        if (protocol == null) {
+            return false;
+        }
+        session.setProtocol(protocol);
+        if (protocol == Protocol.BINARY) {
+            session.enqueue(BinaryCodec.handshakeAcknowledgement());
+        }
+        return true;
+    }
+
+    private void dispatchNextCommand(SelectionKey key) {
+        NotNullChecker.check(key);
+        ClientSession session = (ClientSession) key.attachment();
+        Frame command = session.startNextCommand();
+        if (command != null) {
+            dispatcher.dispatch(command, session, reply -> post(() -> completeCommand(key, reply)));
+        }
+    }
+
+    private void completeCommand(SelectionKey key, Frame output) {
+        NotNullChecker.check(key, output);
+        if (!key.isValid()) {
+            return;
+        }
+        ClientSession session = (ClientSession) key.attachment();
+        session.finishCommand(output);
+        try {
+            write(key);
+        } catch (IOException e) {
+            System.out.println(name + ": closing client connection: " + e.getMessage());
+            closeClientChannel(key);
+            return;
+        }
+        dispatchNextCommand(key);
+        updateInterestOps(key);
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        NotNullChecker.check(key);
+        SocketChannel clientChannel = (SocketChannel) key.channel();
+        ClientSession session = (ClientSession) key.attachment();
+        long pendingOutputBytes = session.getPendingOutputBytes();
+        session.flush(clientChannel);
+        if (session.getPendingOutputBytes() < pendingOutputBytes) {
+            session.touch(now());
+        }
+        updateInterestOps(key);
+    }
+
+    private void updateInterestOps(SelectionKey key) {
+        NotNullChecker.check(key);
+        if (!key.isValid()) {
+            return;
+        }
+        ClientSession session = (ClientSession) key.attachment();
+        int interestOps = 0;
+        if (!isDraining && session.getPendingOutputBytes() <= config.getMaxPendingOutputBytes() &&
+            session.getPendingCommandsCount() < config.getMaxPendingCommands()) {
+            interestOps |= SelectionKey.OP_READ;
+        }
+        if (session.hasPendingOutput()) {
+            interestOps |= SelectionKey.OP_WRITE;
+        }
+        key.interestOps(interestOps);
+    }
+
+    private void closeClientChannel(SelectionKey key) {
+        NotNullChecker.check(key);
+        key.cancel();
+        closeChannel((SocketChannel) key.channel());
+    }
+
+    private void closeChannel(SocketChannel channel) {
+        connectionLimiter.release(channel);
+        closeQuietly(channel);
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            closeChannel((SocketChannel) key.channel());
+        }
+        SocketChannel channel;
+        while ((channel = pendingChannels.poll()) != null) {
+            closeChannel(channel);
+        }
+        closeQuietly(selector);
+    }
+
+    private void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            System.out.println(name + ": error occurred while closing: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.session;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.Frame;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.FrameCodec;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.FrameDecoder;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.Protocol;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+
+public class ClientSession {
+    private final FrameDecoder decoder;
+    private final Deque<ByteBuffer> outbound;
+    private final Queue<Frame> pendingCommands;
+    private long pendingOutputBytes;
+    private boolean isExecuting;
+    private long lastActivityMillis;
+    private Protocol protocol;
+    private volatile User user;
+
+    public ClientSession(int bufferSize) {
+        decoder = new FrameDecoder(bufferSize);
+        outbound = new ArrayDeque<>();
+        pendingCommands = new ArrayDeque<>();
+        pendingOutputBytes = 0;
+        isExecuting = false;
+    }
+
+    public FrameDecoder getDecoder() {
+        return decoder;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Protocol getProtocol() {
+        return protocol;
+    }
+
+    public void setProtocol(Protocol protocol) {
+        NotNullChecker.check(protocol);
+        this.protocol = protocol;
+    }
+
+    public boolean isProtocolNegotiated() {
+        return protocol != null;
+    }
+
+    public long getLastActivityMillis() {
+        return lastActivityMillis;
+    }
+
+    public void touch(long nowMillis) {
+        lastActivityMillis = nowMillis;
+    }
+
+    public boolean isLoggedIn() {
+        return user != null;
+    }
+
+    public void addPendingCommand(Frame command) {
+        NotNullChecker.check(command);
+        pendingCommands.add(command);
+    }
+
+    public int getPendingCommandsCount() {
+        return pendingCommands.size();
+    }
+
+    public Frame startNextCommand() {
+        if (isExecuting || pendingCommands.isEmpty()) {
+            return null;
+        }
+        isExecuting = true;
+        return pendingCommands.poll();
+    }
+
+    public void finishCommand(Frame output) {
+        NotNullChecker.check(output);
+        isExecuting = false;
+        enqueue(output);
+    }
+
+    public boolean isExecuting() {
+        return isExecuting;
+    }
+
+    public void enqueue(Frame message) {
+        NotNullChecker.check(message);
+        ByteBuffer frame = FrameCodec.encode(message);
+        pendingOutputBytes += frame.remaining();
+        outbound.addLast(frame);
+    }
+
+    public boolean hasPendingOutput() {
+        return !outbound.isEmpty();
+    }
+
+    public long getPendingOutputBytes() {
+        return pendingOutputBytes;
+    }
+
+    public boolean flush(WritableByteChannel channel) throws IOException {
+        NotNullChecker.check(channel);
+        while (!outbound.isEmpty()) {
+            ByteBuffer frame = outbound.peekFirst();
+            int writtenBytes = channel.write(frame);
+            pendingOutputBytes -= writtenBytes;
+            if (frame.hasRemaining()) {
+                return false;
+            }
+            outbound.pollFirst();
+        }
+        return true;
+    }
+}
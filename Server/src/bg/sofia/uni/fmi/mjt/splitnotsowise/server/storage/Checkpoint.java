@@ -0,0 +1,14 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.util.List;
+
+public record Checkpoint(long nextEpoch, List<LogRecord> state) {
+    public Checkpoint {
+        NotNullChecker.check(state);
+        if (nextEpoch < 0) {
+            throw new IllegalArgumentException("epoch must not be negative");
+        }
+    }
+}
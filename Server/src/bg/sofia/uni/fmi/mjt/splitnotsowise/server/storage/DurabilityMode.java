@@ -0,0 +1,35 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public enum DurabilityMode {
+    NONE("none"),
+    BATCH("batch"),
+    COMMIT("commit");
+
+    private static final Map<String, DurabilityMode> BY_NAME = Arrays.stream(values())
+        .collect(Collectors.toUnmodifiableMap(DurabilityMode::getName, Function.identity()));
+    private final String name;
+
+    DurabilityMode(String name) {
+        this.name = name;
+    }
+
+    public static DurabilityMode fromName(String name) {
+        NotNullChecker.check(name);
+        DurabilityMode mode = BY_NAME.get(name.trim());
+        if (mode == null) {
+            throw new IllegalArgumentException("unknown durability mode " + name);
+        }
+        return mode;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
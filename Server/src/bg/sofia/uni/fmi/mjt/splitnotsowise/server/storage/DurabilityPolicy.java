@@ -0,0 +1,20 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.util.concurrent.TimeUnit;
+
+public record DurabilityPolicy(DurabilityMode mode, long syncIntervalMillis) {
+    public static final DurabilityPolicy PER_COMMIT = new DurabilityPolicy(DurabilityMode.COMMIT, 0);
+
+    public DurabilityPolicy {
+        NotNullChecker.check(mode);
+        if (syncIntervalMillis < 0) {
+            throw new IllegalArgumentException("sync interval must not be negative");
+        }
+    }
+
+    public long syncIntervalNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+    }
+}
@@ -0,0 +1,115 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server.PROJECT_NAME;
+
+public class FlatFileStorageEngine implements StorageEngine {
+    public static final Path SNAPSHOT_FILE_PATH = Paths.get(PROJECT_NAME, "ledger.snapshot");
+    private final WriteAheadLog writeAheadLog;
+    private final Path snapshotFilePath;
+    private long firstEpoch;
+
+    public FlatFileStorageEngine(DurabilityPolicy durabilityPolicy) {
+        this(WriteAheadLog.getInstance(), SNAPSHOT_FILE_PATH, durabilityPolicy);
+    }
+
+    public FlatFileStorageEngine(WriteAheadLog writeAheadLog, Path snapshotFilePath) {
+        this(writeAheadLog, snapshotFilePath, DurabilityPolicy.PER_COMMIT);
+    }
+
+    public FlatFileStorageEngine(WriteAheadLog writeAheadLog, Path snapshotFilePath,
+                                 DurabilityPolicy durabilityPolicy) {
+        NotNullChecker.check(writeAheadLog, snapshotFilePath, durabilityPolicy);
+        this.writeAheadLog = writeAheadLog;
+        this.snapshotFilePath = snapshotFilePath;
+        writeAheadLog.setDurabilityPolicy(durabilityPolicy);
+    }
+
+    @Override
+    public List<LogRecord> loadCheckpoint() throws DataStorageException {
+        Checkpoint snapshot = SnapshotFile.read(snapshotFilePath);
+        if (snapshot == null) {
+            return null;
+        }
+        firstEpoch = snapshot.nextEpoch();
+        return snapshot.state();
+    }
+
+    @Override
+    public List<LogRecord> recover() throws DataStorageException {
+        return writeAheadLog.recover(firstEpoch);
+    }
+
+    @Override
+    public void beginMutation() {
+        writeAheadLog.beginMutation();
+    }
+
+    @Override
+    public void endMutation() {
+        writeAheadLog.endMutation();
+    }
+
+    @Override
+    public long append(LogRecord record) throws DataStorageException {
+        return writeAheadLog.append(record);
+    }
+
+    @Override
+    public void awaitDurable(long sequence) throws DataStorageException {
+        writeAheadLog.awaitDurable(sequence);
+    }
+
+    @Override
+    public void flush() throws DataStorageException {
+        writeAheadLog.flush();
+    }
+
+    @Override
+    public synchronized boolean checkpoint(StateSupplier stateSupplier) throws DataStorageException {
+        Checkpoint checkpoint = writeAheadLog.checkpoint(stateSupplier);
+        if (checkpoint == null) {
+            return false;
+        }
+        SnapshotFile.write(snapshotFilePath, checkpoint);
+        writeAheadLog.discardSegmentsBefore(checkpoint.nextEpoch());
+        return true;
+    }
+
+    @Override
+    public synchronized List<FrozenFile> freeze() throws DataStorageException {
+        List<FrozenFile> files = new ArrayList<>();
+        try {
+            if (Files.exists(snapshotFilePath)) {
+                files.add(FrozenFile.open(snapshotFilePath));
+            }
+            files.addAll(writeAheadLog.freeze());
+        } catch (IOException e) {
+            FrozenFile.closeAll(files);
+            throw new DataStorageException("an error occurred when opening " + snapshotFilePath, e);
+        } catch (DataStorageException e) {
+            FrozenFile.closeAll(files);
+            throw e;
+        }
+        return files;
+    }
+
+    @Override
+    public SyncStatistics getSyncStatistics() {
+        return writeAheadLog.getSyncStatistics();
+    }
+
+    @Override
+    public void close() throws DataStorageException {
+        writeAheadLog.close();
+    }
+}
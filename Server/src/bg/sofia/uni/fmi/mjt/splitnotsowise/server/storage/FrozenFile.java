@@ -0,0 +1,85 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class FrozenFile implements Closeable {
+    private final Path path;
+    private final FileChannel channel;
+    private final long size;
+
+    private FrozenFile(Path path, FileChannel channel, long size) {
+        this.path = path;
+        this.channel = channel;
+        this.size = size;
+    }
+
+    public static FrozenFile open(Path path) throws IOException {
+        NotNullChecker.check(path);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new FrozenFile(path, channel, channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static FrozenFile open(Path path, long size) throws IOException {
+        NotNullChecker.check(path);
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative");
+        }
+        return new FrozenFile(path, FileChannel.open(path, StandardOpenOption.READ), size);
+    }
+
+    public static void closeAll(List<FrozenFile> files) {
+        NotNullChecker.check(files);
+        for (FrozenFile file : files) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                System.out.println("an error occurred when closing " + file.getPath() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long transferTo(Path target) throws IOException {
+        NotNullChecker.check(target);
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        try (FileChannel targetChannel = FileChannel.open(target, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.WRITE)) {
+            long position = 0;
+            while (position < size) {
+                long transferred = channel.transferTo(position, size - position, targetChannel);
+                if (transferred <= 0) {
+                    throw new IOException(path + " was truncated while it was being copied");
+                }
+                position += transferred;
+            }
+            targetChannel.force(true);
+        }
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
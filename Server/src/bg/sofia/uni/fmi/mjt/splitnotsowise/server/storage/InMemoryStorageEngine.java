@@ -0,0 +1,74 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class InMemoryStorageEngine implements StorageEngine {
+    private final AtomicLong appendedSequence;
+    private final SyncStatistics syncStatistics;
+    private volatile boolean isClosed;
+
+    public InMemoryStorageEngine() {
+        appendedSequence = new AtomicLong();
+        syncStatistics = new SyncStatistics();
+    }
+
+    @Override
+    public List<LogRecord> loadCheckpoint() {
+        return null;
+    }
+
+    @Override
+    public List<LogRecord> recover() {
+        return List.of();
+    }
+
+    @Override
+    public void beginMutation() {
+    }
+
+    @Override
+    public void endMutation() {
+    }
+
+    @Override
+    public long append(LogRecord record) throws DataStorageException {
+        NotNullChecker.check(record);
+        if (isClosed) {
+            throw new DataStorageException("the storage engine is closed");
+        }
+        return appendedSequence.incrementAndGet();
+    }
+
+    @Override
+    public void awaitDurable(long sequence) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public boolean checkpoint(StateSupplier stateSupplier) {
+        NotNullChecker.check(stateSupplier);
+        return false;
+    }
+
+    @Override
+    public List<FrozenFile> freeze() throws DataStorageException {
+        throw new DataStorageException("the memory storage engine keeps no files to back up");
+    }
+
+    @Override
+    public SyncStatistics getSyncStatistics() {
+        return syncStatistics;
+    }
+
+    @Override
+    public void close() {
+        isClosed = true;
+    }
+}
@@ -0,0 +1,89 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class LogFile {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private LogFile() {
+    }
+
+    public static FileChannel open(Path path) throws IOException {
+        NotNullChecker.check(path);
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    public static void readRecords(FileChannel channel, Path path, List<LogRecord> records) throws IOException {
+        NotNullChecker.check(channel, path, records);
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE).flip();
+        int recoveredCount = 0;
+        long position = 0;
+        long size = channel.size();
+        while (position + LogRecord.HEADER_SIZE <= size) {
+            buffer = fill(channel, buffer, position, LogRecord.HEADER_SIZE);
+            int bodySize = buffer.getInt(buffer.position());
+            int checksum = buffer.getInt(buffer.position() + Integer.BYTES);
+            if (bodySize <= 0 || bodySize > LogRecord.MAX_BODY_SIZE ||
+                position + LogRecord.HEADER_SIZE + bodySize > size) {
+                break;
+            }
+            buffer = fill(channel, buffer, position, LogRecord.HEADER_SIZE + bodySize);
+            int bodyOffset = buffer.position() + LogRecord.HEADER_SIZE;
+            if (LogRecord.checksum(buffer, bodyOffset, bodySize) != checksum) {
+                break;
+            }
+            try {
+                records.add(LogRecord.decode(buffer.slice(bodyOffset, bodySize)));
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                break;
+            }
+            buffer.position(bodyOffset + bodySize);
+            position += LogRecord.HEADER_SIZE + bodySize;
+            recoveredCount++;
+        }
+        if (position < size) {
+            System.out.println("recovered " + recoveredCount + " records from " + path + ", discarding " +
+                (size - position) + " bytes of torn or corrupt records at offset " + position);
+            channel.truncate(position);
+            channel.force(true);
+        }
+        channel.position(position);
+    }
+
+    private static ByteBuffer fill(FileChannel channel, ByteBuffer buffer, long position, int length)
+        throws IOException {
+        if (buffer.remaining() >= length) {
+            return buffer;
+        }
+        ByteBuffer filled = buffer.capacity() < length ? ByteBuffer.allocate(length).put(buffer) : buffer.compact();
+        long readPosition = position + filled.position();
+        while (filled.position() < length) {
+            int read = channel.read(filled, readPosition);
+            if (read < 0) {
+                throw new EOFException("unexpected end of file at offset " + readPosition);
+            }
+            readPosition += read;
+        }
+        return filled.flip();
+    }
+
+    public static void writeFully(FileChannel channel, ByteBuffer... buffers) throws IOException {
+        NotNullChecker.check(channel, buffers);
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+}
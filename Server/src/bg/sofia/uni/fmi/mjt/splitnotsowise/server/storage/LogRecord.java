@@ -0,0 +1,76 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+public record LogRecord(RecordType type, List<String> fields) {
+    public static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    public static final int MAX_BODY_SIZE = 1024 * 1024;
+
+    public LogRecord(RecordType type, String... fields) {
+        this(type, List.of(fields));
+    }
+
+    public LogRecord {
+        NotNullChecker.check(type, fields);
+        fields = List.copyOf(fields);
+    }
+
+    public String field(int index) {
+        return fields.get(index);
+    }
+
+    public ByteBuffer encode() {
+        List<byte[]> encodedFields = new ArrayList<>(fields.size());
+        int bodySize = Byte.BYTES + Short.BYTES;
+        for (String field : fields) {
+            byte[] encodedField = field.getBytes(StandardCharsets.UTF_8);
+            encodedFields.add(encodedField);
+            bodySize += Integer.BYTES + encodedField.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bodySize);
+        buffer.putInt(bodySize);
+        buffer.putInt(0);
+        buffer.put((byte) type.getCode());
+        buffer.putShort((short) encodedFields.size());
+        for (byte[] encodedField : encodedFields) {
+            buffer.putInt(encodedField.length);
+            buffer.put(encodedField);
+        }
+        buffer.putInt(Integer.BYTES, checksum(buffer, HEADER_SIZE, bodySize));
+        buffer.flip();
+        return buffer;
+    }
+
+    public static LogRecord decode(ByteBuffer body) {
+        NotNullChecker.check(body);
+        RecordType type = RecordType.fromCode(body.get());
+        if (type == null) {
+            throw new IllegalArgumentException("unknown record type");
+        }
+        int fieldsCount = Short.toUnsignedInt(body.getShort());
+        List<String> fields = new ArrayList<>(fieldsCount);
+        for (int i = 0; i < fieldsCount; i++) {
+            int length = body.getInt();
+            if (length < 0 || length > body.remaining()) {
+                throw new IllegalArgumentException("field length " + length + " is out of bounds");
+            }
+            byte[] field = new byte[length];
+            body.get(field);
+            fields.add(new String(field, StandardCharsets.UTF_8));
+        }
+        return new LogRecord(type, fields);
+    }
+
+    public static int checksum(ByteBuffer buffer, int offset, int length) {
+        NotNullChecker.check(buffer);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
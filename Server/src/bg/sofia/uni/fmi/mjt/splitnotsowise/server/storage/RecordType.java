@@ -0,0 +1,34 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+public enum RecordType {
+    USER_REGISTERED(1),
+    FRIENDSHIP_ADDED(2),
+    GROUP_CREATED(3),
+    DEBT_ADDED(4),
+    PAYMENT_MADE(5),
+    NOTIFICATION_ADDED(6),
+    NOTIFICATIONS_READ(7),
+    DEBT_BALANCE(8),
+    PAYMENT_RECORDED(9);
+
+    private static final RecordType[] BY_CODE = new RecordType[values().length + 1];
+    private final int code;
+
+    static {
+        for (RecordType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    RecordType(int code) {
+        this.code = code;
+    }
+
+    public static RecordType fromCode(int code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+
+    public int getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,491 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.FileSynchronizer;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server.PROJECT_NAME;
+
+public class RunLogStorageEngine implements StorageEngine {
+    public static final Path RUNS_DIRECTORY = Paths.get(PROJECT_NAME, "runs");
+    public static final int DEFAULT_MAX_RUNS_COUNT = 8;
+    public static final long DEFAULT_MAX_ACTIVE_RUN_SIZE = 4 * 1024 * 1024;
+    private static final String RUN_FILE_NAME_FORMAT = "run-%d.dat";
+    private static final String BASE_FILE_NAME_FORMAT = "base-%d.dat";
+    private static final String ACTIVE_RUN_FILE_NAME_FORMAT = "run-%d.log";
+    private static final String BASE_TABLE_KIND = "base";
+    private static final Pattern TABLE_FILE_NAME_PATTERN = Pattern.compile("(run|base)-(\\d+)\\.dat");
+    private static final Pattern ACTIVE_RUN_FILE_NAME_PATTERN = Pattern.compile("run-(\\d+)\\.log");
+    private static final long NO_TABLE = -1;
+    private final Path directory;
+    private final int maxRunsCount;
+    private final long maxActiveRunSize;
+    private final DurabilityPolicy durabilityPolicy;
+    private final SyncStatistics syncStatistics;
+    private final ReentrantReadWriteLock mutationLock;
+    private final ReentrantLock flushLock;
+    private final Object pendingRecordsLock;
+    private final List<Long> runIds;
+    private NavigableMap<Long, LogRecord> pendingRecords;
+    private List<LogRecord> recoveredRecords;
+    private long appendedSequence;
+    private long writtenSequence;
+    private volatile long durableSequence;
+    private long baseId;
+    private long nextTableId;
+    private volatile long lastFlushTime;
+    private long activeRunId;
+    private FileChannel activeRun;
+    private List<LogRecord> activeRunRecords;
+    private boolean isLoaded;
+    private volatile boolean isClosed;
+
+    public RunLogStorageEngine(DurabilityPolicy durabilityPolicy) {
+        this(RUNS_DIRECTORY, DEFAULT_MAX_RUNS_COUNT, DEFAULT_MAX_ACTIVE_RUN_SIZE, durabilityPolicy);
+    }
+
+    public RunLogStorageEngine(Path directory, int maxRunsCount, long maxActiveRunSize) {
+        this(directory, maxRunsCount, maxActiveRunSize, DurabilityPolicy.PER_COMMIT);
+    }
+
+    public RunLogStorageEngine(Path directory, int maxRunsCount, long maxActiveRunSize,
+                               DurabilityPolicy durabilityPolicy) {
+        NotNullChecker.check(directory, durabilityPolicy);
+        if (maxRunsCount < 1) {
+            throw new IllegalArgumentException("max runs count must be positive");
+        }
+        if (maxActiveRunSize < 1) {
+            throw new IllegalArgumentException("max active run size must be positive");
+        }
+        this.directory = directory;
+        this.maxRunsCount = maxRunsCount;
+        this.maxActiveRunSize = maxActiveRunSize;
+        this.durabilityPolicy = durabilityPolicy;
+        syncStatistics = new SyncStatistics();
+        mutationLock = new ReentrantReadWriteLock();
+        flushLock = new ReentrantLock();
+        pendingRecordsLock = new Object();
+        runIds = new ArrayList<>();
+        pendingRecords = new TreeMap<>();
+        activeRunRecords = new ArrayList<>();
+        baseId = NO_TABLE;
+        activeRunId = NO_TABLE;
+        lastFlushTime = System.nanoTime();
+    }
+
+    @Override
+    public List<LogRecord> loadCheckpoint() throws DataStorageException {
+        flushLock.lock();
+        try {
+            ensureLoaded();
+            return baseId == NO_TABLE ? null : SnapshotFile.read(getBasePath(baseId)).state();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public List<LogRecord> recover() throws DataStorageException {
+        flushLock.lock();
+        try {
+            ensureLoaded();
+            List<LogRecord> records = recoveredRecords;
+            recoveredRecords = List.of();
+            return records;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void ensureLoaded() throws DataStorageException {
+        if (isLoaded) {
+            return;
+        }
+        List<Long> baseIds = new ArrayList<>();
+        List<Long> allRunIds = new ArrayList<>();
+        List<Long> activeRunIds = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    String fileName = file.getFileName().toString();
+                    Matcher matcher = TABLE_FILE_NAME_PATTERN.matcher(fileName);
+                    Matcher activeRunMatcher = ACTIVE_RUN_FILE_NAME_PATTERN.matcher(fileName);
+                    long tableId;
+                    if (matcher.matches()) {
+                        tableId = Long.parseLong(matcher.group(2));
+                        (matcher.group(1).equals(BASE_TABLE_KIND) ? baseIds : allRunIds).add(tableId);
+                    } else if (activeRunMatcher.matches()) {
+                        tableId = Long.parseLong(activeRunMatcher.group(1));
+                        activeRunIds.add(tableId);
+                    } else {
+                        continue;
+                    }
+                    nextTableId = Math.max(nextTableId, tableId + 1);
+                }
+            }
+            baseIds.sort(null);
+            allRunIds.sort(null);
+            activeRunIds.sort(null);
+            baseId = baseIds.isEmpty() ? NO_TABLE : baseIds.get(baseIds.size() - 1);
+            for (long obsoleteBaseId : baseIds.subList(0, Math.max(0, baseIds.size() - 1))) {
+                Files.delete(getBasePath(obsoleteBaseId));
+            }
+            recoveredRecords = readLiveRuns(allRunIds);
+            recoveredRecords.addAll(readActiveRuns(activeRunIds));
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when loading the tables in " + directory, e);
+        }
+        isLoaded = true;
+    }
+
+    private List<LogRecord> readLiveRuns(List<Long> allRunIds) throws IOException, DataStorageException {
+        List<Checkpoint> runs = new ArrayList<>();
+        long coveredFrom = Long.MAX_VALUE;
+        for (int i = allRunIds.size() - 1; i >= 0; i--) {
+            long runId = allRunIds.get(i);
+            if (runId <= baseId || runId >= coveredFrom) {
+                Files.delete(getRunPath(runId));
+                continue;
+            }
+            Checkpoint run = SnapshotFile.read(getRunPath(runId));
+            coveredFrom = Math.min(runId, run.nextEpoch());
+            runIds.add(0, runId);
+            runs.add(0, run);
+        }
+        List<LogRecord> records = new ArrayList<>();
+        for (Checkpoint run : runs) {
+            records.addAll(run.state());
+        }
+        return records;
+    }
+
+    private List<LogRecord> readActiveRuns(List<Long> activeRunIds) throws IOException, DataStorageException {
+        long lastTableId = Math.max(baseId, runIds.isEmpty() ? NO_TABLE : runIds.get(runIds.size() - 1));
+        List<LogRecord> records = new ArrayList<>();
+        for (long runId : activeRunIds) {
+            if (runId <= lastTableId) {
+                Files.delete(getActiveRunPath(runId));
+                continue;
+            }
+            if (activeRun != null) {
+                sealActiveRun();
+            }
+            activeRunId = runId;
+            activeRun = LogFile.open(getActiveRunPath(runId));
+            activeRunRecords = new ArrayList<>();
+            LogFile.readRecords(activeRun, getActiveRunPath(runId), activeRunRecords);
+            records.addAll(activeRunRecords);
+        }
+        return records;
+    }
+
+    @Override
+    public void beginMutation() {
+        mutationLock.readLock().lock();
+    }
+
+    @Override
+    public void endMutation() {
+        mutationLock.readLock().unlock();
+    }
+
+    @Override
+    public long append(LogRecord record) throws DataStorageException {
+        NotNullChecker.check(record);
+        if (isClosed) {
+            throw new DataStorageException("the storage engine is closed");
+        }
+        synchronized (pendingRecordsLock) {
+            pendingRecords.put(++appendedSequence, record);
+            return appendedSequence;
+        }
+    }
+
+    @Override
+    public void awaitDurable(long sequence) throws DataStorageException {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        boolean isSyncRequired = durabilityPolicy.mode() != DurabilityMode.NONE;
+        if (durabilityPolicy.mode() == DurabilityMode.BATCH) {
+            awaitSyncInterval();
+        }
+        flushLock.lock();
+        try {
+            if ((isSyncRequired ? durableSequence : writtenSequence) < sequence) {
+                flushPendingRecords(isSyncRequired);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void awaitSyncInterval() throws DataStorageException {
+        long remainingNanos = lastFlushTime + durabilityPolicy.syncIntervalNanos() - System.nanoTime();
+        if (remainingNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remainingNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataStorageException("interrupted while waiting for the pending records to be flushed", e);
+        }
+    }
+
+    @Override
+    public void flush() throws DataStorageException {
+        long sequence;
+        synchronized (pendingRecordsLock) {
+            sequence = appendedSequence;
+        }
+        awaitDurable(sequence);
+    }
+
+    private void flushPendingRecords(boolean isSynced) throws DataStorageException {
+        ensureLoaded();
+        NavigableMap<Long, LogRecord> flushedRecords;
+        synchronized (pendingRecordsLock) {
+            flushedRecords = pendingRecords;
+            if (!flushedRecords.isEmpty()) {
+                pendingRecords = new TreeMap<>();
+            }
+        }
+        if (!flushedRecords.isEmpty()) {
+            writeToActiveRun(flushedRecords);
+        }
+        if (isSynced && durableSequence < writtenSequence) {
+            syncActiveRun();
+        }
+        if (flushedRecords.isEmpty()) {
+            return;
+        }
+        if (getActiveRunSize() >= maxActiveRunSize) {
+            sealActiveRun();
+        }
+        if (runIds.size() > maxRunsCount) {
+            mergeRuns();
+        }
+    }
+
+    private void writeToActiveRun(NavigableMap<Long, LogRecord> flushedRecords) throws DataStorageException {
+        long activeRunSize = 0;
+        try {
+            if (activeRun == null) {
+                openActiveRun();
+            }
+            activeRunSize = activeRun.position();
+            LogFile.writeFully(activeRun, flushedRecords.values().stream()
+                .map(LogRecord::encode)
+                .toArray(ByteBuffer[]::new));
+        } catch (IOException e) {
+            synchronized (pendingRecordsLock) {
+                flushedRecords.putAll(pendingRecords);
+                pendingRecords = flushedRecords;
+            }
+            discardPartialWrite(activeRunSize, e);
+            throw new DataStorageException("an error occurred when appending to the active run in " + directory, e);
+        }
+        activeRunRecords.addAll(flushedRecords.values());
+        writtenSequence = flushedRecords.lastKey();
+    }
+
+    private void syncActiveRun() throws DataStorageException {
+        long syncStartTime = System.nanoTime();
+        try {
+            activeRun.force(false);
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when syncing the active run in " + directory, e);
+        }
+        lastFlushTime = System.nanoTime();
+        syncStatistics.record(lastFlushTime - syncStartTime);
+        durableSequence = writtenSequence;
+    }
+
+    private void openActiveRun() throws IOException {
+        activeRunId = nextTableId++;
+        activeRun = LogFile.open(getActiveRunPath(activeRunId));
+        activeRunRecords = new ArrayList<>();
+        FileSynchronizer.syncDirectory(directory);
+    }
+
+    private long getActiveRunSize() throws DataStorageException {
+        try {
+            return activeRun.position();
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when reading the active run size in " + directory, e);
+        }
+    }
+
+    private void discardPartialWrite(long activeRunSize, IOException cause) {
+        if (activeRun == null) {
+            return;
+        }
+        try {
+            activeRun.truncate(activeRunSize);
+            activeRun.position(activeRunSize);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void sealActiveRun() throws DataStorageException {
+        SnapshotFile.write(getRunPath(activeRunId), new Checkpoint(activeRunId, activeRunRecords));
+        durableSequence = Math.max(durableSequence, writtenSequence);
+        runIds.add(activeRunId);
+        closeActiveRun();
+    }
+
+    private void closeActiveRun() throws DataStorageException {
+        try {
+            activeRun.close();
+            Files.delete(getActiveRunPath(activeRunId));
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when removing the active run in " + directory, e);
+        }
+        activeRun = null;
+        activeRunId = NO_TABLE;
+        activeRunRecords = new ArrayList<>();
+    }
+
+    private void mergeRuns() throws DataStorageException {
+        List<LogRecord> records = new ArrayList<>();
+        for (long runId : runIds) {
+            records.addAll(SnapshotFile.read(getRunPath(runId)).state());
+        }
+        long firstRunId = runIds.get(0);
+        long lastRunId = runIds.get(runIds.size() - 1);
+        SnapshotFile.write(getRunPath(lastRunId), new Checkpoint(firstRunId, records));
+        deleteTables(runIds.subList(0, runIds.size() - 1), RUN_FILE_NAME_FORMAT);
+        runIds.clear();
+        runIds.add(lastRunId);
+    }
+
+    @Override
+    public boolean checkpoint(StateSupplier stateSupplier) throws DataStorageException {
+        NotNullChecker.check(stateSupplier);
+        mutationLock.writeLock().lock();
+        flushLock.lock();
+        try {
+            if (isClosed) {
+                throw new DataStorageException("the storage engine is closed");
+            }
+            flushPendingRecords(true);
+            if (runIds.isEmpty() && activeRun == null) {
+                return false;
+            }
+            long newBaseId = nextTableId++;
+            SnapshotFile.write(getBasePath(newBaseId), new Checkpoint(newBaseId, stateSupplier.get()));
+            deleteTables(runIds, RUN_FILE_NAME_FORMAT);
+            if (activeRun != null) {
+                closeActiveRun();
+            }
+            if (baseId != NO_TABLE) {
+                deleteTables(List.of(baseId), BASE_FILE_NAME_FORMAT);
+            }
+            runIds.clear();
+            baseId = newBaseId;
+            return true;
+        } finally {
+            flushLock.unlock();
+            mutationLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<FrozenFile> freeze() throws DataStorageException {
+        mutationLock.writeLock().lock();
+        flushLock.lock();
+        List<FrozenFile> files = new ArrayList<>();
+        try {
+            if (isClosed) {
+                throw new DataStorageException("the storage engine is closed");
+            }
+            flushPendingRecords(true);
+            if (baseId != NO_TABLE) {
+                files.add(FrozenFile.open(getBasePath(baseId)));
+            }
+            for (long runId : runIds) {
+                files.add(FrozenFile.open(getRunPath(runId)));
+            }
+            if (activeRun != null) {
+                files.add(FrozenFile.open(getActiveRunPath(activeRunId), activeRun.position()));
+            }
+            return files;
+        } catch (IOException e) {
+            FrozenFile.closeAll(files);
+            throw new DataStorageException("an error occurred when opening the tables in " + directory, e);
+        } catch (DataStorageException e) {
+            FrozenFile.closeAll(files);
+            throw e;
+        } finally {
+            flushLock.unlock();
+            mutationLock.writeLock().unlock();
+        }
+    }
+
+    private void deleteTables(List<Long> tableIds, String fileNameFormat) throws DataStorageException {
+        try {
+            for (long tableId : tableIds) {
+                Files.deleteIfExists(directory.resolve(String.format(fileNameFormat, tableId)));
+            }
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when deleting compacted tables in " + directory, e);
+        }
+    }
+
+    @Override
+    public SyncStatistics getSyncStatistics() {
+        return syncStatistics;
+    }
+
+    @Override
+    public void close() throws DataStorageException {
+        flushLock.lock();
+        try {
+            if (isClosed) {
+                return;
+            }
+            isClosed = true;
+            flushPendingRecords(true);
+            if (activeRun != null) {
+                activeRun.close();
+                activeRun = null;
+            }
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when closing the active run in " + directory, e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private Path getRunPath(long runId) {
+        return directory.resolve(String.format(RUN_FILE_NAME_FORMAT, runId));
+    }
+
+    private Path getActiveRunPath(long runId) {
+        return directory.resolve(String.format(ACTIVE_RUN_FILE_NAME_FORMAT, runId));
+    }
+
+    private Path getBasePath(long tableId) {
+        return directory.resolve(String.format(BASE_FILE_NAME_FORMAT, tableId));
+    }
+}
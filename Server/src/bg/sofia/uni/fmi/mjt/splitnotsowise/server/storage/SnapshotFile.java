@@ -0,0 +1,112 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.FileSynchronizer;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SnapshotFile {
+    private static final int MAGIC = 0x534E5031;
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int WRITE_BATCH_SIZE = 1024;
+    private static final String TEMPORARY_FILE_POSTFIX = ".tmp";
+
+    private SnapshotFile() {
+    }
+
+    public static void write(Path path, Checkpoint checkpoint) throws DataStorageException {
+        write(path, checkpoint, true);
+    }
+
+    public static void write(Path path, Checkpoint checkpoint, boolean sync) throws DataStorageException {
+        NotNullChecker.check(path, checkpoint);
+        Path temporaryPath = path.resolveSibling(path.getFileName() + TEMPORARY_FILE_POSTFIX);
+        try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putLong(checkpoint.nextEpoch())
+                .putInt(checkpoint.state().size())
+                .flip();
+            LogFile.writeFully(channel, header);
+
+            List<LogRecord> state = checkpoint.state();
+            for (int from = 0; from < state.size(); from += WRITE_BATCH_SIZE) {
+                List<LogRecord> batch = state.subList(from, Math.min(from + WRITE_BATCH_SIZE, state.size()));
+                LogFile.writeFully(channel, batch.stream().map(LogRecord::encode).toArray(ByteBuffer[]::new));
+            }
+            if (sync) {
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when writing the snapshot file " + path, e);
+        }
+
+        try {
+            Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when replacing the snapshot file " + path, e);
+        }
+        if (sync) {
+            FileSynchronizer.syncDirectory(path.toAbsolutePath().getParent());
+        }
+    }
+
+    public static Checkpoint read(Path path) throws DataStorageException {
+        NotNullChecker.check(path);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new DataStorageException("the snapshot file " + path + " has an unknown format");
+            }
+            long nextEpoch = in.readLong();
+            int recordsCount = in.readInt();
+            if (nextEpoch < 0 || recordsCount < 0) {
+                throw new DataStorageException("the snapshot file " + path + " has an invalid header");
+            }
+            List<LogRecord> state = new ArrayList<>(recordsCount);
+            for (int i = 0; i < recordsCount; i++) {
+                state.add(readRecord(in, path));
+            }
+            return new Checkpoint(nextEpoch, state);
+        } catch (EOFException e) {
+            throw new DataStorageException("the snapshot file " + path + " is incomplete", e);
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when reading the snapshot file " + path, e);
+        }
+    }
+
+    private static LogRecord readRecord(DataInputStream in, Path path) throws IOException, DataStorageException {
+        int bodySize = in.readInt();
+        int checksum = in.readInt();
+        if (bodySize <= 0 || bodySize > LogRecord.MAX_BODY_SIZE) {
+            throw new DataStorageException("the snapshot file " + path + " contains a record of invalid size");
+        }
+        byte[] body = new byte[bodySize];
+        in.readFully(body);
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        if (LogRecord.checksum(buffer, 0, bodySize) != checksum) {
+            throw new DataStorageException("the snapshot file " + path + " contains a corrupted record");
+        }
+        try {
+            return LogRecord.decode(buffer);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new DataStorageException("the snapshot file " + path + " contains an unreadable record", e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface StateSupplier {
+    List<LogRecord> get() throws DataStorageException;
+}
@@ -0,0 +1,29 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+
+import java.util.List;
+
+public interface StorageEngine {
+    List<LogRecord> loadCheckpoint() throws DataStorageException;
+
+    List<LogRecord> recover() throws DataStorageException;
+
+    void beginMutation();
+
+    void endMutation();
+
+    long append(LogRecord record) throws DataStorageException;
+
+    void awaitDurable(long sequence) throws DataStorageException;
+
+    void flush() throws DataStorageException;
+
+    boolean checkpoint(StateSupplier stateSupplier) throws DataStorageException;
+
+    List<FrozenFile> freeze() throws DataStorageException;
+
+    SyncStatistics getSyncStatistics();
+
+    void close() throws DataStorageException;
+}
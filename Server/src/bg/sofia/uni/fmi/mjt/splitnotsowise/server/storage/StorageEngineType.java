@@ -0,0 +1,42 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public enum StorageEngineType {
+    MEMORY("memory", durabilityPolicy -> new InMemoryStorageEngine()),
+    FLAT_FILE("flat-file", FlatFileStorageEngine::new),
+    RUN_LOG("run-log", RunLogStorageEngine::new);
+
+    private static final Map<String, StorageEngineType> BY_NAME = Arrays.stream(values())
+        .collect(Collectors.toUnmodifiableMap(StorageEngineType::getName, Function.identity()));
+    private final String name;
+    private final Function<DurabilityPolicy, StorageEngine> factory;
+
+    StorageEngineType(String name, Function<DurabilityPolicy, StorageEngine> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    public static StorageEngineType fromName(String name) {
+        NotNullChecker.check(name);
+        StorageEngineType type = BY_NAME.get(name.trim());
+        if (type == null) {
+            throw new IllegalArgumentException("unknown storage engine " + name);
+        }
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public StorageEngine create(DurabilityPolicy durabilityPolicy) {
+        NotNullChecker.check(durabilityPolicy);
+        return factory.apply(durabilityPolicy);
+    }
+}
@@ -0,0 +1,26 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+
+public class StorageEngines {
+    private static StorageEngine instance;
+
+    private StorageEngines() {
+    }
+
+    public static synchronized void resetInstance() {
+        instance = StorageEngineType.FLAT_FILE.create(DurabilityPolicy.PER_COMMIT);
+    }
+
+    public static synchronized void setInstance(StorageEngine storageEngine) {
+        NotNullChecker.check(storageEngine);
+        instance = storageEngine;
+    }
+
+    public static synchronized StorageEngine getInstance() {
+        if (instance == null) {
+            instance = StorageEngineType.FLAT_FILE.create(DurabilityPolicy.PER_COMMIT);
+        }
+        return instance;
+    }
+}
@@ -0,0 +1,33 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import java.util.concurrent.TimeUnit;
+
+public class SyncStatistics {
+    private long syncsCount;
+    private long totalSyncNanos;
+    private long maxSyncNanos;
+
+    public synchronized void record(long syncNanos) {
+        syncsCount++;
+        totalSyncNanos += syncNanos;
+        maxSyncNanos = Math.max(maxSyncNanos, syncNanos);
+    }
+
+    public synchronized long getSyncsCount() {
+        return syncsCount;
+    }
+
+    public synchronized long getAverageSyncMicros() {
+        return syncsCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalSyncNanos / syncsCount);
+    }
+
+    public synchronized long getMaxSyncMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxSyncNanos);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "synced " + syncsCount + " times, average " + getAverageSyncMicros() + " us, " +
+            "max " + getMaxSyncMicros() + " us";
+    }
+}
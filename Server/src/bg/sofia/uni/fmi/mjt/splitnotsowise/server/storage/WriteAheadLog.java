@@ -0,0 +1,458 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.checker.NotNullChecker;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.FileSynchronizer;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server.PROJECT_NAME;
+
+public class WriteAheadLog {
+    public static final Path LOG_DIRECTORY = Paths.get(PROJECT_NAME);
+    private static final String SEGMENT_FILE_NAME_FORMAT = "ledger-%d.wal";
+    private static final Pattern SEGMENT_FILE_NAME_PATTERN = Pattern.compile("ledger-(\\d+)\\.wal");
+    private static Path logDirectory;
+    private static WriteAheadLog instance;
+    private final ReentrantReadWriteLock mutationLock;
+    private final ReentrantLock lock;
+    private final Condition hasPendingWrites;
+    private final Condition hasCompletedWrites;
+    private final SyncStatistics syncStatistics;
+    private DurabilityPolicy durabilityPolicy;
+    private List<ByteBuffer> pendingWrites;
+    private long appendedSequence;
+    private long writtenSequence;
+    private long durableSequence;
+    private long syncRequestedSequence;
+    private long lastSyncTime;
+    private long commitsCount;
+    private long epoch;
+    private long segmentRecordsCount;
+    private IOException failure;
+    private FileChannel channel;
+    private Thread writer;
+    private boolean isClosed;
+
+    private WriteAheadLog() {
+        mutationLock = new ReentrantReadWriteLock();
+        lock = new ReentrantLock();
+        hasPendingWrites = lock.newCondition();
+        hasCompletedWrites = lock.newCondition();
+        pendingWrites = new ArrayList<>();
+        syncStatistics = new SyncStatistics();
+        durabilityPolicy = DurabilityPolicy.PER_COMMIT;
+    }
+
+    public static void resetInstance() {
+        instance = new WriteAheadLog();
+    }
+
+    public static void setInstance(WriteAheadLog writeAheadLog) {
+        NotNullChecker.check(writeAheadLog);
+        instance = writeAheadLog;
+    }
+
+    public static synchronized WriteAheadLog getInstance() {
+        if (instance == null) {
+            instance = new WriteAheadLog();
+        }
+        return instance;
+    }
+
+    public static void setLogDirectory(Path path) {
+        NotNullChecker.check(path);
+        logDirectory = path;
+    }
+
+    public static void resetLogDirectory() {
+        logDirectory = LOG_DIRECTORY;
+    }
+
+    public void setDurabilityPolicy(DurabilityPolicy durabilityPolicy) {
+        NotNullChecker.check(durabilityPolicy);
+        lock.lock();
+        try {
+            this.durabilityPolicy = durabilityPolicy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Path getLogDirectory() {
+        if (logDirectory == null) {
+            logDirectory = LOG_DIRECTORY;
+        }
+        return logDirectory;
+    }
+
+    private static Path getSegmentPath(long segmentEpoch) {
+        return getLogDirectory().resolve(String.format(SEGMENT_FILE_NAME_FORMAT, segmentEpoch));
+    }
+
+    private static List<Long> listSegmentEpochs() throws IOException {
+        Path directory = getLogDirectory();
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .map(file -> SEGMENT_FILE_NAME_PATTERN.matcher(file.getFileName().toString()))
+                .filter(Matcher::matches)
+                .map(matcher -> Long.parseLong(matcher.group(1)))
+                .sorted()
+                .toList();
+        }
+    }
+
+    public List<LogRecord> recover(long firstEpoch) throws DataStorageException {
+        lock.lock();
+        try {
+            if (channel != null) {
+                throw new IllegalStateException("the log is already open");
+            }
+            return open(firstEpoch);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<LogRecord> open(long firstEpoch) throws DataStorageException {
+        discardSegmentsBefore(firstEpoch);
+        List<LogRecord> records = new ArrayList<>();
+        try {
+            for (long segmentEpoch : listSegmentEpochs()) {
+                if (channel != null) {
+                    channel.close();
+                }
+                Path segmentPath = getSegmentPath(segmentEpoch);
+                channel = LogFile.open(segmentPath);
+                int recordsCountBefore = records.size();
+                LogFile.readRecords(channel, segmentPath, records);
+                epoch = segmentEpoch;
+                segmentRecordsCount = records.size() - recordsCountBefore;
+            }
+            if (channel == null) {
+                epoch = firstEpoch;
+                segmentRecordsCount = 0;
+                channel = LogFile.open(getSegmentPath(epoch));
+                FileSynchronizer.syncDirectory(getLogDirectory());
+            }
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when opening the log in " + getLogDirectory(), e);
+        }
+        lastSyncTime = System.nanoTime();
+        writer = new Thread(this::writeLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        return records;
+    }
+
+    public void beginMutation() {
+        mutationLock.readLock().lock();
+    }
+
+    public void endMutation() {
+        mutationLock.readLock().unlock();
+    }
+
+    public long append(LogRecord record) throws DataStorageException {
+        NotNullChecker.check(record);
+        ByteBuffer encodedRecord = record.encode();
+        lock.lock();
+        try {
+            checkWritable();
+            if (channel == null) {
+                throw new DataStorageException("the log is not opened, recover it before appending");
+            }
+            pendingWrites.add(encodedRecord);
+            segmentRecordsCount++;
+            hasPendingWrites.signal();
+            return ++appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void awaitDurable(long sequence) throws DataStorageException {
+        lock.lock();
+        try {
+            awaitCompletedWrites(sequence, durabilityPolicy.mode() != DurabilityMode.NONE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void sync() throws DataStorageException {
+        lock.lock();
+        try {
+            long sequence = appendedSequence;
+            syncRequestedSequence = Math.max(syncRequestedSequence, sequence);
+            hasPendingWrites.signal();
+            awaitCompletedWrites(sequence, true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitCompletedWrites(long sequence, boolean isSyncRequired) throws DataStorageException {
+        try {
+            while (getCompletedSequence(isSyncRequired) < sequence && failure == null && writer != null
+                && writer.isAlive()) {
+                hasCompletedWrites.await();
+            }
+            if (getCompletedSequence(isSyncRequired) < sequence) {
+                throw new DataStorageException("the log could not persist the record", failure);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataStorageException("interrupted while waiting for the log to persist the record", e);
+        }
+    }
+
+    private long getCompletedSequence(boolean isSyncRequired) {
+        return isSyncRequired ? durableSequence : writtenSequence;
+    }
+
+    public void flush() throws DataStorageException {
+        long sequence;
+        lock.lock();
+        try {
+            sequence = appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(sequence);
+    }
+
+    public Checkpoint checkpoint(StateSupplier stateSupplier) throws DataStorageException {
+        NotNullChecker.check(stateSupplier);
+        mutationLock.writeLock().lock();
+        try {
+            lock.lock();
+            try {
+                awaitPendingWrites();
+                checkWritable();
+                if (channel == null || segmentRecordsCount == 0) {
+                    return null;
+                }
+                FileChannel nextChannel = LogFile.open(getSegmentPath(epoch + 1));
+                channel.close();
+                channel = nextChannel;
+                epoch++;
+                segmentRecordsCount = 0;
+            } catch (IOException e) {
+                throw new DataStorageException("an error occurred when starting a new log segment", e);
+            } finally {
+                lock.unlock();
+            }
+            FileSynchronizer.syncDirectory(getLogDirectory());
+            return new Checkpoint(epoch, stateSupplier.get());
+        } finally {
+            mutationLock.writeLock().unlock();
+        }
+    }
+
+    public List<FrozenFile> freeze() throws DataStorageException {
+        mutationLock.writeLock().lock();
+        lock.lock();
+        List<FrozenFile> files = new ArrayList<>();
+        try {
+            awaitPendingWrites();
+            checkWritable();
+            for (long segmentEpoch : listSegmentEpochs()) {
+                Path segmentPath = getSegmentPath(segmentEpoch);
+                files.add(segmentEpoch == epoch && channel != null ?
+                    FrozenFile.open(segmentPath, channel.size()) : FrozenFile.open(segmentPath));
+            }
+            return files;
+        } catch (IOException e) {
+            FrozenFile.closeAll(files);
+            throw new DataStorageException("an error occurred when opening the log segments in " + getLogDirectory(), e);
+        } catch (DataStorageException e) {
+            FrozenFile.closeAll(files);
+            throw e;
+        } finally {
+            lock.unlock();
+            mutationLock.writeLock().unlock();
+        }
+    }
+
+    private void awaitPendingWrites() throws DataStorageException {
+        while (!pendingWrites.isEmpty() || durableSequence < appendedSequence) {
+            lock.unlock();
+            try {
+                sync();
+            } finally {
+                lock.lock();
+            }
+        }
+    }
+
+    public void discardSegmentsBefore(long firstEpoch) throws DataStorageException {
+        try {
+            for (long segmentEpoch : listSegmentEpochs()) {
+                if (segmentEpoch < firstEpoch) {
+                    Files.delete(getSegmentPath(segmentEpoch));
+                }
+            }
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when deleting compacted log segments", e);
+        }
+    }
+
+    public SyncStatistics getSyncStatistics() {
+        return syncStatistics;
+    }
+
+    public long getCommitsCount() {
+        lock.lock();
+        try {
+            return commitsCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() throws DataStorageException {
+        Thread currentWriter;
+        lock.lock();
+        try {
+            isClosed = true;
+            hasPendingWrites.signal();
+            currentWriter = writer;
+        } finally {
+            lock.unlock();
+        }
+        if (currentWriter == null || !channel.isOpen()) {
+            return;
+        }
+        try {
+            currentWriter.join();
+            channel.force(true);
+            channel.close();
+            lock.lock();
+            try {
+                durableSequence = writtenSequence;
+                hasCompletedWrites.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataStorageException("interrupted while closing the log", e);
+        } catch (IOException e) {
+            throw new DataStorageException("an error occurred when closing the log", e);
+        }
+    }
+
+    private void checkWritable() throws DataStorageException {
+        if (isClosed) {
+            throw new DataStorageException("the log is closed");
+        }
+        if (failure != null) {
+            throw new DataStorageException("the log stopped accepting records after a write failure", failure);
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            List<ByteBuffer> batch;
+            long batchSequence;
+            FileChannel target;
+            boolean isSyncDue;
+            lock.lock();
+            try {
+                awaitWork();
+                if (pendingWrites.isEmpty() && isClosed) {
+                    return;
+                }
+                batch = pendingWrites;
+                batchSequence = appendedSequence;
+                target = channel;
+                pendingWrites = new ArrayList<>();
+                isSyncDue = isSyncDue();
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            long syncNanos = 0;
+            try {
+                LogFile.writeFully(target, batch.toArray(ByteBuffer[]::new));
+                if (isSyncDue) {
+                    long syncStartTime = System.nanoTime();
+                    target.force(false);
+                    syncNanos = System.nanoTime() - syncStartTime;
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    writtenSequence = batchSequence;
+                    if (!batch.isEmpty()) {
+                        commitsCount++;
+                    }
+                    if (isSyncDue) {
+                        durableSequence = batchSequence;
+                        lastSyncTime = System.nanoTime();
+                        syncStatistics.record(syncNanos);
+                    }
+                }
+                hasCompletedWrites.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void awaitWork() {
+        while (pendingWrites.isEmpty() && !isClosed && syncRequestedSequence <= durableSequence) {
+            if (durabilityPolicy.mode() != DurabilityMode.BATCH || writtenSequence == durableSequence) {
+                hasPendingWrites.awaitUninterruptibly();
+                continue;
+            }
+            long remainingNanos = lastSyncTime + durabilityPolicy.syncIntervalNanos() - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return;
+            }
+            try {
+                hasPendingWrites.awaitNanos(remainingNanos);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private boolean isSyncDue() {
+        if (syncRequestedSequence > durableSequence) {
+            return true;
+        }
+        return switch (durabilityPolicy.mode()) {
+            case NONE -> false;
+            case BATCH -> System.nanoTime() - lastSyncTime >= durabilityPolicy.syncIntervalNanos();
+            case COMMIT -> true;
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IntHashSetTest {
+
+    @Test
+    public void testAddAndContains() {
+        IntHashSet set = new IntHashSet();
+
+        assertTrue(set.add(5));
+        assertFalse(set.add(5));
+        assertTrue(set.contains(5));
+        assertFalse(set.contains(6));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    public void testMatchesHashSetUnderRandomOperations() {
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            int element = random.nextInt(1_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(element), set.add(element));
+            } else {
+                assertEquals(expected.remove(element), set.remove(element));
+            }
+        }
+
+        Set<Integer> actual = new HashSet<>();
+        set.forEach(actual::add);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testNegativeElement() {
+        IntHashSet set = new IntHashSet();
+
+        assertThrows(IllegalArgumentException.class, () -> set.contains(-1));
+    }
+}
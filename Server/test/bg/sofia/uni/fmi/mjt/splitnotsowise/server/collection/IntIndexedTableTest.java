@@ -0,0 +1,76 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class IntIndexedTableTest {
+
+    @Test
+    public void testComputeIfAbsentCreatesOnce() {
+        IntIndexedTable<StringBuilder> table = new IntIndexedTable<>();
+
+        StringBuilder first = table.computeIfAbsent(3, index -> new StringBuilder("value" + index));
+        StringBuilder second = table.computeIfAbsent(3, index -> new StringBuilder());
+
+        assertSame(first, second);
+        assertEquals("value3", table.get(3).toString());
+        assertNull(table.get(4));
+    }
+
+    @Test
+    public void testGrowsBeyondInitialCapacity() {
+        IntIndexedTable<String> table = new IntIndexedTable<>();
+        table.computeIfAbsent(1, index -> "a");
+        table.computeIfAbsent(10_000, index -> "b");
+
+        Map<Integer, String> entries = new HashMap<>();
+        table.forEach(entries::put);
+
+        assertEquals(Map.of(1, "a", 10_000, "b"), entries);
+        assertNull(table.get(20_000));
+    }
+
+    @Test
+    public void testComputeReplacesValue() {
+        IntIndexedTable<String> table = new IntIndexedTable<>();
+
+        assertEquals("a", table.compute(5, value -> value == null ? "a" : value + "b"));
+        assertEquals("ab", table.compute(5, value -> value == null ? "a" : value + "b"));
+        assertNull(table.compute(5, value -> null));
+        assertNull(table.get(5));
+    }
+
+    @Test
+    public void testConcurrentComputeLosesNoUpdates() throws Exception {
+        final int threadsCount = 8;
+        final int updatesPerThread = 1000;
+        IntIndexedTable<Integer> table = new IntIndexedTable<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < threadsCount; i++) {
+            results.add(executor.submit(() -> {
+                for (int j = 0; j < updatesPerThread; j++) {
+                    table.compute(j % 3 * 5000, value -> value == null ? 1 : value + 1);
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        int total = table.get(0) + table.get(5000) + table.get(10_000);
+        assertEquals(threadsCount * updatesPerThread, total);
+    }
+}
@@ -0,0 +1,80 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PersistentIntLongMapTest {
+
+    @Test
+    public void testWithAndGet() {
+        PersistentIntLongMap map = PersistentIntLongMap.EMPTY
+            .with(1, 100L)
+            .with(33, 200L)
+            .with(1, 150L);
+
+        assertEquals(2, map.size());
+        assertEquals(150L, map.get(1, 0));
+        assertEquals(200L, map.get(33, 0));
+        assertEquals(-1L, map.get(65, -1));
+        assertTrue(map.containsKey(33));
+        assertFalse(map.containsKey(65));
+    }
+
+    @Test
+    public void testWithout() {
+        PersistentIntLongMap map = PersistentIntLongMap.EMPTY.with(1, 100L);
+
+        assertTrue(map.without(1).isEmpty());
+        assertSame(map, map.without(2));
+    }
+
+    @Test
+    public void testOlderVersionsAreUnchanged() {
+        PersistentIntLongMap first = PersistentIntLongMap.EMPTY.with(1, 100L).with(33, 200L);
+        PersistentIntLongMap second = first.with(1, 300L).without(33);
+
+        assertEquals(100L, first.get(1, 0));
+        assertEquals(200L, first.get(33, 0));
+        assertEquals(2, first.size());
+        assertEquals(300L, second.get(1, 0));
+        assertFalse(second.containsKey(33));
+        assertEquals(1, second.size());
+    }
+
+    @Test
+    public void testMatchesHashMapUnderRandomOperations() {
+        PersistentIntLongMap map = PersistentIntLongMap.EMPTY;
+        Map<Integer, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextBoolean() ? random.nextInt(2_000) : random.nextInt(Integer.MAX_VALUE);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.without(key);
+            } else {
+                long value = random.nextLong();
+                expected.put(key, value);
+                map = map.with(key, value);
+            }
+        }
+
+        Map<Integer, Long> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), map.size());
+    }
+
+    @Test
+    public void testNegativeKey() {
+        assertThrows(IllegalArgumentException.class, () -> PersistentIntLongMap.EMPTY.with(-1, 1L));
+    }
+}
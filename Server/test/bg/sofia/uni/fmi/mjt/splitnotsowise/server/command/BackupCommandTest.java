@@ -0,0 +1,71 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.Backup;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.BackupManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BackupCommandTest {
+    private Server server;
+    private BackupManager backupManager;
+
+    @BeforeEach
+    public void setUp() {
+        server = mock();
+        backupManager = mock();
+    }
+
+    @Test
+    public void testExecuteSuccess() throws DataStorageException {
+        when(server.isAdmin("admin")).thenReturn(true);
+        when(backupManager.backup()).thenReturn(new Backup(Path.of("backups", "backup-1"), 3, 1024));
+        BackupCommand backupCommand = new BackupCommand(true, "admin", server, backupManager);
+
+        backupCommand.execute();
+
+        assertEquals("backed up 3 files (1024 bytes) to " + Path.of("backups", "backup-1"),
+            backupCommand.getMessage());
+    }
+
+    @Test
+    public void testExecuteFailure() throws DataStorageException {
+        when(server.isAdmin("admin")).thenReturn(true);
+        when(backupManager.backup()).thenThrow(new DataStorageException("disk is full"));
+        BackupCommand backupCommand = new BackupCommand(true, "admin", server, backupManager);
+
+        backupCommand.execute();
+
+        assertEquals("the backup failed: disk is full", backupCommand.getMessage());
+    }
+
+    @Test
+    public void testExecuteNotAdmin() throws DataStorageException {
+        when(server.isAdmin("user1")).thenReturn(false);
+        BackupCommand backupCommand = new BackupCommand(true, "user1", server, backupManager);
+
+        backupCommand.execute();
+
+        assertEquals("only administrators can back up the server", backupCommand.getMessage());
+        verify(backupManager, never()).backup();
+    }
+
+    @Test
+    public void testExecuteNotLoggedIn() throws DataStorageException {
+        BackupCommand backupCommand = new BackupCommand(false, null, server, backupManager);
+
+        backupCommand.execute();
+
+        assertEquals("can't back up the server when not logged in", backupCommand.getMessage());
+        verify(backupManager, never()).backup();
+    }
+}
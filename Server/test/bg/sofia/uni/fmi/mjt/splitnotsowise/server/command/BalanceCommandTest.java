@@ -0,0 +1,92 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.DebtManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserBalance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BalanceCommandTest {
+    private Server server;
+    private DebtManager debtManager;
+
+    @BeforeEach
+    public void setUp() {
+        server = mock();
+        debtManager = mock();
+    }
+
+    @Test
+    public void testExecuteNoMoneyRelations() {
+        when(debtManager.getBalance("user1")).thenReturn(new UserBalance("user1", 0L, 0L));
+        BalanceCommand balanceCommand = new BalanceCommand(true, "user1", server, debtManager);
+
+        balanceCommand.execute();
+
+        assertEquals("you don't have any money relations", balanceCommand.getMessage());
+    }
+
+    @Test
+    public void testExecuteBalance() {
+        when(debtManager.getBalance("user1")).thenReturn(new UserBalance("user1", 500L, 1250L));
+        BalanceCommand balanceCommand = new BalanceCommand(true, "user1", server, debtManager);
+
+        balanceCommand.execute();
+
+        assertEquals("* you are owed 5.00 lv" + System.lineSeparator() + "* you owe 12.50 lv" +
+            System.lineSeparator() + "* net balance -7.50 lv", balanceCommand.getMessage());
+    }
+
+    @Test
+    public void testExecuteLeaderboard() {
+        when(server.isAdmin("admin")).thenReturn(true);
+        when(debtManager.getTopBalances(2)).thenReturn(List.of(new UserBalance("user1", 1000L, 0L),
+            new UserBalance("user2", 300L, 1000L)));
+        BalanceCommand balanceCommand = new BalanceCommand(true, "admin", 2, server, debtManager);
+
+        balanceCommand.execute();
+
+        assertEquals("1. user1: 10.00 lv" + System.lineSeparator() + "2. user2: -7.00 lv",
+            balanceCommand.getMessage());
+    }
+
+    @Test
+    public void testExecuteEmptyLeaderboard() {
+        when(server.isAdmin("admin")).thenReturn(true);
+        when(debtManager.getTopBalances(3)).thenReturn(List.of());
+        BalanceCommand balanceCommand = new BalanceCommand(true, "admin", 3, server, debtManager);
+
+        balanceCommand.execute();
+
+        assertEquals("no balances to show", balanceCommand.getMessage());
+    }
+
+    @Test
+    public void testExecuteLeaderboardNotAdmin() {
+        when(server.isAdmin("user1")).thenReturn(false);
+        BalanceCommand balanceCommand = new BalanceCommand(true, "user1", 3, server, debtManager);
+
+        balanceCommand.execute();
+
+        assertEquals("only administrators can see the leaderboard", balanceCommand.getMessage());
+        verify(debtManager, never()).getTopBalances(anyInt());
+    }
+
+    @Test
+    public void testExecuteNotLoggedIn() {
+        BalanceCommand balanceCommand = new BalanceCommand(false, null, server, debtManager);
+
+        balanceCommand.execute();
+
+        assertEquals("can't see balances when not logged in", balanceCommand.getMessage());
+    }
+}
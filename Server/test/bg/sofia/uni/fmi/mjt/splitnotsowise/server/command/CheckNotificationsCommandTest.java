@@ -2,6 +2,7 @@ package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
 
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.CheckNotificationsCommand;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.NotificationManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.NotificationPage;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -26,8 +28,8 @@ public class CheckNotificationsCommandTest {
 
     @Test
     public void testExecuteWithNotifications() throws DataStorageException {
-        List<String> notifications = List.of("notification1", "notification2");
-        when(notificationManager.getNotifications(anyString())).thenReturn(notifications);
+        when(notificationManager.getNotifications(anyString(), anyInt()))
+            .thenReturn(new NotificationPage(List.of("notification1", "notification2"), 0));
 
         checkNotificationsCommand.execute();
 
@@ -40,13 +42,28 @@ public class CheckNotificationsCommandTest {
 
     @Test
     public void testExecuteNoNotifications() throws DataStorageException {
-        when(notificationManager.getNotifications(anyString())).thenReturn(List.of());
+        when(notificationManager.getNotifications(anyString(), anyInt())).thenReturn(NotificationPage.EMPTY);
 
         checkNotificationsCommand.execute();
 
         assertEquals("no notifications to show", checkNotificationsCommand.getMessage());
     }
 
+    @Test
+    public void testExecuteWithPage() throws DataStorageException {
+        CheckNotificationsCommand pageCommand = new CheckNotificationsCommand(true, "user1", 1, notificationManager);
+        when(notificationManager.getNotifications("user1", 1))
+            .thenReturn(new NotificationPage(List.of("notification1"), 2));
+
+        pageCommand.execute();
+
+        String expectedMessage = "Notifications: " + System.lineSeparator() +
+            "* notification1" + System.lineSeparator() +
+            "2 more unread, use notifications <count>";
+
+        assertEquals(expectedMessage, pageCommand.getMessage());
+    }
+
     @Test
     public void testExecuteNotLoggedIn() {
         CheckNotificationsCommand notLoggedInCommand = new CheckNotificationsCommand(false,
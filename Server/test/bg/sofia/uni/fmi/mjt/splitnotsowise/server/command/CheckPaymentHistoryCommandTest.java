@@ -3,6 +3,7 @@ package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.CheckPaymentHistoryCommand;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.DebtManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.hasher.PasswordHasher;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,26 +31,25 @@ public class CheckPaymentHistoryCommandTest {
     }
 
     @Test
-    public void testExecuteWithPayments() {
+    public void testExecuteWithPayments() throws DataStorageException {
         Map<String, User> usersByUsername = Map.of("user2", new User("First2", "Last2",
             "user2", PasswordHasher.hash("password")));
-        Map<String, List<Double>> paymentsMap = Map.of("user2", List.of(10.0, 20.0));
-        Map<String, Map<String, List<Double>>> paymentsByUsernameMap = Map.of("user1", paymentsMap);
+        Map<String, List<Long>> paymentsMap = Map.of("user2", List.of(1000L, 2000L));
 
         when(userManager.getUserByUsernameMap()).thenReturn(usersByUsername);
-        when(debtManager.getPaymentsByUsernameMap()).thenReturn(paymentsByUsernameMap);
+        when(debtManager.getPayments("user1")).thenReturn(paymentsMap);
 
         checkPaymentHistoryCommand.execute();
 
-        String expectedMessage = "* you paid First2 Last2 (user2) 10.0 lv" + System.lineSeparator() +
-            "* you paid First2 Last2 (user2) 20.0 lv";
+        String expectedMessage = "* you paid First2 Last2 (user2) 10.00 lv" + System.lineSeparator() +
+            "* you paid First2 Last2 (user2) 20.00 lv";
 
         assertEquals(expectedMessage, checkPaymentHistoryCommand.getMessage());
     }
 
     @Test
-    public void testExecuteWithNoPayments() {
-        when(debtManager.getPaymentsByUsernameMap()).thenReturn(Map.of());
+    public void testExecuteWithNoPayments() throws DataStorageException {
+        when(debtManager.getPayments("user1")).thenReturn(Map.of());
 
         checkPaymentHistoryCommand.execute();
 
@@ -5,11 +5,11 @@ import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.NotificationManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.hasher.PasswordHasher;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.session.ClientSession;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.nio.channels.SelectionKey;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,17 +25,17 @@ import static org.mockito.Mockito.when;
 
 public class LoginCommandTest {
 
-    private SelectionKey key;
+    private ClientSession session;
     private UserManager userManager;
     private NotificationManager notificationManager;
     private LoginCommand loginCommand;
 
     @BeforeEach
     public void setUp() {
-        key = mock();
+        session = new ClientSession(1024);
         userManager = mock();
         notificationManager = mock();
-        loginCommand = new LoginCommand(key, "user1", "password", userManager, notificationManager);
+        loginCommand = new LoginCommand(session, "user1", "password", userManager, notificationManager);
     }
 
     @Test
@@ -53,6 +53,7 @@ public class LoginCommandTest {
         assertEquals("logged in successfully" + System.lineSeparator() +
             "* notification1" + System.lineSeparator() +
             "* notification2", loginCommand.getMessage());
+        assertEquals(user, session.getUser());
         verify(notificationManager, times(1)).getNotifications("user1");
     }
 
@@ -100,7 +101,7 @@ public class LoginCommandTest {
     public void testExecuteAlreadyLoggedIn() throws DataStorageException {
         User user = new User("First2", "Last2", "user2",
             PasswordHasher.hash("password"));
-        when(key.attachment()).thenReturn(user);
+        session.setUser(user);
 
         loginCommand.execute();
 
@@ -1,45 +1,40 @@
 package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
 
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.LogoutCommand;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.hasher.PasswordHasher;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.session.ClientSession;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.nio.channels.SelectionKey;
-
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 public class LogoutCommandTest {
-    private SelectionKey key;
+    private ClientSession session;
     private LogoutCommand logoutCommand;
 
     @BeforeEach
     public void setUp() {
-        key = mock();
-        logoutCommand = new LogoutCommand(key);
+        session = new ClientSession(1024);
+        logoutCommand = new LogoutCommand(session);
     }
 
     @Test
     public void testExecuteSuccess() {
-        when(key.attachment()).thenReturn(new Object());
+        session.setUser(new User("First1", "Last1", "user1", PasswordHasher.hash("password")));
 
         logoutCommand.execute();
 
         assertEquals("logged out successfully", logoutCommand.getMessage());
-        verify(key, times(1)).attachment();
-        verify(key, times(1)).attach(null);
+        assertFalse(session.isLoggedIn());
     }
 
     @Test
     public void testExecuteNotLoggedIn() {
-        when(key.attachment()).thenReturn(null);
-
         logoutCommand.execute();
 
         assertEquals("can't logout when not logged in", logoutCommand.getMessage());
-        verify(key, times(1)).attachment();
+        assertFalse(session.isLoggedIn());
     }
 }
@@ -8,7 +8,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.anyDouble;
+import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -29,55 +29,55 @@ public class PaidCommandTest {
 
     @Test
     public void testExecuteSuccess() throws DataStorageException {
-        when(debtManager.payDebt(anyString(), anyString(), anyDouble())).thenReturn(PaidStatus.SUCCESS);
+        when(debtManager.payDebt(anyString(), anyString(), anyLong())).thenReturn(PaidStatus.SUCCESS);
 
         paidCommand.execute();
 
         assertEquals("amount got paid successfully", paidCommand.getMessage());
-        verify(debtManager, times(1)).payDebt("user1", "user2", 50);
+        verify(debtManager, times(1)).payDebt("user1", "user2", 5000L);
     }
 
     @Test
     public void testExecutePayerDoesNotOwePayee() throws DataStorageException {
-        when(debtManager.payDebt(anyString(), anyString(), anyDouble()))
+        when(debtManager.payDebt(anyString(), anyString(), anyLong()))
             .thenReturn(PaidStatus.PAYER_DOES_NOT_OWE_PAYEE);
 
         paidCommand.execute();
 
         assertEquals("this user doesn't owe you money", paidCommand.getMessage());
-        verify(debtManager, times(1)).payDebt("user1", "user2", 50);
+        verify(debtManager, times(1)).payDebt("user1", "user2", 5000L);
     }
 
     @Test
     public void testExecuteUserDoesNotExist() throws DataStorageException {
-        when(debtManager.payDebt(anyString(), anyString(), anyDouble()))
+        when(debtManager.payDebt(anyString(), anyString(), anyLong()))
             .thenReturn(PaidStatus.USER_DOES_NOT_EXIST);
 
         paidCommand.execute();
 
         assertEquals("user with this username doesn't exist", paidCommand.getMessage());
-        verify(debtManager, times(1)).payDebt("user1", "user2", 50);
+        verify(debtManager, times(1)).payDebt("user1", "user2", 5000L);
     }
 
     @Test
     public void testExecuteSameUsernames() throws DataStorageException {
-        when(debtManager.payDebt(anyString(), anyString(), anyDouble())).thenReturn(PaidStatus.SAME_USERNAMES);
+        when(debtManager.payDebt(anyString(), anyString(), anyLong())).thenReturn(PaidStatus.SAME_USERNAMES);
 
         paidCommand.execute();
 
         assertEquals("can't get paid by yourself", paidCommand.getMessage());
-        verify(debtManager, times(1)).payDebt("user1", "user2", 50);
+        verify(debtManager, times(1)).payDebt("user1", "user2", 5000L);
     }
 
     @Test
     public void testExecuteDataStorageException() throws DataStorageException {
-        when(debtManager.payDebt(anyString(), anyString(), anyDouble()))
+        when(debtManager.payDebt(anyString(), anyString(), anyLong()))
             .thenThrow(new DataStorageException("error"));
 
         paidCommand.execute();
 
         assertEquals("getting paid amount failed", paidCommand.getMessage());
-        verify(debtManager, times(1)).payDebt("user1", "user2", 50);
+        verify(debtManager, times(1)).payDebt("user1", "user2", 5000L);
     }
 
     @Test
@@ -88,6 +88,6 @@ public class PaidCommandTest {
         notLoggedInCommand.execute();
 
         assertEquals("can't get paid amount when not logged in", notLoggedInCommand.getMessage());
-        verify(debtManager, never()).payDebt(any(), any(), anyDouble());
+        verify(debtManager, never()).payDebt(any(), any(), anyLong());
     }
 }
@@ -0,0 +1,52 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.Server;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ShutdownCommandTest {
+    private Server server;
+
+    @BeforeEach
+    public void setUp() {
+        server = mock();
+    }
+
+    @Test
+    public void testExecuteSuccess() {
+        when(server.isAdmin("admin")).thenReturn(true);
+        ShutdownCommand shutdownCommand = new ShutdownCommand(true, "admin", server);
+
+        shutdownCommand.execute();
+
+        assertEquals("server is shutting down", shutdownCommand.getMessage());
+        verify(server).stop();
+    }
+
+    @Test
+    public void testExecuteNotAdmin() {
+        when(server.isAdmin("user1")).thenReturn(false);
+        ShutdownCommand shutdownCommand = new ShutdownCommand(true, "user1", server);
+
+        shutdownCommand.execute();
+
+        assertEquals("only administrators can shutdown the server", shutdownCommand.getMessage());
+        verify(server, never()).stop();
+    }
+
+    @Test
+    public void testExecuteNotLoggedIn() {
+        ShutdownCommand shutdownCommand = new ShutdownCommand(false, null, server);
+
+        shutdownCommand.execute();
+
+        assertEquals("can't shutdown the server when not logged in", shutdownCommand.getMessage());
+        verify(server, never()).stop();
+    }
+}
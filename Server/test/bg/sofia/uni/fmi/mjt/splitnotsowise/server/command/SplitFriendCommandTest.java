@@ -8,7 +8,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -26,45 +26,45 @@ public class SplitFriendCommandTest {
 
     @Test
     public void testExecuteSuccess() throws DataStorageException {
-        when(debtManager.splitFriend(anyString(), anyString(), anyDouble())).thenReturn(SplitFriendStatus.SUCCESS);
+        when(debtManager.splitFriend(anyString(), anyString(), anyLong())).thenReturn(SplitFriendStatus.SUCCESS);
 
         splitFriendCommand.execute();
 
         assertEquals("amount split successfully", splitFriendCommand.getMessage());
-        verify(debtManager, times(1)).splitFriend("user1", "user2", 10);
+        verify(debtManager, times(1)).splitFriend("user1", "user2", 1000L);
     }
 
     @Test
     public void testExecuteFriendshipDoesNotExist() throws DataStorageException {
-        when(debtManager.splitFriend(anyString(), anyString(), anyDouble()))
+        when(debtManager.splitFriend(anyString(), anyString(), anyLong()))
             .thenReturn(SplitFriendStatus.FRIENDSHIP_DOES_NOT_EXIST);
 
         splitFriendCommand.execute();
 
         assertEquals("you are not friends", splitFriendCommand.getMessage());
-        verify(debtManager, times(1)).splitFriend("user1", "user2", 10);
+        verify(debtManager, times(1)).splitFriend("user1", "user2", 1000L);
     }
 
     @Test
     public void testExecuteUserDoesNotExist() throws DataStorageException {
-        when(debtManager.splitFriend(anyString(), anyString(), anyDouble()))
+        when(debtManager.splitFriend(anyString(), anyString(), anyLong()))
             .thenReturn(SplitFriendStatus.USER_DOES_NOT_EXIST);
 
         splitFriendCommand.execute();
 
         assertEquals("user with this username doesn't exist", splitFriendCommand.getMessage());
-        verify(debtManager, times(1)).splitFriend("user1", "user2", 10);
+        verify(debtManager, times(1)).splitFriend("user1", "user2", 1000L);
     }
 
     @Test
     public void testExecuteDataStorageException() throws DataStorageException {
-        when(debtManager.splitFriend(anyString(), anyString(), anyDouble()))
+        when(debtManager.splitFriend(anyString(), anyString(), anyLong()))
             .thenThrow(new DataStorageException("error"));
 
         splitFriendCommand.execute();
 
         assertEquals("splitting amount failed", splitFriendCommand.getMessage());
-        verify(debtManager, times(1)).splitFriend("user1", "user2", 10);
+        verify(debtManager, times(1)).splitFriend("user1", "user2", 1000L);
     }
 
     @Test
@@ -75,6 +75,6 @@ public class SplitFriendCommandTest {
         notLoggedInCommand.execute();
 
         assertEquals("can't split amount when not logged in", notLoggedInCommand.getMessage());
-        verify(debtManager, never()).splitFriend(any(), any(), anyDouble());
+        verify(debtManager, never()).splitFriend(any(), any(), anyLong());
     }
 }
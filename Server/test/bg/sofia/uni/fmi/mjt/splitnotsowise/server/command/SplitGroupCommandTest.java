@@ -8,7 +8,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -26,48 +26,48 @@ public class SplitGroupCommandTest {
 
     @Test
     public void testExecuteSuccess() throws DataStorageException {
-        when(debtManager.splitGroup(anyString(), anyString(), anyDouble())).thenReturn(SplitGroupStatus.SUCCESS);
+        when(debtManager.splitGroup(anyString(), anyString(), anyLong())).thenReturn(SplitGroupStatus.SUCCESS);
 
         splitGroupCommand.execute();
 
         assertEquals("amount split successfully", splitGroupCommand.getMessage());
-        verify(debtManager, times(1)).splitGroup("group1", "user2", 10);
+        verify(debtManager, times(1)).splitGroup("group1", "user2", 1000L);
     }
 
     @Test
     public void testExecuteUserNotInGroup() throws DataStorageException {
-        when(debtManager.splitGroup(anyString(), anyString(), anyDouble()))
+        when(debtManager.splitGroup(anyString(), anyString(), anyLong()))
             .thenReturn(SplitGroupStatus.USER_NOT_IN_GROUP);
 
         splitGroupCommand.execute();
 
         assertEquals("you are not in this group", splitGroupCommand.getMessage());
         verify(debtManager, times(1)).splitGroup("group1", "user2",
-            10.0);
+            1000L);
     }
 
     @Test
     public void testExecuteGroupDoesNotExist() throws DataStorageException {
-        when(debtManager.splitGroup(anyString(), anyString(), anyDouble()))
+        when(debtManager.splitGroup(anyString(), anyString(), anyLong()))
             .thenReturn(SplitGroupStatus.GROUP_DOES_NOT_EXIST);
 
         splitGroupCommand.execute();
 
         assertEquals("group with this name doesn't exist", splitGroupCommand.getMessage());
         verify(debtManager, times(1)).splitGroup("group1", "user2",
-            10.0);
+            1000L);
     }
 
     @Test
     public void testExecuteDataStorageException() throws DataStorageException {
-        when(debtManager.splitGroup(anyString(), anyString(), anyDouble()))
+        when(debtManager.splitGroup(anyString(), anyString(), anyLong()))
             .thenThrow(new DataStorageException("error"));
 
         splitGroupCommand.execute();
 
         assertEquals("splitting amount failed", splitGroupCommand.getMessage());
         verify(debtManager, times(1)).splitGroup("group1", "user2",
-            10.0);
+            1000L);
     }
 
     @Test
@@ -78,6 +78,6 @@ public class SplitGroupCommandTest {
         notLoggedInCommand.execute();
 
         assertEquals("can't split amount when not logged in", notLoggedInCommand.getMessage());
-        verify(debtManager, never()).splitGroup(any(), any(), anyDouble());
+        verify(debtManager, never()).splitGroup(any(), any(), anyLong());
     }
 }
@@ -2,6 +2,7 @@ package bg.sofia.uni.fmi.mjt.splitnotsowise.server.command;
 
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.command.StatusCommand;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.DebtManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserDebts;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.hasher.PasswordHasher;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
@@ -30,8 +31,7 @@ public class StatusCommandTest {
 
     @Test
     public void testExecuteNoMoneyRelations() {
-        when(debtManager.getPayeesMap()).thenReturn(new HashMap<>());
-        when(debtManager.getPayersMap()).thenReturn(new HashMap<>());
+        when(debtManager.getDebts("user1")).thenReturn(UserDebts.EMPTY);
 
         statusCommand.execute();
 
@@ -40,9 +40,8 @@ public class StatusCommandTest {
 
     @Test
     public void testExecuteWithPayers() {
-        Map<String, Map<String, Double>> payeesMap = new HashMap<>(Map.of("user1", Map.of("user2", 10.0)));
-        when(debtManager.getPayeesMap()).thenReturn(payeesMap);
-        when(debtManager.getPayersMap()).thenReturn(new HashMap<>());
+        Map<String, Long> payers = Map.of("user2", 1000L);
+        when(debtManager.getDebts("user1")).thenReturn(new UserDebts(payers, Map.of()));
 
         Map<String, User> userMap = new HashMap<>();
         userMap.put("user2", new User("First2", "Last2", "user2",
@@ -51,14 +50,13 @@ public class StatusCommandTest {
 
         statusCommand.execute();
 
-        assertEquals("* First2 Last2 (user2): owes you 10.0 lv", statusCommand.getMessage());
+        assertEquals("* First2 Last2 (user2): owes you 10.00 lv", statusCommand.getMessage());
     }
 
     @Test
     public void testExecuteWithPayees() {
-        Map<String, Map<String, Double>> payersMap = new HashMap<>(Map.of("user1", Map.of("user2", 5.0)));
-        when(debtManager.getPayersMap()).thenReturn(payersMap);
-        when(debtManager.getPayeesMap()).thenReturn(new HashMap<>());
+        Map<String, Long> payees = Map.of("user2", 500L);
+        when(debtManager.getDebts("user1")).thenReturn(new UserDebts(Map.of(), payees));
 
         Map<String, User> userMap = new HashMap<>();
         userMap.put("user2", new User("First2", "Last2", "user2",
@@ -67,16 +65,15 @@ public class StatusCommandTest {
 
         statusCommand.execute();
 
-        assertEquals("* First2 Last2 (user2): you owe 5.0 lv", statusCommand.getMessage());
+        assertEquals("* First2 Last2 (user2): you owe 5.00 lv", statusCommand.getMessage());
     }
 
     @Test
     public void testExecuteWithPayersAndPayees() {
-        Map<String, Map<String, Double>> payeesMap = new HashMap<>(Map.of("user1", Map.of("user2", 10.0)));
-        Map<String, Map<String, Double>> payersMap = new HashMap<>(Map.of("user1", Map.of("user3", 5.0)));
+        Map<String, Long> payers = Map.of("user2", 1000L);
+        Map<String, Long> payees = Map.of("user3", 500L);
 
-        when(debtManager.getPayersMap()).thenReturn(payersMap);
-        when(debtManager.getPayeesMap()).thenReturn(payeesMap);
+        when(debtManager.getDebts("user1")).thenReturn(new UserDebts(payers, payees));
 
         Map<String, User> userMap = new HashMap<>();
         userMap.put("user2", new User("First2", "Last2", "user2",
@@ -87,9 +84,9 @@ public class StatusCommandTest {
 
         statusCommand.execute();
 
-        String expectedMessage = "* First2 Last2 (user2): owes you 10.0 lv" +
+        String expectedMessage = "* First2 Last2 (user2): owes you 10.00 lv" +
             System.lineSeparator() +
-            "* First3 Last3 (user3): you owe 5.0 lv";
+            "* First3 Last3 (user3): you owe 5.00 lv";
 
         assertEquals(expectedMessage, statusCommand.getMessage());
     }
@@ -0,0 +1,120 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.config;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.InvalidConfigurationException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.DurabilityMode;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.DurabilityPolicy;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngineType;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ServerConfigTest {
+
+    @Test
+    public void testDefaults() {
+        ServerConfig config = ServerConfig.defaults();
+
+        assertEquals("localhost", config.getHost());
+        assertEquals(1234, config.getPort());
+        assertEquals(128, config.getBacklog());
+        assertTrue(config.isTcpNoDelay());
+        assertEquals(0, config.getReceiveBufferSize());
+        assertEquals(Runtime.getRuntime().availableProcessors(), config.getReactorsCount());
+        assertEquals(1024, config.getBufferSize());
+        assertEquals(10000, config.getShutdownTimeoutMillis());
+        assertTrue(config.getAdminUsers().isEmpty());
+        assertEquals(300000, config.getIdleTimeoutMillis());
+        assertEquals(10000, config.getMaxConnections());
+        assertEquals(100, config.getMaxConnectionsPerAddress());
+        assertEquals(600000, config.getSnapshotIntervalMillis());
+        assertEquals(StorageEngineType.FLAT_FILE, config.getStorageEngine());
+        assertEquals(new DurabilityPolicy(DurabilityMode.COMMIT, 10), config.getDurabilityPolicy());
+        assertEquals(0, config.getMaxCachedUsers());
+        assertEquals(100, config.getNotificationsInboxSize());
+        assertEquals(Path.of("Server", "backups"), config.getBackupDirectory());
+    }
+
+    @Test
+    public void testLoadAdminUsers() throws InvalidConfigurationException {
+        ServerConfig config = ServerConfig.load("--admin.users=admin1, admin2,,", "--shutdown.timeout.ms=500");
+
+        assertEquals(Set.of("admin1", "admin2"), config.getAdminUsers());
+        assertEquals(500, config.getShutdownTimeoutMillis());
+    }
+
+    @Test
+    public void testLoadArgumentsOverrideDefaults() throws InvalidConfigurationException {
+        ServerConfig config = ServerConfig.load("--port=4321", "--reactors=2", "--tcp.nodelay=false", "--so.sndbuf=65536");
+
+        assertEquals(4321, config.getPort());
+        assertEquals(2, config.getReactorsCount());
+        assertFalse(config.isTcpNoDelay());
+        assertEquals(65536, config.getSendBufferSize());
+    }
+
+    @Test
+    public void testLoadStorageEngine() throws InvalidConfigurationException {
+        assertEquals(StorageEngineType.RUN_LOG, ServerConfig.load("--storage.engine=run-log").getStorageEngine());
+        assertEquals(StorageEngineType.MEMORY, ServerConfig.load("--storage.engine=memory").getStorageEngine());
+    }
+
+    @Test
+    public void testLoadDurabilityPolicy() throws InvalidConfigurationException {
+        ServerConfig config = ServerConfig.load("--durability.mode=batch", "--durability.interval.ms=25");
+
+        assertEquals(new DurabilityPolicy(DurabilityMode.BATCH, 25), config.getDurabilityPolicy());
+    }
+
+    @Test
+    public void testLoadConfigFile() throws IOException, InvalidConfigurationException {
+        Path testConfigFilePath = Path.of("testServer.properties");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(testConfigFilePath.toString()))) {
+            writer.write("host=0.0.0.0\n");
+            writer.write("port=4000\n");
+            writer.write("backlog=512\n");
+        }
+
+        ServerConfig config = ServerConfig.load("--config=testServer.properties", "--port=5000");
+
+        assertEquals("0.0.0.0", config.getHost());
+        assertEquals(5000, config.getPort());
+        assertEquals(512, config.getBacklog());
+        Files.delete(testConfigFilePath);
+    }
+
+    @Test
+    public void testLoadMissingConfigFile() {
+        assertThrows(InvalidConfigurationException.class, () -> ServerConfig.load("--config=missing.properties"));
+    }
+
+    @Test
+    public void testLoadInvalidArgument() {
+        assertThrows(InvalidConfigurationException.class, () -> ServerConfig.load("port=1234"));
+    }
+
+    @Test
+    public void testLoadInvalidValues() {
+        assertThrows(InvalidConfigurationException.class, () -> ServerConfig.load("--port=70000"));
+        assertThrows(InvalidConfigurationException.class, () -> ServerConfig.load("--reactors=0"));
+        assertThrows(InvalidConfigurationException.class, () -> ServerConfig.load("--backlog=abc"));
+        assertThrows(InvalidConfigurationException.class, () -> ServerConfig.load("--tcp.nodelay=maybe"));
+        assertThrows(InvalidConfigurationException.class, () -> ServerConfig.load("--max.connections=0"));
+        assertThrows(InvalidConfigurationException.class, () -> ServerConfig.load("--idle.timeout.ms=-1"));
+        assertThrows(InvalidConfigurationException.class, () -> ServerConfig.load("--snapshot.interval.ms=-1"));
+        assertThrows(InvalidConfigurationException.class, () -> ServerConfig.load("--storage.engine=rocksdb"));
+        assertThrows(InvalidConfigurationException.class, () -> ServerConfig.load("--durability.mode=always"));
+        assertThrows(InvalidConfigurationException.class, () -> ServerConfig.load("--durability.interval.ms=-5"));
+        assertThrows(InvalidConfigurationException.class, () -> ServerConfig.load("--max.cached.users=-1"));
+        assertThrows(InvalidConfigurationException.class, () -> ServerConfig.load("--notifications.inbox.size=0"));
+    }
+}
@@ -0,0 +1,62 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.connection;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.ConnectionStatus;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.channels.SocketChannel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+public class ConnectionLimiterTest {
+
+    @Test
+    public void testTryAcquireTooManyConnections() throws UnknownHostException {
+        ConnectionLimiter connectionLimiter = new ConnectionLimiter(2, 10);
+        InetAddress address1 = InetAddress.getByName("10.0.0.1");
+        InetAddress address2 = InetAddress.getByName("10.0.0.2");
+
+        assertEquals(ConnectionStatus.ACCEPTED, connectionLimiter.tryAcquire(mock(SocketChannel.class), address1));
+        assertEquals(ConnectionStatus.ACCEPTED, connectionLimiter.tryAcquire(mock(SocketChannel.class), address2));
+        assertEquals(ConnectionStatus.TOO_MANY_CONNECTIONS,
+            connectionLimiter.tryAcquire(mock(SocketChannel.class), address2));
+        assertEquals(2, connectionLimiter.getConnectionsCount());
+        assertEquals(1, connectionLimiter.getConnectionsCount(address2));
+    }
+
+    @Test
+    public void testTryAcquireTooManyConnectionsFromAddress() throws UnknownHostException {
+        ConnectionLimiter connectionLimiter = new ConnectionLimiter(10, 1);
+        InetAddress address = InetAddress.getByName("10.0.0.1");
+
+        assertEquals(ConnectionStatus.ACCEPTED, connectionLimiter.tryAcquire(mock(SocketChannel.class), address));
+        assertEquals(ConnectionStatus.TOO_MANY_CONNECTIONS_FROM_ADDRESS,
+            connectionLimiter.tryAcquire(mock(SocketChannel.class), address));
+        assertEquals(1, connectionLimiter.getConnectionsCount());
+        assertEquals(1, connectionLimiter.getConnectionsCount(address));
+    }
+
+    @Test
+    public void testReleaseFreesConnection() throws UnknownHostException {
+        ConnectionLimiter connectionLimiter = new ConnectionLimiter(1, 1);
+        InetAddress address = InetAddress.getByName("10.0.0.1");
+        SocketChannel channel = mock();
+        connectionLimiter.tryAcquire(channel, address);
+
+        connectionLimiter.release(channel);
+        connectionLimiter.release(channel);
+
+        assertEquals(0, connectionLimiter.getConnectionsCount());
+        assertEquals(0, connectionLimiter.getConnectionsCount(address));
+        assertEquals(ConnectionStatus.ACCEPTED, connectionLimiter.tryAcquire(mock(SocketChannel.class), address));
+    }
+
+    @Test
+    public void testInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionLimiter(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionLimiter(1, 0));
+    }
+}
@@ -0,0 +1,48 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.connection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimerWheelTest {
+
+    @Test
+    public void testAdvanceReturnsExpiredItems() {
+        TimerWheel<String> timerWheel = new TimerWheel<>(10, 8, 0);
+        timerWheel.schedule("first", 20);
+        timerWheel.schedule("second", 45);
+
+        assertTrue(timerWheel.advance(15).isEmpty());
+        assertEquals(List.of("first"), timerWheel.advance(25));
+        assertEquals(List.of("second"), timerWheel.advance(50));
+        assertEquals(0, timerWheel.size());
+    }
+
+    @Test
+    public void testAdvanceKeepsDeadlinesBeyondOneRotation() {
+        TimerWheel<String> timerWheel = new TimerWheel<>(10, 4, 0);
+        timerWheel.schedule("late", 100);
+
+        assertTrue(timerWheel.advance(60).isEmpty());
+        assertEquals(1, timerWheel.size());
+        assertEquals(List.of("late"), timerWheel.advance(100));
+    }
+
+    @Test
+    public void testScheduleInThePastExpiresOnNextTick() {
+        TimerWheel<String> timerWheel = new TimerWheel<>(10, 4, 100);
+        timerWheel.schedule("past", 0);
+
+        assertEquals(List.of("past"), timerWheel.advance(110));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<String>(0, 4, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel<String>(10, 0, 0));
+    }
+}
@@ -0,0 +1,122 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.FlatFileStorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.InMemoryStorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.LogRecord;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.RecordType;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.WriteAheadLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BackupManagerTest {
+    private final Path testDataDirectory = Path.of("testBackupData");
+    private final Path testBackupDirectory = Path.of("testBackups");
+    private final Path testSnapshotFilePath = testDataDirectory.resolve("ledger.snapshot");
+    private FlatFileStorageEngine storageEngine;
+    private BackupManager backupManager;
+
+    @BeforeEach
+    public void setUp() throws IOException, DataStorageException {
+        deleteTestDirectory(testDataDirectory);
+        deleteTestDirectory(testBackupDirectory);
+        Files.createDirectory(testDataDirectory);
+        WriteAheadLog.setLogDirectory(testDataDirectory);
+        WriteAheadLog.resetInstance();
+        storageEngine = new FlatFileStorageEngine(WriteAheadLog.getInstance(), testSnapshotFilePath);
+        storageEngine.recover();
+        BackupManager.resetInstance();
+        backupManager = BackupManager.getInstance();
+        backupManager.setDataDirectory(testDataDirectory);
+        backupManager.setBackupDirectory(testBackupDirectory);
+        backupManager.setStorageEngine(storageEngine);
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException, DataStorageException {
+        storageEngine.close();
+        WriteAheadLog.resetInstance();
+        WriteAheadLog.resetLogDirectory();
+        BackupManager.resetInstance();
+        deleteTestDirectory(testDataDirectory);
+        deleteTestDirectory(testBackupDirectory);
+    }
+
+    private static void deleteTestDirectory(Path directory) throws IOException {
+        if (Files.exists(directory)) {
+            try (Stream<Path> entries = Files.walk(directory)) {
+                for (Path entry : entries.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(entry);
+                }
+            }
+        }
+    }
+
+    private static List<String> listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static LogRecord friendship(int index) {
+        return new LogRecord(RecordType.FRIENDSHIP_ADDED, "user" + index, "user" + (index + 1));
+    }
+
+    @Test
+    public void testBackupIsRestorable() throws DataStorageException, IOException {
+        Files.writeString(testDataDirectory.resolve("users.txt"), "First1,Last1,user1,hash\n");
+        List<LogRecord> state = List.of(friendship(1));
+        storageEngine.append(friendship(1));
+        storageEngine.checkpoint(() -> state);
+        storageEngine.awaitDurable(storageEngine.append(friendship(2)));
+
+        Backup backup = backupManager.backup();
+        storageEngine.awaitDurable(storageEngine.append(friendship(3)));
+
+        assertEquals(3, backup.filesCount());
+        assertEquals(List.of(backup.directory().getFileName().toString()), listFiles(testBackupDirectory));
+        assertEquals(List.of("ledger-1.wal", "ledger.snapshot", "users.txt"), listFiles(backup.directory()));
+        assertEquals("First1,Last1,user1,hash\n", Files.readString(backup.directory().resolve("users.txt")));
+
+        storageEngine.close();
+        WriteAheadLog.setLogDirectory(backup.directory());
+        WriteAheadLog.resetInstance();
+        storageEngine = new FlatFileStorageEngine(WriteAheadLog.getInstance(),
+            backup.directory().resolve("ledger.snapshot"));
+        assertEquals(state, storageEngine.loadCheckpoint());
+        assertEquals(List.of(friendship(2)), storageEngine.recover());
+    }
+
+    @Test
+    public void testBackupsDoNotOverlap() throws DataStorageException, IOException {
+        storageEngine.awaitDurable(storageEngine.append(friendship(1)));
+
+        Backup first = backupManager.backup();
+        storageEngine.awaitDurable(storageEngine.append(friendship(2)));
+        Backup second = backupManager.backup();
+
+        assertEquals(2, listFiles(testBackupDirectory).size());
+        assertEquals(Files.size(first.directory().resolve("ledger-0.wal")) * 2,
+            Files.size(second.directory().resolve("ledger-0.wal")));
+    }
+
+    @Test
+    public void testBackupWithMemoryStorageEngine() {
+        backupManager.setStorageEngine(new InMemoryStorageEngine());
+
+        assertThrows(DataStorageException.class, () -> backupManager.backup());
+        assertFalse(Files.exists(testBackupDirectory));
+    }
+}
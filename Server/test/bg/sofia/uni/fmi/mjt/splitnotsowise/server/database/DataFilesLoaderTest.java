@@ -0,0 +1,78 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DataFilesLoaderTest {
+    private final Path testDirectory = Path.of("testDataFiles");
+    private DataFilesLoader loader;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        Files.createDirectory(testDirectory);
+        loader = new DataFilesLoader(2);
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        loader.close();
+        try (Stream<Path> files = Files.list(testDirectory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(testDirectory);
+    }
+
+    @Test
+    public void testLoadParsesFilesOfKnownUsers() throws IOException, DataStorageException {
+        Files.writeString(testDirectory.resolve("user1_debts.txt"), "payee,amount\nuser2,10.0\n");
+        Files.writeString(testDirectory.resolve("user2_debts.txt"), "payee,amount\nuser1,1.0\nuser3,2.0\n");
+        Files.writeString(testDirectory.resolve("user3_debts.txt"), "payee,amount\nuser1,5.0\n");
+        Files.writeString(testDirectory.resolve("user1_payments.txt"), "payee,amount\nuser2,3.0\n");
+
+        Map<String, Integer> linesCountByUser = loader.load(testDirectory, "_debts.txt",
+            Set.of("user1", "user2"), (user, lines) -> lines.size());
+
+        assertEquals(Map.of("user1", 2, "user2", 3), linesCountByUser);
+    }
+
+    @Test
+    public void testLoadListsDirectoryOnce() throws IOException, DataStorageException {
+        Files.writeString(testDirectory.resolve("user1_debts.txt"), "payee,amount\n");
+        loader.load(testDirectory, "_debts.txt", Set.of("user1", "user2"), (user, lines) -> lines);
+        Files.writeString(testDirectory.resolve("user2_notifications.txt"), "user1 added you as a friend\n");
+
+        Map<String, List<String>> notifications = loader.load(testDirectory, "_notifications.txt",
+            Set.of("user1", "user2"), (user, lines) -> lines);
+
+        assertEquals(Map.of(), notifications);
+    }
+
+    @Test
+    public void testLoadMissingDirectory() throws DataStorageException {
+        assertEquals(Map.of(), loader.load(testDirectory.resolve("missing"), "_debts.txt", Set.of("user1"),
+            (user, lines) -> lines));
+    }
+
+    @Test
+    public void testLoadParserFailure() throws IOException {
+        Files.writeString(testDirectory.resolve("user1_debts.txt"), "payee,amount\nuser2,abc\n");
+
+        assertThrows(DataStorageException.class, () -> loader.load(testDirectory, "_debts.txt", Set.of("user1"),
+            (user, lines) -> Double.parseDouble(lines.get(1).split(",")[1])));
+    }
+}
@@ -10,6 +10,10 @@ import bg.sofia.uni.fmi.mjt.splitnotsowise.server.hasher.PasswordHasher;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.PaidStatus;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.SplitFriendStatus;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.SplitGroupStatus;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.LogRecord;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.RecordType;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngines;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,8 +30,9 @@ import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -40,6 +45,7 @@ public class DebtManagerTest {
     private FriendshipManager friendshipManager;
     private GroupManager groupManager;
     private NotificationManager notificationManager;
+    private StorageEngine storageEngine;
 
     @BeforeEach
     public void setUp() {
@@ -47,11 +53,13 @@ public class DebtManagerTest {
         friendshipManager = Mockito.mock();
         groupManager = Mockito.mock();
         notificationManager = Mockito.mock();
+        storageEngine = Mockito.mock();
 
         UserManager.setInstance(userManager);
         FriendshipManager.setInstance(friendshipManager);
         GroupManager.setInstance(groupManager);
         NotificationManager.setInstance(notificationManager);
+        StorageEngines.setInstance(storageEngine);
 
         DebtManager.setProjectName("");
         DebtManager.setDebtsFileNamePostfix("_test_debts.txt");
@@ -67,6 +75,7 @@ public class DebtManagerTest {
         FriendshipManager.resetInstance();
         GroupManager.resetInstance();
         NotificationManager.resetInstance();
+        StorageEngines.resetInstance();
 
         DebtManager.resetProjectName();
         DebtManager.resetDebtsFileNamePostfix();
@@ -98,19 +107,27 @@ public class DebtManagerTest {
 
         debtManager.loadDebts();
 
-        Map<String, Map<String, Double>> payers = debtManager.getPayersMap();
-        Map<String, Map<String, Double>> payees = debtManager.getPayeesMap();
+        assertEquals(Map.of("user2", 1000L, "user3", 500L), debtManager.getDebtsOwedBy("user1"));
+        assertEquals(Map.of("user1", 1000L), debtManager.getDebtsOwedTo("user2"));
+        assertEquals(Map.of("user1", 500L), debtManager.getDebtsOwedTo("user3"));
 
-        assertTrue(payers.containsKey("user1"));
-        assertEquals(10.0, payers.get("user1").get("user2"));
-        assertEquals(5.0, payers.get("user1").get("user3"));
+        Files.delete(testDebtsFilePath);
+    }
 
-        assertTrue(payees.containsKey("user2"));
-        assertTrue(payees.containsKey("user3"));
-        assertEquals(10.0, payees.get("user2").get("user1"));
-        assertEquals(5.0, payees.get("user3").get("user1"));
+    @Test
+    public void testLoadDebtsSkipsTornAndMalformedLines() throws IOException, DataStorageException {
+        Path testDebtsFilePath = Path.of("user1_test_debts.txt");
+        Files.writeString(testDebtsFilePath, "payee, amount\nuser2,10.0\nuser3,abc\n,5\nuser3,1");
+        when(userManager.getUserByUsernameMap()).thenReturn(Map.of(
+            "user1", new User("First1", "Last1", "user1", PasswordHasher.hash("password"))));
 
-        Files.delete(testDebtsFilePath);
+        try {
+            debtManager.loadDebts();
+        } finally {
+            Files.delete(testDebtsFilePath);
+        }
+
+        assertEquals(Map.of("user2", 1000L), debtManager.getDebtsOwedBy("user1"));
     }
 
     @Test
@@ -143,15 +160,12 @@ public class DebtManagerTest {
 
         debtManager.loadPayments();
 
-        Map<String, Map<String, List<Double>>> paymentsByUsername = debtManager.getPaymentsByUsernameMap();
+        Map<String, List<Long>> payments = debtManager.getPayments("user1");
 
-        assertEquals(1, paymentsByUsername.size());
-        assertTrue(paymentsByUsername.containsKey("user1"));
-        assertEquals(2, paymentsByUsername.get("user1").size());
-        assertEquals(1, paymentsByUsername.get("user1").get("user2").size());
-        assertEquals(1, paymentsByUsername.get("user1").get("user3").size());
-        assertEquals(10.0, paymentsByUsername.get("user1").get("user2").get(0));
-        assertEquals(5.0, paymentsByUsername.get("user1").get("user3").get(0));
+        assertEquals(Map.of(), debtManager.getPayments("user2"));
+        assertEquals(2, payments.size());
+        assertEquals(List.of(1000L), payments.get("user2"));
+        assertEquals(List.of(500L), payments.get("user3"));
 
         Files.delete(testPaymentsFilePath);
     }
@@ -160,7 +174,7 @@ public class DebtManagerTest {
     public void testSplitFriendUserNotExist() throws DataStorageException {
         when(userManager.getUserByUsernameMap()).thenReturn(Map.of());
 
-        SplitFriendStatus result = debtManager.splitFriend("user1", "user2", 10.0);
+        SplitFriendStatus result = debtManager.splitFriend("user1", "user2", 1000L);
 
         assertEquals(SplitFriendStatus.USER_DOES_NOT_EXIST, result);
     }
@@ -174,13 +188,13 @@ public class DebtManagerTest {
         when(userManager.getUserByUsernameMap()).thenReturn(userByUsername);
         when(friendshipManager.friendshipExist(anyString(), anyString())).thenReturn(false);
 
-        SplitFriendStatus result = debtManager.splitFriend("user1", "user2", 10.0);
+        SplitFriendStatus result = debtManager.splitFriend("user1", "user2", 1000L);
 
         assertEquals(SplitFriendStatus.FRIENDSHIP_DOES_NOT_EXIST, result);
     }
 
     @Test
-    public void testSplitFriendSuccess() throws DataStorageException, IOException {
+    public void testSplitFriendSuccess() throws DataStorageException {
         Map<String, User> userByUsername = Map.of(
             "user1", new User("First1", "Last2", "user1",
                 PasswordHasher.hash("password")),
@@ -190,20 +204,21 @@ public class DebtManagerTest {
         when(userManager.getUserByUsernameMap()).thenReturn(userByUsername);
         when(friendshipManager.friendshipExist(anyString(), anyString())).thenReturn(true);
 
-        SplitFriendStatus result = debtManager.splitFriend("user1", "user2", 10.0);
+        SplitFriendStatus result = debtManager.splitFriend("user1", "user2", 1000L);
 
         assertEquals(SplitFriendStatus.SUCCESS, result);
         verify(notificationManager, times(1))
-            .addAmountSplitNotification("user1", "user2", 5.0);
-
-        Files.delete(Path.of("user1_test_debts.txt"));
+            .addAmountSplitNotification("user1", "user2", 500L);
+        verify(storageEngine).append(new LogRecord(RecordType.DEBT_ADDED, "user1", "user2", "5.00"));
+        verify(storageEngine).flush();
+        assertEquals(500L, debtManager.getDebt("user1", "user2"));
     }
 
     @Test
     public void testSplitGroupGroupDoesNotExist() throws DataStorageException {
         when(groupManager.getGroupMembersByGroupNameMap()).thenReturn(Map.of());
 
-        SplitGroupStatus result = debtManager.splitGroup("group1", "user1", 10.0);
+        SplitGroupStatus result = debtManager.splitGroup("group1", "user1", 1000L);
 
         assertEquals(SplitGroupStatus.GROUP_DOES_NOT_EXIST, result);
     }
@@ -212,27 +227,39 @@ public class DebtManagerTest {
     public void testSplitGroupUserNotInGroup() throws DataStorageException {
         when(groupManager.getGroupMembersByGroupNameMap()).thenReturn(Map.of("group1", Set.of("user2")));
 
-        SplitGroupStatus result = debtManager.splitGroup("group1", "user1", 10.0);
+        SplitGroupStatus result = debtManager.splitGroup("group1", "user1", 1000L);
 
         assertEquals(SplitGroupStatus.USER_NOT_IN_GROUP, result);
     }
 
     @Test
-    public void testSplitGroupSuccess() throws DataStorageException, IOException {
+    public void testSplitGroupSuccess() throws DataStorageException {
         when(groupManager.getGroupMembersByGroupNameMap()).thenReturn(Map.of("group1", Set.of("user1", "user2")));
 
-        SplitGroupStatus result = debtManager.splitGroup("group1", "user1", 10.0);
+        SplitGroupStatus result = debtManager.splitGroup("group1", "user1", 1000L);
 
         assertEquals(SplitGroupStatus.SUCCESS, result);
         verify(notificationManager, times(1))
-            .addAmountSplitNotification(anyString(), anyString(), anyDouble());
+            .addAmountSplitNotification(anyString(), anyString(), anyLong());
+        verify(storageEngine).append(new LogRecord(RecordType.DEBT_ADDED, "user2", "user1", "5.00"));
+        verify(storageEngine, times(1)).flush();
+    }
+
+    @Test
+    public void testSplitGroupDistributesRemainingCents() throws DataStorageException {
+        when(groupManager.getGroupMembersByGroupNameMap())
+            .thenReturn(Map.of("group1", Set.of("user1", "user2", "user3")));
+
+        debtManager.splitGroup("group1", "user1", 1000L);
 
-        Files.delete(Path.of("user2_test_debts.txt"));
+        Map<String, Long> payees = debtManager.getDebtsOwedTo("user1");
+        assertEquals(667L, payees.get("user2") + payees.get("user3"));
+        assertEquals(1L, Math.abs(payees.get("user2") - payees.get("user3")));
     }
 
     @Test
     public void testPayDebtSameUsernames() throws DataStorageException {
-        PaidStatus result = debtManager.payDebt("user1", "user1", 10.0);
+        PaidStatus result = debtManager.payDebt("user1", "user1", 1000L);
 
         assertEquals(PaidStatus.SAME_USERNAMES, result);
     }
@@ -241,7 +268,7 @@ public class DebtManagerTest {
     public void testPayDebtUserDoesNotExist() throws DataStorageException {
         when(userManager.getUserByUsernameMap()).thenReturn(Map.of());
 
-        PaidStatus result = debtManager.payDebt("user1", "user2", 10.0);
+        PaidStatus result = debtManager.payDebt("user1", "user2", 1000L);
 
         assertEquals(PaidStatus.USER_DOES_NOT_EXIST, result);
     }
@@ -255,24 +282,13 @@ public class DebtManagerTest {
                 PasswordHasher.hash("password")));
         when(userManager.getUserByUsernameMap()).thenReturn(userByUsername);
 
-        PaidStatus result = debtManager.payDebt("user1", "user2", 10.0);
+        PaidStatus result = debtManager.payDebt("user1", "user2", 1000L);
 
         assertEquals(PaidStatus.PAYER_DOES_NOT_OWE_PAYEE, result);
     }
 
     @Test
-    public void testPayDebtSuccess() throws IOException, DataStorageException {
-        Path testDebtsFilePath = Path.of("user1_test_debts.txt");
-        Path testPaymentsFilePath = Path.of("user1_test_payments.txt");
-        if (Files.exists(testDebtsFilePath)) {
-            Files.delete(testDebtsFilePath);
-        }
-        if (Files.exists(testPaymentsFilePath)) {
-            Files.delete(testPaymentsFilePath);
-        }
-        Files.createFile(testDebtsFilePath);
-        Files.createFile(testPaymentsFilePath);
-
+    public void testPayDebtSuccess() throws DataStorageException {
         Map<String, User> userByUsername = Map.of(
             "user1", new User("First1", "Last1", "user1",
                 PasswordHasher.hash("password")),
@@ -281,14 +297,95 @@ public class DebtManagerTest {
         when(userManager.getUserByUsernameMap()).thenReturn(userByUsername);
         when(friendshipManager.friendshipExist("user2", "user1")).thenReturn(true);
 
-        debtManager.splitFriend("user1", "user2", 10.0);
-        PaidStatus result = debtManager.payDebt("user1", "user2", 10.0);
+        debtManager.splitFriend("user1", "user2", 1000L);
+        PaidStatus result = debtManager.payDebt("user1", "user2", 1000L);
 
         assertEquals(PaidStatus.SUCCESS, result);
         verify(notificationManager, times(1))
-            .addPaymentApprovedNotification(anyString(), anyString(), anyDouble());
+            .addPaymentApprovedNotification(anyString(), anyString(), anyLong());
+        verify(storageEngine).append(new LogRecord(RecordType.PAYMENT_MADE, "user1", "user2", "10.00"));
+    }
 
-        Files.delete(testDebtsFilePath);
-        Files.delete(testPaymentsFilePath);
+    @Test
+    public void testApplyReplaysDebtsAndPayments() throws DataStorageException {
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user1", "user2", "10.0"));
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user2", "user1", "4.0"));
+        debtManager.apply(new LogRecord(RecordType.PAYMENT_MADE, "user1", "user2", "1.5"));
+
+        assertEquals(450L, debtManager.getDebt("user1", "user2"));
+        assertEquals(List.of(150L), debtManager.getPayments("user1").get("user2"));
+    }
+
+    @Test
+    public void testApplyRoundsAmountsWrittenAsDoubles() throws DataStorageException {
+        debtManager.apply(new LogRecord(RecordType.DEBT_BALANCE, "user1", "user2", "1.2345678E7"));
+        debtManager.apply(new LogRecord(RecordType.PAYMENT_RECORDED, "user1", "user3", "3.3333333333333335"));
+
+        assertEquals(1234567800L, debtManager.getDebt("user1", "user2"));
+        assertEquals(List.of(333L), debtManager.getPayments("user1").get("user3"));
+    }
+
+    @Test
+    public void testGetDebtsIsNotAffectedByLaterUpdates() throws DataStorageException {
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user1", "user2", "10.0"));
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user3", "user1", "2.0"));
+        debtManager.apply(new LogRecord(RecordType.PAYMENT_MADE, "user1", "user2", "1.0"));
+        UserDebts debts = debtManager.getDebts("user1");
+        Map<String, List<Long>> payments = debtManager.getPayments("user1");
+
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user1", "user3", "5.0"));
+        debtManager.apply(new LogRecord(RecordType.PAYMENT_MADE, "user1", "user2", "9.0"));
+
+        assertEquals(new UserDebts(Map.of("user3", 200L), Map.of("user2", 900L)), debts);
+        assertEquals(Map.of("user2", List.of(100L)), payments);
+        assertEquals(new UserDebts(Map.of(), Map.of("user3", 300L)), debtManager.getDebts("user1"));
+        assertEquals(Map.of("user2", List.of(100L, 900L)), debtManager.getPayments("user1"));
+    }
+
+    @Test
+    public void testPaymentBeyondDebtKeepsPreviousReverseDebt() throws DataStorageException {
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user2", "user1", "3.0"));
+        debtManager.apply(new LogRecord(RecordType.PAYMENT_MADE, "user1", "user2", "2.0"));
+
+        assertEquals(500L, debtManager.getDebt("user2", "user1"));
+        assertEquals(0L, debtManager.getDebt("user1", "user2"));
+    }
+
+    @Test
+    public void testGetBalanceTracksRunningTotals() throws DataStorageException {
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user2", "user1", "10.0"));
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user3", "user1", "4.0"));
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user1", "user3", "6.0"));
+        debtManager.apply(new LogRecord(RecordType.PAYMENT_MADE, "user2", "user1", "2.5"));
+
+        assertEquals(new UserBalance("user1", 750L, 200L), debtManager.getBalance("user1"));
+        assertEquals(new UserBalance("user2", 0L, 750L), debtManager.getBalance("user2"));
+        assertEquals(new UserBalance("user3", 200L, 0L), debtManager.getBalance("user3"));
+        assertEquals(new UserBalance("user4", 0L, 0L), debtManager.getBalance("user4"));
+    }
+
+    @Test
+    public void testGetTopBalances() throws DataStorageException {
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user2", "user1", "10.0"));
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user3", "user4", "3.0"));
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user5", "user2", "3.0"));
+        debtManager.apply(new LogRecord(RecordType.PAYMENT_MADE, "user3", "user4", "3.0"));
+
+        assertEquals(List.of(new UserBalance("user1", 1000L, 0L), new UserBalance("user5", 0L, 300L),
+            new UserBalance("user2", 300L, 1000L)), debtManager.getTopBalances(5));
+        assertEquals(List.of(new UserBalance("user1", 1000L, 0L), new UserBalance("user5", 0L, 300L)),
+            debtManager.getTopBalances(2));
+        assertThrows(IllegalArgumentException.class, () -> debtManager.getTopBalances(0));
+    }
+
+    @Test
+    public void testGetTopBalancesFollowsBalanceChanges() throws DataStorageException {
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user2", "user1", "10.0"));
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user4", "user3", "5.0"));
+        debtManager.apply(new LogRecord(RecordType.DEBT_ADDED, "user4", "user3", "7.0"));
+        debtManager.apply(new LogRecord(RecordType.PAYMENT_MADE, "user2", "user1", "10.0"));
+
+        assertEquals(List.of(new UserBalance("user3", 1200L, 0L), new UserBalance("user4", 0L, 1200L)),
+            debtManager.getTopBalances(5));
     }
 }
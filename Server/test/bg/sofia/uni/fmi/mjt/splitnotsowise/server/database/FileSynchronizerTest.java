@@ -0,0 +1,39 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class FileSynchronizerTest {
+
+    @Test
+    public void testSyncKeepsFileContent() throws IOException, DataStorageException {
+        Path testFilePath = Path.of("testSync.txt");
+        Files.writeString(testFilePath, "payee,amount\nuser2,10.0\n");
+
+        FileSynchronizer.sync(testFilePath);
+
+        assertEquals("payee,amount\nuser2,10.0\n", Files.readString(testFilePath));
+        Files.delete(testFilePath);
+    }
+
+    @Test
+    public void testSyncMissingFile() {
+        Path testFilePath = Path.of("missingSync.txt");
+
+        assertDoesNotThrow(() -> FileSynchronizer.sync(testFilePath));
+        assertFalse(Files.exists(testFilePath));
+    }
+
+    @Test
+    public void testSyncDirectory() {
+        assertDoesNotThrow(() -> FileSynchronizer.syncDirectory(Path.of(".")));
+    }
+}
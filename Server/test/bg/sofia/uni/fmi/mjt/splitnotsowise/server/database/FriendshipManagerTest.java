@@ -6,6 +6,10 @@ import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.hasher.PasswordHasher;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.AddFriendshipStatus;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.LogRecord;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.RecordType;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngines;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,12 +29,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class FriendshipManagerTest {
 
     private static UserManager userManager;
     private static NotificationManager notificationManager;
+    private static StorageEngine storageEngine;
     private static FriendshipManager friendshipManager;
     public final Path testFriendsFilePath = Paths.get("testFriends.txt");
 
@@ -41,18 +47,20 @@ public class FriendshipManagerTest {
 
         userManager = mock();
         notificationManager = mock();
+        storageEngine = mock();
         UserManager.setInstance(userManager);
         NotificationManager.setInstance(notificationManager);
+        StorageEngines.setInstance(storageEngine);
 
         FriendshipManager.resetInstance();
         friendshipManager = FriendshipManager.getInstance();
-        friendshipManager.getFriendsByUsernameMap().clear();
     }
 
     @AfterEach
     public void cleanup() throws IOException {
         UserManager.resetInstance();
         NotificationManager.resetInstance();
+        StorageEngines.resetInstance();
 
         FriendshipManager.resetFriendsFilePath();
         Files.delete(testFriendsFilePath);
@@ -68,23 +76,15 @@ public class FriendshipManagerTest {
 
         friendshipManager.loadFriendships();
 
-        Map<String, Set<String>> friendsByUsernameMap = friendshipManager.getFriendsByUsernameMap();
-        assertEquals(3, friendsByUsernameMap.size());
-        assertTrue(friendsByUsernameMap.containsKey("user1"));
-        assertTrue(friendsByUsernameMap.containsKey("user2"));
-        assertTrue(friendsByUsernameMap.containsKey("user3"));
-        assertTrue(friendsByUsernameMap.get("user1").contains("user2"));
-        assertTrue(friendsByUsernameMap.get("user2").contains("user1"));
-        assertTrue(friendsByUsernameMap.get("user2").contains("user3"));
-        assertTrue(friendsByUsernameMap.get("user3").contains("user2"));
+        assertEquals(Set.of("user2"), friendshipManager.getFriends("user1"));
+        assertEquals(Set.of("user1", "user3"), friendshipManager.getFriends("user2"));
+        assertEquals(Set.of("user2"), friendshipManager.getFriends("user3"));
     }
 
     @Test
     public void testFriendshipExist() {
-        Map<String, Set<String>> friendsByUsernameMap = friendshipManager.getFriendsByUsernameMap();
-        friendsByUsernameMap.put("user1", Set.of("user2"));
-        friendsByUsernameMap.put("user2", Set.of("user1", "user3"));
-        friendsByUsernameMap.put("user3", Set.of("user2"));
+        friendshipManager.apply(new LogRecord(RecordType.FRIENDSHIP_ADDED, "user1", "user2"));
+        friendshipManager.apply(new LogRecord(RecordType.FRIENDSHIP_ADDED, "user2", "user3"));
 
         assertTrue(friendshipManager.friendshipExist("user1", "user2"));
         assertTrue(friendshipManager.friendshipExist("user2", "user1"));
@@ -105,13 +105,12 @@ public class FriendshipManagerTest {
         when(userManager.getUserByUsernameMap()).thenReturn(usersByUsernameMap);
 
         AddFriendshipStatus status = friendshipManager.addFriendship("user1", "user2");
-        Map<String, Set<String>> friendsByUsernameMap = friendshipManager.getFriendsByUsernameMap();
 
         assertEquals(AddFriendshipStatus.SUCCESS, status);
-        assertTrue(friendsByUsernameMap.containsKey("user1"));
-        assertTrue(friendsByUsernameMap.containsKey("user2"));
-        assertTrue(friendsByUsernameMap.get("user1").contains("user2"));
-        assertTrue(friendsByUsernameMap.get("user2").contains("user1"));
+        assertEquals(Set.of("user2"), friendshipManager.getFriends("user1"));
+        assertEquals(Set.of("user1"), friendshipManager.getFriends("user2"));
+        verify(storageEngine).append(new LogRecord(RecordType.FRIENDSHIP_ADDED, "user1", "user2"));
+        verify(storageEngine).flush();
     }
 
     @Test
@@ -6,6 +6,10 @@ import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.hasher.PasswordHasher;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.CreateGroupStatus;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.LogRecord;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.RecordType;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngines;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,19 +21,29 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class GroupManagerTest {
 
     private static UserManager userManager;
     private static NotificationManager notificationManager;
+    private static StorageEngine storageEngine;
     private static GroupManager groupManager;
     public final Path testGroupsFilePath = Paths.get("testGroups.txt");
 
@@ -40,18 +54,20 @@ public class GroupManagerTest {
 
         userManager = mock();
         notificationManager = mock();
+        storageEngine = mock();
         UserManager.setInstance(userManager);
         NotificationManager.setInstance(notificationManager);
+        StorageEngines.setInstance(storageEngine);
 
         GroupManager.resetInstance();
         groupManager = GroupManager.getInstance();
-        groupManager.getGroupMembersByGroupNameMap().clear();
     }
 
     @AfterEach
     public void cleanup() throws IOException {
         UserManager.resetInstance();
         NotificationManager.resetInstance();
+        StorageEngines.resetInstance();
 
         GroupManager.resetGroupsFilePath();
         Files.delete(testGroupsFilePath);
@@ -106,6 +122,8 @@ public class GroupManagerTest {
         assertTrue(groupNamesByUsernameMap.containsKey("user2"));
         assertTrue(groupNamesByUsernameMap.get("user1").contains("group1"));
         assertTrue(groupNamesByUsernameMap.get("user2").contains("group1"));
+        verify(storageEngine).append(new LogRecord(RecordType.GROUP_CREATED, "group1", "user1", "user2"));
+        verify(storageEngine).flush();
     }
 
     @Test
@@ -146,4 +164,41 @@ public class GroupManagerTest {
 
         assertEquals(CreateGroupStatus.MEMBERS_CONTAIN_CREATORS_USERNAME, status);
     }
+
+    @Test
+    public void testCreateGroupFailedAppendReleasesGroupName() throws DataStorageException {
+        User user2 = new User("First2", "Last2", "user2", PasswordHasher.hash("password"));
+        when(userManager.getUserByUsernameMap()).thenReturn(Map.of("user2", user2));
+        when(storageEngine.append(any(LogRecord.class))).thenThrow(new DataStorageException("disk is full"))
+            .thenReturn(1L);
+
+        assertThrows(DataStorageException.class, () -> groupManager.createGroup("group1", "user1", "user2"));
+        assertFalse(groupManager.getGroupMembersByGroupNameMap().containsKey("group1"));
+        assertEquals(CreateGroupStatus.SUCCESS, groupManager.createGroup("group1", "user1", "user2"));
+    }
+
+    @Test
+    public void testConcurrentCreateGroupWithSameName() throws Exception {
+        final int threadsCount = 8;
+        User user2 = new User("First2", "Last2", "user2", PasswordHasher.hash("password"));
+        when(userManager.getUserByUsernameMap()).thenReturn(Map.of("user2", user2));
+        ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+        List<Future<CreateGroupStatus>> results = new ArrayList<>();
+        for (int i = 0; i < threadsCount; i++) {
+            String creator = "creator" + i;
+            results.add(executor.submit(() -> groupManager.createGroup("group1", creator, "user2")));
+        }
+        int createdCount = 0;
+        for (Future<CreateGroupStatus> result : results) {
+            if (result.get() == CreateGroupStatus.SUCCESS) {
+                createdCount++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, createdCount);
+        assertEquals(Set.of("group1"), groupManager.getGroupNamesByUsernameMap().get("user2"));
+        assertThrows(UnsupportedOperationException.class,
+            () -> groupManager.getGroupNamesByUsernameMap().get("user2").add("group2"));
+    }
 }
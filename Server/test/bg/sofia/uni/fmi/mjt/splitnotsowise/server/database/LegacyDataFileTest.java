@@ -0,0 +1,44 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LegacyDataFileTest {
+    private final Path testFilePath = Path.of("testLegacy.txt");
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(testFilePath);
+    }
+
+    @Test
+    public void testReadLinesDropsUnterminatedLastLine() throws IOException {
+        Files.writeString(testFilePath, "payee,amount\r\nuser2,10.0\nuser3,5");
+
+        assertEquals(List.of("payee,amount", "user2,10.0"), LegacyDataFile.readLines(testFilePath));
+    }
+
+    @Test
+    public void testReadLinesKeepsTerminatedLines() throws IOException {
+        Files.writeString(testFilePath, "first\n\nsecond\n");
+
+        assertEquals(List.of("first", "", "second"), LegacyDataFile.readLines(testFilePath));
+    }
+
+    @Test
+    public void testSplit() {
+        assertArrayEquals(new String[] {"user2", "10.0"}, LegacyDataFile.split(" user2 , 10.0", 2));
+        assertNull(LegacyDataFile.split("user2", 2));
+        assertNull(LegacyDataFile.split("user2,10.0,3", 2));
+        assertNull(LegacyDataFile.split("user2, ", 2));
+    }
+}
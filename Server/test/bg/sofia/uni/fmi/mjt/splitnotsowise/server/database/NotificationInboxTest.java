@@ -0,0 +1,73 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NotificationInboxTest {
+    @Test
+    public void testPeekReturnsOldestFirst() {
+        NotificationInbox inbox = new NotificationInbox(10);
+        inbox.add("first");
+        inbox.add("second");
+        inbox.add("third");
+
+        assertEquals(List.of("first", "second"), inbox.peek(2));
+        assertEquals(List.of("first", "second", "third"), inbox.peek(5));
+        assertEquals(3, inbox.getUnreadCount());
+    }
+
+    @Test
+    public void testAcknowledgeMovesCursor() {
+        NotificationInbox inbox = new NotificationInbox(10);
+        inbox.add("first");
+        inbox.add("second");
+
+        inbox.acknowledge(1);
+        inbox.add("third");
+
+        assertEquals(List.of("second", "third"), inbox.peekAll());
+        inbox.acknowledge(2);
+        assertTrue(inbox.isEmpty());
+        assertEquals(List.of(), inbox.peekAll());
+    }
+
+    @Test
+    public void testFullInboxDropsOldest() {
+        NotificationInbox inbox = new NotificationInbox(3);
+        for (int i = 1; i <= 5; i++) {
+            inbox.add("notification" + i);
+        }
+
+        assertEquals(3, inbox.getUnreadCount());
+        assertEquals(List.of("notification3", "notification4", "notification5"), inbox.peekAll());
+    }
+
+    @Test
+    public void testInboxGrowsAcrossWrappedCursor() {
+        NotificationInbox inbox = new NotificationInbox(100);
+        for (int i = 0; i < 4; i++) {
+            inbox.add("old" + i);
+        }
+        inbox.acknowledge(3);
+        for (int i = 0; i < 6; i++) {
+            inbox.add("new" + i);
+        }
+
+        assertEquals(List.of("old3", "new0", "new1", "new2", "new3", "new4", "new5"), inbox.peekAll());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        NotificationInbox inbox = new NotificationInbox(2);
+        inbox.add("first");
+
+        assertThrows(IllegalArgumentException.class, () -> new NotificationInbox(0));
+        assertThrows(IllegalArgumentException.class, () -> inbox.peek(0));
+        assertThrows(IllegalArgumentException.class, () -> inbox.acknowledge(2));
+    }
+}
@@ -4,6 +4,10 @@ import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.NotificationManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.hasher.PasswordHasher;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.LogRecord;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.RecordType;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngines;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,18 +18,24 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class NotificationManagerTest {
     private static UserManager userManager;
     private static NotificationManager notificationManager;
+    private static StorageEngine storageEngine;
 
     @BeforeEach
     public void setUp() throws IOException {
@@ -34,16 +44,18 @@ public class NotificationManagerTest {
 
         userManager = mock();
         UserManager.setInstance(userManager);
+        storageEngine = mock();
+        StorageEngines.setInstance(storageEngine);
 
         NotificationManager.resetInstance();
         notificationManager = NotificationManager.getInstance();
-        notificationManager.getNotificationsByUsernameMap().clear();
     }
 
 
     @AfterEach
     public void cleanup() {
         UserManager.resetInstance();
+        StorageEngines.resetInstance();
 
         NotificationManager.resetProjectName();
         NotificationManager.resetNotificationsFileNamePostfix();
@@ -63,7 +75,6 @@ public class NotificationManagerTest {
             writer.write("user5 added you to \"group1\" group\n");
         }
 
-        Map<String, List<String>> notificationsByUsernameMap = notificationManager.getNotificationsByUsernameMap();
         when(userManager.getUserByUsernameMap()).thenReturn(Map.of(
             "user1", new User("User1", "Last1", "user1",
                 PasswordHasher.hash("password")),
@@ -83,30 +94,31 @@ public class NotificationManagerTest {
             "user4 added you as a friend",
             "user5 added you to \"group1\" group");
 
-        assertEquals(1, notificationsByUsernameMap.size());
-        assertTrue(notificationsByUsernameMap.containsKey("user1"));
-
-        assertEquals(4, notificationsByUsernameMap.get("user1").size());
-        assertIterableEquals(expected, notificationsByUsernameMap.get("user1"));
+        assertEquals(List.of(), notificationManager.getUnreadNotifications("user2"));
+        assertIterableEquals(expected, notificationManager.getUnreadNotifications("user1"));
         Files.delete(testNotificationsFilePath);
     }
 
     @Test
     public void testAddPaymentApprovedNotification() throws DataStorageException {
-        notificationManager.addPaymentApprovedNotification("user1", "user2", 10.0);
+        notificationManager.addPaymentApprovedNotification("user1", "user2", 1000L);
         List<String> notifications = notificationManager.getNotifications("user1");
 
         assertEquals(1, notifications.size());
-        assertEquals("user2 approved your payment of 10.0 lv", notifications.get(0));
+        assertEquals("user2 approved your payment of 10.00 lv", notifications.get(0));
+        verify(storageEngine).append(new LogRecord(RecordType.NOTIFICATION_ADDED, "user1",
+            "user2 approved your payment of 10.00 lv"));
+        verify(storageEngine).append(new LogRecord(RecordType.NOTIFICATIONS_READ, "user1", "1"));
+        verify(storageEngine).flush();
     }
 
     @Test
     public void testAddAmountSplitNotification() throws DataStorageException {
-        notificationManager.addAmountSplitNotification("user1", "user2", 5.0);
+        notificationManager.addAmountSplitNotification("user1", "user2", 500L);
         List<String> notifications = notificationManager.getNotifications("user1");
 
         assertEquals(1, notifications.size());
-        assertEquals("user2 added 5.0 lv to your debt to him", notifications.get(0));
+        assertEquals("user2 added 5.00 lv to your debt to him", notifications.get(0));
     }
 
     @Test
@@ -126,4 +138,110 @@ public class NotificationManagerTest {
         assertEquals(1, notifications.size());
         assertEquals("user2 added you to \"group1\" group", notifications.get(0));
     }
+
+    @Test
+    public void testGetNotificationsClearsInbox() throws DataStorageException {
+        notificationManager.addFriendAddedNotification("user1", "user2");
+        notificationManager.getNotifications("user1");
+
+        assertTrue(notificationManager.getNotifications("user1").isEmpty());
+    }
+
+    @Test
+    public void testGetNotificationsPage() throws DataStorageException {
+        notificationManager.addFriendAddedNotification("user1", "user2");
+        notificationManager.addFriendAddedNotification("user1", "user3");
+        notificationManager.addFriendAddedNotification("user1", "user4");
+
+        NotificationPage page = notificationManager.getNotifications("user1", 2);
+
+        assertEquals(List.of("user2 added you as a friend", "user3 added you as a friend"), page.notifications());
+        assertEquals(1, page.remainingCount());
+        assertEquals(List.of("user4 added you as a friend"), notificationManager.getUnreadNotifications("user1"));
+        verify(storageEngine).append(new LogRecord(RecordType.NOTIFICATIONS_READ, "user1", "2"));
+    }
+
+    @Test
+    public void testInboxCapacityDropsOldest() throws DataStorageException {
+        notificationManager.setInboxCapacity(2);
+        notificationManager.addFriendAddedNotification("user1", "user2");
+        notificationManager.addFriendAddedNotification("user1", "user3");
+        notificationManager.addFriendAddedNotification("user1", "user4");
+
+        assertEquals(List.of("user3 added you as a friend", "user4 added you as a friend"),
+            notificationManager.getNotifications("user1"));
+    }
+
+    @Test
+    public void testApplyReplaysPartialRead() throws DataStorageException {
+        notificationManager.apply(new LogRecord(RecordType.NOTIFICATION_ADDED, "user1", "first"));
+        notificationManager.apply(new LogRecord(RecordType.NOTIFICATION_ADDED, "user1", "second"));
+        notificationManager.apply(new LogRecord(RecordType.NOTIFICATIONS_READ, "user1", "1"));
+
+        assertEquals(List.of("second"), notificationManager.getUnreadNotifications("user1"));
+    }
+
+    @Test
+    public void testApplyReplaysAddedAndReadNotifications() throws DataStorageException {
+        notificationManager.apply(new LogRecord(RecordType.NOTIFICATION_ADDED, "user1", "first"));
+        notificationManager.apply(new LogRecord(RecordType.NOTIFICATIONS_READ, "user1"));
+        notificationManager.apply(new LogRecord(RecordType.NOTIFICATION_ADDED, "user1", "second"));
+
+        assertEquals(List.of("second"), notificationManager.getUnreadNotifications("user1"));
+    }
+
+    @Test
+    public void testGetNotificationsPageWithConcurrentEviction() throws Exception {
+        int notificationsCount = 500;
+        notificationManager.setInboxCapacity(notificationsCount);
+        notificationManager.setMaxCachedUsers(1);
+        AtomicBoolean isWritingDone = new AtomicBoolean(false);
+        List<String> readNotifications = new CopyOnWriteArrayList<>();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        threads.add(new Thread(() -> {
+            try {
+                for (int i = 0; i < notificationsCount; i++) {
+                    notificationManager.addFriendAddedNotification("user1", "friend" + i);
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            } finally {
+                isWritingDone.set(true);
+            }
+        }));
+        for (int i = 0; i < 2; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    while (!isWritingDone.get() || !notificationManager.getUnreadNotifications("user1").isEmpty()) {
+                        readNotifications.addAll(notificationManager.getNotifications("user1", 1).notifications());
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            try {
+                for (int i = 0; !isWritingDone.get(); i++) {
+                    String user = "user" + (2 + i % 3);
+                    notificationManager.addFriendAddedNotification(user, "friend" + i);
+                    notificationManager.getNotifications(user);
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        }));
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), failures.toString());
+        assertEquals(notificationsCount, readNotifications.size());
+        assertEquals(notificationsCount, Set.copyOf(readNotifications).size());
+        assertTrue(notificationManager.getUnreadNotifications("user1").isEmpty());
+    }
 }
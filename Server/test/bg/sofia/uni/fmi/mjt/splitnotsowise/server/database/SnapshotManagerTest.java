@@ -0,0 +1,139 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.hasher.PasswordHasher;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.FlatFileStorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngines;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.WriteAheadLog;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SnapshotManagerTest {
+    private final Path testDirectory = Path.of("testSnapshot");
+    private final Path testSnapshotFilePath = testDirectory.resolve("ledger.snapshot");
+
+    @BeforeEach
+    public void setUp() throws IOException, DataStorageException {
+        deleteTestDirectory();
+        Files.createDirectory(testDirectory);
+        WriteAheadLog.setLogDirectory(testDirectory);
+        resetManagers();
+        StorageEngines.getInstance().recover();
+        UserManager.getInstance().registerUser(new User("First1", "Last1", "user1", PasswordHasher.hash("pw")));
+        UserManager.getInstance().registerUser(new User("First2", "Last2", "user2", PasswordHasher.hash("pw")));
+        FriendshipManager.getInstance().addFriendship("user1", "user2");
+        DebtManager.getInstance().splitFriend("user2", "user1", 1000L);
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException, DataStorageException {
+        StorageEngines.getInstance().close();
+        resetManagers();
+        WriteAheadLog.resetLogDirectory();
+        StorageEngines.resetInstance();
+        deleteTestDirectory();
+    }
+
+    private void resetManagers() {
+        WriteAheadLog.resetInstance();
+        StorageEngines.setInstance(new FlatFileStorageEngine(WriteAheadLog.getInstance(), testSnapshotFilePath));
+        UserManager.resetInstance();
+        FriendshipManager.resetInstance();
+        GroupManager.resetInstance();
+        DebtManager.resetInstance();
+        NotificationManager.resetInstance();
+        SnapshotManager.resetInstance();
+    }
+
+    private void restart() throws DataStorageException {
+        StorageEngines.getInstance().close();
+        resetManagers();
+        SnapshotManager.getInstance().initialize();
+    }
+
+    private void deleteTestDirectory() throws IOException {
+        if (Files.exists(testDirectory)) {
+            try (Stream<Path> files = Files.list(testDirectory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(testDirectory);
+        }
+    }
+
+    private List<String> listTestDirectory() throws IOException {
+        try (Stream<Path> files = Files.list(testDirectory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private void assertStateRestored() throws DataStorageException {
+        assertTrue(UserManager.getInstance().getUserByUsernameMap().containsKey("user1"));
+        assertTrue(FriendshipManager.getInstance().friendshipExist("user1", "user2"));
+        assertEquals(500L, DebtManager.getInstance().getDebt("user2", "user1"));
+        assertEquals(List.of("user1 added you as a friend", "user1 added 5.00 lv to your debt to him"),
+            NotificationManager.getInstance().getUnreadNotifications("user2"));
+    }
+
+    @Test
+    public void testTakeSnapshotCompactsLog() throws DataStorageException, IOException {
+        assertTrue(SnapshotManager.getInstance().takeSnapshot());
+        assertFalse(SnapshotManager.getInstance().takeSnapshot());
+
+        assertEquals(List.of("ledger-1.wal", "ledger.snapshot"), listTestDirectory());
+    }
+
+    @Test
+    public void testInitializeLoadsSnapshot() throws DataStorageException {
+        SnapshotManager.getInstance().takeSnapshot();
+
+        restart();
+
+        assertStateRestored();
+    }
+
+    @Test
+    public void testInitializeReplaysLogAfterSnapshot() throws DataStorageException, IOException {
+        SnapshotManager.getInstance().takeSnapshot();
+        DebtManager.getInstance().payDebt("user2", "user1", 200L);
+
+        restart();
+
+        assertEquals(300L, DebtManager.getInstance().getDebt("user2", "user1"));
+        assertEquals(List.of(200L), DebtManager.getInstance().getPayments("user2").get("user1"));
+        assertEquals(List.of("ledger-2.wal", "ledger.snapshot"), listTestDirectory());
+    }
+
+    @Test
+    public void testInitializeWithoutSnapshotReplaysWholeLog() throws DataStorageException, IOException {
+        UserManager.setUsersFilePath(testDirectory.resolve("users.txt"));
+        FriendshipManager.setFriendsFilePath(testDirectory.resolve("friends.txt"));
+        GroupManager.setGroupsFilePath(testDirectory.resolve("groups.txt"));
+        Files.createFile(testDirectory.resolve("users.txt"));
+        Files.createFile(testDirectory.resolve("friends.txt"));
+        Files.createFile(testDirectory.resolve("groups.txt"));
+        try {
+            restart();
+
+            assertStateRestored();
+            assertTrue(Files.exists(testSnapshotFilePath));
+        } finally {
+            UserManager.resetUsersFilePath();
+            FriendshipManager.resetFriendsFilePath();
+            GroupManager.resetGroupsFilePath();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UserIdTableTest {
+    private UserIdTable userIds;
+
+    @BeforeEach
+    public void setUp() {
+        UserIdTable.resetInstance();
+        userIds = UserIdTable.getInstance();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        UserIdTable.resetInstance();
+    }
+
+    @Test
+    public void testInternReturnsStableIds() {
+        int user1Id = userIds.intern("user1");
+        int user2Id = userIds.intern("user2");
+
+        assertEquals(user1Id, userIds.intern("user1"));
+        assertNotEquals(user1Id, user2Id);
+        assertEquals(user2Id, userIds.getId("user2"));
+        assertEquals("user1", userIds.getUsername(user1Id));
+        assertEquals(2, userIds.size());
+    }
+
+    @Test
+    public void testGetIdOfUnknownUser() {
+        assertEquals(UserIdTable.UNKNOWN_USER_ID, userIds.getId("user1"));
+        assertThrows(IllegalArgumentException.class, () -> userIds.getUsername(0));
+    }
+
+    @Test
+    public void testInternBeyondInitialCapacity() {
+        for (int i = 0; i < 5_000; i++) {
+            assertEquals(i, userIds.intern("user" + i));
+        }
+
+        assertEquals("user4999", userIds.getUsername(4_999));
+    }
+}
@@ -4,6 +4,10 @@ import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.hasher.PasswordHasher;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.RegistrationStatus;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.LogRecord;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.RecordType;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngine;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.StorageEngines;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,26 +22,35 @@ import java.nio.file.Paths;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 public class UserManagerTest {
 
     private static UserManager userManager;
+    private static StorageEngine storageEngine;
     public final Path testUsersFilePath = Paths.get("testUsers.txt");
 
     @BeforeEach
     public void setUp() throws IOException {
         Files.createFile(testUsersFilePath);
         UserManager.setUsersFilePath(testUsersFilePath);
+        storageEngine = mock();
+        StorageEngines.setInstance(storageEngine);
 
         UserManager.resetInstance();
         userManager = UserManager.getInstance();
-        userManager.getUserByUsernameMap().clear();
     }
 
 
     @AfterEach
     public void cleanup() throws IOException {
         UserManager.resetUsersFilePath();
+        StorageEngines.resetInstance();
         Files.delete(testUsersFilePath);
     }
 
@@ -59,6 +72,21 @@ public class UserManagerTest {
         assertEquals("Last2", userByUsernameMap.get("user2").lastName());
     }
 
+    @Test
+    public void testLoadUsersSkipsTornAndMalformedLines() throws Exception {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(testUsersFilePath.toString()))) {
+            writer.write("first name, last name, username, password hash\n");
+            writer.write("First1,Last1,user1," + PasswordHasher.hash("password") + "\n");
+            writer.write("First2,Last2\n");
+            writer.write("First3,Last3,user3,");
+        }
+
+        userManager.loadUsers();
+
+        assertEquals(Map.of("user1", new User("First1", "Last1", "user1", PasswordHasher.hash("password"))),
+            userManager.getUserByUsernameMap());
+    }
+
     @Test
     public void testRegisterUserSuccess() throws DataStorageException {
         User newUser = new User("First1", "Last1", "user1",
@@ -68,14 +96,33 @@ public class UserManagerTest {
 
         assertEquals(RegistrationStatus.SUCCESS, status);
         assertEquals(newUser, userByUsernameMap.get("user1"));
+        verify(storageEngine).append(new LogRecord(RecordType.USER_REGISTERED, "First1", "Last1", "user1",
+            newUser.passwordHash()));
+    }
+
+    @Test
+    public void testRegisterUserLogFailure() throws DataStorageException {
+        User newUser = new User("First1", "Last1", "user1",
+            PasswordHasher.hash("password"));
+        doThrow(new DataStorageException("disk is full")).when(storageEngine).awaitDurable(anyLong());
+
+        assertThrows(DataStorageException.class, () -> userManager.registerUser(newUser));
+        assertFalse(userManager.getUserByUsernameMap().containsKey("user1"));
+    }
+
+    @Test
+    public void testApplyUserRegistered() {
+        userManager.apply(new LogRecord(RecordType.USER_REGISTERED, "First1", "Last1", "user1", "hash"));
+
+        assertEquals(new User("First1", "Last1", "user1", "hash"), userManager.getUserByUsernameMap().get("user1"));
     }
 
     @Test
     public void testRegisterUserUsernameAlreadyExists() throws DataStorageException {
         User existingUser = new User("First1", "Last2", "user1",
             PasswordHasher.hash("password"));
+        userManager.registerUser(existingUser);
         Map<String, User> userByUsernameMap = userManager.getUserByUsernameMap();
-        userByUsernameMap.put("user1", existingUser);
         User newUser = new User("First2", "Last2", "user1",
             PasswordHasher.hash("password"));
         RegistrationStatus status = userManager.registerUser(newUser);
@@ -0,0 +1,254 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.database;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.LogRecord;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage.RecordType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UserStateCacheTest {
+    private static final String POSTFIX = ".test";
+    private final Path testDirectory = Path.of("testCache");
+    private UserStateCache<List<String>> cache;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        deleteTestDirectory();
+        cache = new UserStateCache<>(testDirectory, POSTFIX, UserStateCacheTest::encode, UserStateCacheTest::decode);
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        deleteTestDirectory();
+    }
+
+    private void deleteTestDirectory() throws IOException {
+        if (Files.exists(testDirectory)) {
+            try (Stream<Path> files = Files.list(testDirectory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(testDirectory);
+        }
+    }
+
+    private static List<LogRecord> encode(String username, List<String> messages) {
+        return messages.stream()
+            .map(message -> new LogRecord(RecordType.NOTIFICATION_ADDED, username, message))
+            .toList();
+    }
+
+    private static List<String> decode(List<LogRecord> records) {
+        List<String> messages = new ArrayList<>();
+        for (LogRecord record : records) {
+            messages.add(record.field(1));
+        }
+        return messages;
+    }
+
+    private void add(String username, String message) throws DataStorageException {
+        cache.compute(username, messages -> {
+            List<String> updatedMessages = messages == null ? new ArrayList<>() : new ArrayList<>(messages);
+            updatedMessages.add(message);
+            return List.copyOf(updatedMessages);
+        });
+    }
+
+    @Test
+    public void testColdUsersAreSpilledAndReloaded() throws DataStorageException {
+        cache.setMaxCachedUsers(2);
+        add("user1", "first");
+        add("user2", "second");
+        add("user3", "third");
+
+        assertEquals(2, cache.getCachedUsersCount());
+        assertEquals(3, cache.size());
+        assertTrue(Files.exists(testDirectory.resolve("user1" + POSTFIX)));
+
+        assertEquals(List.of("first"), cache.get("user1"));
+        assertFalse(Files.exists(testDirectory.resolve("user1" + POSTFIX)));
+        assertTrue(Files.exists(testDirectory.resolve("user2" + POSTFIX)));
+        assertEquals(2, cache.getCachedUsersCount());
+    }
+
+    @Test
+    public void testUpdateSpilledUser() throws DataStorageException {
+        cache.setMaxCachedUsers(1);
+        add("user1", "first");
+        add("user2", "second");
+        add("user1", "third");
+
+        assertEquals(List.of("first", "third"), cache.get("user1"));
+        assertEquals(List.of("second"), cache.get("user2"));
+    }
+
+    @Test
+    public void testComputeReplacesSpilledUserState() throws DataStorageException {
+        cache.setMaxCachedUsers(1);
+        add("user1", "first");
+        add("user2", "second");
+        List<String> previous = cache.get("user2");
+
+        cache.compute("user2", messages -> List.of(messages.get(0), "third"));
+
+        assertEquals(List.of("second"), previous);
+        assertEquals(List.of("second", "third"), cache.get("user2"));
+        assertEquals(List.of("first"), cache.get("user1"));
+    }
+
+    @Test
+    public void testComputeNullRemovesUser() throws DataStorageException {
+        cache.setMaxCachedUsers(1);
+        add("user1", "first");
+        add("user2", "second");
+
+        cache.compute("user1", messages -> null);
+
+        assertNull(cache.get("user1"));
+        assertFalse(Files.exists(testDirectory.resolve("user1" + POSTFIX)));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testForEachVisitsSpilledUsers() throws DataStorageException {
+        cache.setMaxCachedUsers(1);
+        add("user1", "first");
+        add("user2", "second");
+        Map<String, List<String>> visited = new HashMap<>();
+
+        cache.forEach(visited::put);
+
+        assertEquals(Map.of("user1", List.of("first"), "user2", List.of("second")), visited);
+        assertEquals(1, cache.getCachedUsersCount());
+    }
+
+    @Test
+    public void testReadSpilledUser() throws DataStorageException {
+        cache.setMaxCachedUsers(1);
+        add("user1", "first");
+        add("user2", "second");
+
+        assertEquals(List.of("first"), cache.read("user1", List::copyOf));
+        assertNull(cache.read("user3", List::size));
+        assertEquals(1, cache.getCachedUsersCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testConcurrentUpdatesWithEvictionKeepEveryMessage() throws Exception {
+        cache.setMaxCachedUsers(1);
+        int usersCount = 4;
+        int messagesCount = 50;
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < usersCount; i++) {
+            String username = "user" + i;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int j = 0; j < messagesCount; j++) {
+                        add(username, String.valueOf(j));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), failures.toString());
+        for (int i = 0; i < usersCount; i++) {
+            assertEquals(messagesCount, cache.get("user" + i).size());
+        }
+        assertEquals(usersCount, cache.size());
+    }
+
+    @Test
+    public void testReadNeverMissesUserBeingEvicted() throws Exception {
+        cache.setMaxCachedUsers(1);
+        add("user1", "first");
+        int readsCount = 2_000;
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int j = 0; j < readsCount; j++) {
+                        assertEquals(List.of("first"), cache.get("user1"));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            try {
+                for (int i = 0; i < readsCount; i++) {
+                    add("user" + (2 + i % 2), String.valueOf(i));
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        }));
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(failures.isEmpty(), failures.toString());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testClearDeletesSpilledUsers() throws DataStorageException, IOException {
+        cache.setMaxCachedUsers(1);
+        add("user1", "first");
+        add("user2", "second");
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        try (Stream<Path> files = Files.list(testDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testUnboundedCacheKeepsEveryUser() throws DataStorageException {
+        for (int i = 0; i < 10; i++) {
+            add("user" + i, "message");
+        }
+
+        assertEquals(10, cache.getCachedUsersCount());
+        assertFalse(Files.exists(testDirectory));
+    }
+
+    @Test
+    public void testSetNegativeMaxCachedUsers() {
+        assertThrows(IllegalArgumentException.class, () -> cache.setMaxCachedUsers(-1));
+    }
+}
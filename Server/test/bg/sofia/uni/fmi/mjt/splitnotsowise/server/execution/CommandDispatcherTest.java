@@ -0,0 +1,108 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.execution;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.io.IOHandler;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.BinaryCodec;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.Frame;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.Opcode;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.Protocol;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.ResponseStatus;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.session.ClientSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CommandDispatcherTest {
+
+    private IOHandler ioHandler;
+    private ClientSession session;
+    private CommandDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() {
+        ioHandler = mock();
+        IOHandler.setInstance(ioHandler);
+        session = new ClientSession(1024);
+        dispatcher = new CommandDispatcher(Executors.newSingleThreadExecutor());
+    }
+
+    @AfterEach
+    public void cleanup() throws InterruptedException {
+        dispatcher.shutdown(1, TimeUnit.SECONDS);
+        IOHandler.resetInstance();
+    }
+
+    @Test
+    public void testDispatchCompletesWithCommandOutput()
+        throws ExecutionException, InterruptedException, TimeoutException {
+        when(ioHandler.handle("status", session)).thenReturn("you don't have any money relations");
+        CompletableFuture<Frame> output = new CompletableFuture<>();
+
+        dispatcher.dispatch(new Frame(1, "status"), session, output::complete);
+
+        assertEquals(new Frame(1, "you don't have any money relations"), output.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDispatchCommandFailure() throws ExecutionException, InterruptedException, TimeoutException {
+        when(ioHandler.handle(anyString(), any())).thenThrow(new IllegalArgumentException("boom"));
+        CompletableFuture<Frame> output = new CompletableFuture<>();
+
+        dispatcher.dispatch(new Frame(1, "status"), session, output::complete);
+
+        assertEquals(new Frame(1, "an error occurred while executing the command"), output.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDispatchAfterShutdown() throws ExecutionException, InterruptedException, TimeoutException {
+        dispatcher.shutdown(1, TimeUnit.SECONDS);
+        CompletableFuture<Frame> output = new CompletableFuture<>();
+
+        dispatcher.dispatch(new Frame(1, "status"), session, output::complete);
+
+        assertEquals(new Frame(1, "server is shutting down, try again later"), output.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDispatchBinaryRequest() throws ExecutionException, InterruptedException, TimeoutException {
+        session.setProtocol(Protocol.BINARY);
+        when(ioHandler.handle(new String[] {"split-friend", "12.50", "user2"}, session))
+            .thenReturn("amount split successfully");
+        ByteBuffer request = ByteBuffer.allocate(16);
+        BinaryCodec.writeVarLong(request, Opcode.SPLIT_FRIEND.getCode());
+        BinaryCodec.writeSignedVarLong(request, 1250);
+        BinaryCodec.writeVarLong(request, 5);
+        request.put("user2".getBytes(StandardCharsets.UTF_8));
+        CompletableFuture<Frame> output = new CompletableFuture<>();
+
+        dispatcher.dispatch(new Frame(3, Arrays.copyOf(request.array(), request.position())), session, output::complete);
+
+        assertEquals(new Frame(3, BinaryCodec.encodeResponse(ResponseStatus.OK, "amount split successfully")),
+            output.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDispatchInvalidBinaryRequest() throws ExecutionException, InterruptedException, TimeoutException {
+        session.setProtocol(Protocol.BINARY);
+        CompletableFuture<Frame> output = new CompletableFuture<>();
+
+        dispatcher.dispatch(new Frame(4, new byte[] {99}), session, output::complete);
+
+        assertEquals(new Frame(4, BinaryCodec.encodeResponse(ResponseStatus.INVALID_REQUEST, "unknown opcode")),
+            output.get(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,76 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExecutionLanesTest {
+
+    private final ExecutionLanes executionLanes = new ExecutionLanes(16);
+
+    @Test
+    public void testExecuteReturnsTaskResult() {
+        assertEquals("done", executionLanes.execute(Set.of("user1", "user2"), () -> "done"));
+    }
+
+    @Test
+    public void testExecuteSerializesSameKey() throws Exception {
+        int[] counter = new int[1];
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(executor.submit(() -> executionLanes.execute(Set.of("user1"), () -> ++counter[0])));
+        }
+        for (Future<Integer> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(1000, counter[0]);
+    }
+
+    @Test
+    public void testExecuteRunsDifferentLanesInParallel() throws Exception {
+        String first = "user1";
+        String second = "user2";
+        assertNotEquals(executionLanes.laneOf(first), executionLanes.laneOf(second));
+
+        CountDownLatch secondFinished = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<Boolean> firstTask = executor.submit(() -> executionLanes.execute(Set.of(first),
+            () -> awaitQuietly(secondFinished)));
+        executor.submit(() -> executionLanes.execute(Set.of(second), () -> {
+            secondFinished.countDown();
+            return null;
+        }));
+
+        assertTrue(firstTask.get(1, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testInvalidLanesCount() {
+        assertThrows(IllegalArgumentException.class, () -> new ExecutionLanes(0));
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
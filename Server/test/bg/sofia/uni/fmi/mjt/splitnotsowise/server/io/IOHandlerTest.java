@@ -4,6 +4,9 @@ import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.DebtManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.FriendshipManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.GroupManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.NotificationManager;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.NotificationPage;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserBalance;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserDebts;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.database.UserManager;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.hasher.PasswordHasher;
@@ -15,19 +18,25 @@ import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.PaidStatus;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.RegistrationStatus;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.SplitFriendStatus;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.operationsstatus.SplitGroupStatus;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.session.ClientSession;
 import bg.sofia.uni.fmi.mjt.splitnotsowise.server.user.User;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.nio.channels.SelectionKey;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
@@ -44,11 +53,11 @@ public class IOHandlerTest {
     private DebtManager debtManager;
     private NotificationManager notificationManager;
     private InputValidator inputValidator;
-    private SelectionKey key;
+    private ClientSession session;
 
     @BeforeEach
     public void setUp() {
-        key = mock();
+        session = new ClientSession(1024);
         userManager = mock();
         notificationManager = mock();
         friendshipManager = mock();
@@ -81,7 +90,7 @@ public class IOHandlerTest {
     @Test
     public void testHandleInvalidArguments() {
         when(inputValidator.validateInputArgs(any(String[].class))).thenReturn(false);
-        String result = ioHandler.handle("register user1", key);
+        String result = ioHandler.handle("register user1", session);
 
         assertEquals("invalid arguments, use help", result);
         verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
@@ -89,7 +98,7 @@ public class IOHandlerTest {
 
     @Test
     public void testHandleUnknownCommand() {
-        String result = ioHandler.handle("unknown-command", key);
+        String result = ioHandler.handle("unknown-command", session);
 
         assertEquals("unknown command, use help", result);
         verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
@@ -97,7 +106,7 @@ public class IOHandlerTest {
 
     @Test
     public void testHandleQuitCommand() {
-        String result = ioHandler.handle("quit", key);
+        String result = ioHandler.handle("quit", session);
 
         assertEquals("bye, see you soon :)", result);
         verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
@@ -105,7 +114,7 @@ public class IOHandlerTest {
 
     @Test
     public void testHandleHelpCommand() {
-        String result = ioHandler.handle("help", key);
+        String result = ioHandler.handle("help", session);
 
         assertEquals("""
         when not logged in:
@@ -123,8 +132,12 @@ public class IOHandlerTest {
             paid <amount> <username>
             payment-history
             status
+            balance
+            balance <count> (administrators only)
             groups
-            notifications
+            notifications [<count>]
+            shutdown (administrators only)
+            backup (administrators only)
             quit""", result);
         verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
     }
@@ -133,7 +146,7 @@ public class IOHandlerTest {
     public void testHandleRegisterCommand() throws DataStorageException {
         when(userManager.registerUser(any(User.class))).thenReturn(RegistrationStatus.SUCCESS);
 
-        ioHandler.handle("register First1 Last1 user1 password", key);
+        ioHandler.handle("register First1 Last1 user1 password", session);
         User user = new User("First1", "Last1", "user1",
             PasswordHasher.hash("password"));
 
@@ -143,14 +156,14 @@ public class IOHandlerTest {
 
     @Test
     public void testHandleLoginCommand() throws DataStorageException {
-        when(key.attachment()).thenReturn(null);
+        session.setUser(null);
 
         User user1 = new User("First1", "Last1", "user1",
             PasswordHasher.hash("password"));
         when(userManager.getUserByUsernameMap()).thenReturn(Map.of("user1", user1));
         when(notificationManager.getNotifications(anyString())).thenReturn(List.of());
 
-        ioHandler.handle("login user1 password", key);
+        ioHandler.handle("login user1 password", session);
 
         verify(userManager).getUserByUsernameMap();
         verify(notificationManager).getNotifications(anyString());
@@ -161,11 +174,11 @@ public class IOHandlerTest {
     public void testHandleLogoutCommand() {
         User user = new User("First1", "Last1", "user1",
             PasswordHasher.hash("password"));
-        when(key.attachment()).thenReturn(user);
+        session.setUser(user);
 
-        ioHandler.handle("logout", key);
+        ioHandler.handle("logout", session);
 
-        verify(key).attach(null);
+        assertFalse(session.isLoggedIn());
         verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
     }
 
@@ -173,12 +186,12 @@ public class IOHandlerTest {
     public void testHandleAddFriendCommand() throws DataStorageException {
         User user = new User("First1", "Last1", "user1",
             PasswordHasher.hash("password"));
-        when(key.attachment()).thenReturn(user);
+        session.setUser(user);
         when(friendshipManager.addFriendship("user1", "user2"))
             .thenReturn(AddFriendshipStatus.SUCCESS);
 
 
-        ioHandler.handle("add-friend user2", key);
+        ioHandler.handle("add-friend user2", session);
 
         verify(friendshipManager).addFriendship("user1", "user2");
         verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
@@ -188,10 +201,10 @@ public class IOHandlerTest {
     public void testHandleCreateGroupCommand() throws DataStorageException {
         User user = new User("First1", "Last1", "user1",
             PasswordHasher.hash("password"));
-        when(key.attachment()).thenReturn(user);
+        session.setUser(user);
         when(groupManager.createGroup(any(), any(), any(), any())).thenReturn(CreateGroupStatus.SUCCESS);
 
-        ioHandler.handle("create-group group1 user2 user3", key);
+        ioHandler.handle("create-group group1 user2 user3", session);
 
         verify(groupManager).createGroup("group1", "user1", "user2", "user3");
         verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
@@ -201,12 +214,12 @@ public class IOHandlerTest {
     public void testHandleSplitFriendCommand() throws DataStorageException {
         User user = new User("First1", "Last1", "user1",
             PasswordHasher.hash("password"));
-        when(key.attachment()).thenReturn(user);
-        when(debtManager.splitFriend(any(), any(), anyDouble())).thenReturn(SplitFriendStatus.SUCCESS);
+        session.setUser(user);
+        when(debtManager.splitFriend(any(), any(), anyLong())).thenReturn(SplitFriendStatus.SUCCESS);
 
-        ioHandler.handle("split-friend 10 user2", key);
+        ioHandler.handle("split-friend 10 user2", session);
 
-        verify(debtManager).splitFriend("user2", "user1", 10.0);
+        verify(debtManager).splitFriend("user2", "user1", 1000L);
         verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
     }
 
@@ -214,25 +227,58 @@ public class IOHandlerTest {
     public void testHandleSplitGroupCommand() throws DataStorageException {
         User user = new User("First1", "Last1", "user1",
             PasswordHasher.hash("password"));
-        when(key.attachment()).thenReturn(user);
-        when(debtManager.splitGroup(any(), any(), anyDouble())).thenReturn(SplitGroupStatus.SUCCESS);
+        session.setUser(user);
+        when(debtManager.splitGroup(any(), any(), anyLong())).thenReturn(SplitGroupStatus.SUCCESS);
 
-        ioHandler.handle("split-group 10 group1", key);
+        ioHandler.handle("split-group 10 group1", session);
 
-        verify(debtManager).splitGroup("group1", "user1", 10.0);
+        verify(debtManager).splitGroup("group1", "user1", 1000L);
         verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
     }
 
+    @Test
+    public void testHandleSplitGroupLocksMembersOfGroupCreatedMeanwhile()
+        throws DataStorageException, InterruptedException {
+        session.setUser(new User("First1", "Last1", "user1", PasswordHasher.hash("password")));
+        ClientSession memberSession = new ClientSession(1024);
+        memberSession.setUser(new User("First2", "Last2", "user2", PasswordHasher.hash("password")));
+        when(groupManager.getGroupMembersByGroupNameMap())
+            .thenReturn(Map.of())
+            .thenReturn(Map.of("group1", Set.of("user1", "user2")));
+        when(friendshipManager.addFriendship("user2", "user3")).thenReturn(AddFriendshipStatus.SUCCESS);
+        AtomicBoolean memberBlocked = new AtomicBoolean();
+        AtomicReference<String> memberResult = new AtomicReference<>();
+        AtomicReference<Throwable> memberFailure = new AtomicReference<>();
+        Thread member = new Thread(() -> memberResult.set(ioHandler.handle("add-friend user3", memberSession)));
+        member.setUncaughtExceptionHandler((thread, e) -> memberFailure.set(e));
+        when(debtManager.splitGroup("group1", "user1", 1000L)).thenAnswer(invocation -> {
+            member.start();
+            member.join(200);
+            memberBlocked.set(member.isAlive());
+            return SplitGroupStatus.SUCCESS;
+        });
+
+        String result = ioHandler.handle("split-group 10 group1", session);
+        member.join();
+
+        assertNull(memberFailure.get());
+        assertEquals("amount split successfully", result);
+        assertEquals("friend added successfully", memberResult.get());
+        assertTrue(memberBlocked.get());
+        verify(debtManager, times(1)).splitGroup("group1", "user1", 1000L);
+        verify(friendshipManager).addFriendship("user2", "user3");
+    }
+
     @Test
     public void testHandlePaidCommand() throws DataStorageException {
         User user = new User("First1", "Last1", "user1",
             PasswordHasher.hash("password"));
-        when(key.attachment()).thenReturn(user);
-        when(debtManager.payDebt(any(), any(), anyDouble())).thenReturn(PaidStatus.SUCCESS);
+        session.setUser(user);
+        when(debtManager.payDebt(any(), any(), anyLong())).thenReturn(PaidStatus.SUCCESS);
 
-        ioHandler.handle("paid 10 user2", key);
+        ioHandler.handle("paid 10 user2", session);
 
-        verify(debtManager).payDebt("user2", "user1", 10.0);
+        verify(debtManager).payDebt("user2", "user1", 1000L);
         verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
     }
 
@@ -240,27 +286,41 @@ public class IOHandlerTest {
     public void testHandleStatusCommand() {
         User user = new User("First1", "Last1", "user1",
             PasswordHasher.hash("password"));
-        when(key.attachment()).thenReturn(user);
+        session.setUser(user);
+        when(debtManager.getDebts("user1")).thenReturn(UserDebts.EMPTY);
 
-        ioHandler.handle("status", key);
+        ioHandler.handle("status", session);
 
-        verify(debtManager).getPayeesMap();
-        verify(debtManager).getPayersMap();
+        verify(debtManager).getDebts("user1");
         verify(userManager).getUserByUsernameMap();
         verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
     }
 
+    @Test
+    public void testHandleBalanceCommand() {
+        User user = new User("First1", "Last1", "user1",
+            PasswordHasher.hash("password"));
+        session.setUser(user);
+        when(debtManager.getBalance("user1")).thenReturn(new UserBalance("user1", 1000L, 250L));
+
+        String result = ioHandler.handle("balance", session);
+
+        assertEquals("* you are owed 10.00 lv" + System.lineSeparator() + "* you owe 2.50 lv" +
+            System.lineSeparator() + "* net balance 7.50 lv", result);
+        verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
+    }
+
     @Test
     public void testHandleCheckGroupsCommand() {
         User user = new User("First1", "Last1", "user1",
             PasswordHasher.hash("password"));
         Map<String, Set<String>> groupNamesByUsername = new HashMap<>(Map.of("user1", Set.of("group1")));
         Map<String, Set<String>> groupMembersByGroupName = new HashMap<>(Map.of("group1", Set.of("user1", "user2")));
-        when(key.attachment()).thenReturn(user);
+        session.setUser(user);
         when(groupManager.getGroupNamesByUsernameMap()).thenReturn(groupNamesByUsername);
         when(groupManager.getGroupMembersByGroupNameMap()).thenReturn(groupMembersByGroupName);
 
-        ioHandler.handle("groups", key);
+        ioHandler.handle("groups", session);
 
         verify(groupManager).getGroupNamesByUsernameMap();
         verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
@@ -270,32 +330,45 @@ public class IOHandlerTest {
     public void testHandleCheckNotificationsCommand() throws DataStorageException {
         User user = new User("First1", "Last1", "user1",
             PasswordHasher.hash("password"));
-        when(key.attachment()).thenReturn(user);
-        when(notificationManager.getNotifications(any())).thenReturn(List.of("notification1", "notification2"));
+        session.setUser(user);
+        when(notificationManager.getNotifications(any(), anyInt()))
+            .thenReturn(new NotificationPage(List.of("notification1", "notification2"), 0));
 
-        ioHandler.handle("notifications", key);
+        ioHandler.handle("notifications", session);
 
-        verify(notificationManager).getNotifications("user1");
+        verify(notificationManager).getNotifications("user1", Integer.MAX_VALUE);
         verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
     }
 
     @Test
-    public void testHandleCheckPaymentHistoryCommand() {
+    public void testHandleCheckNotificationsPageCommand() throws DataStorageException {
+        User user = new User("First1", "Last1", "user1",
+            PasswordHasher.hash("password"));
+        session.setUser(user);
+        when(notificationManager.getNotifications(any(), anyInt()))
+            .thenReturn(new NotificationPage(List.of("notification1"), 1));
+
+        ioHandler.handle("notifications 1", session);
+
+        verify(notificationManager).getNotifications("user1", 1);
+    }
+
+    @Test
+    public void testHandleCheckPaymentHistoryCommand() throws DataStorageException {
         User user = new User("First1", "Last1", "user1",
             PasswordHasher.hash("password"));
         User otherUser = new User("First2", "Last2", "user2",
             PasswordHasher.hash("password"));
 
-        Map<String, Map<String, List<Double>>> paymentsByUsername =
-            new HashMap<>(Map.of("user1", Map.of("user2", List.of(10.0))));
+        Map<String, List<Long>> payments = Map.of("user2", List.of(1000L));
         Map<String, User> usersByUsername = new HashMap<>(Map.of("user2", otherUser));
-        when(key.attachment()).thenReturn(user);
-        when(debtManager.getPaymentsByUsernameMap()).thenReturn(paymentsByUsername);
+        session.setUser(user);
+        when(debtManager.getPayments("user1")).thenReturn(payments);
         when(userManager.getUserByUsernameMap()).thenReturn(usersByUsername);
 
-        ioHandler.handle("payment-history", key);
+        ioHandler.handle("payment-history", session);
 
-        verify(debtManager).getPaymentsByUsernameMap();
+        verify(debtManager).getPayments("user1");
         verify(userManager).getUserByUsernameMap();
         verify(inputValidator, times(1)).validateInputArgs(any(String[].class));
     }
@@ -52,6 +52,22 @@ public class InputValidatorTest {
         assertTrue(result);
     }
 
+    @Test
+    public void testValidateInputArgsNotificationsPage() {
+        assertTrue(inputValidator.validateInputArgs(new String[] {"notifications", "5"}));
+        assertFalse(inputValidator.validateInputArgs(new String[] {"notifications", "0"}));
+        assertFalse(inputValidator.validateInputArgs(new String[] {"notifications", "five"}));
+        assertFalse(inputValidator.validateInputArgs(new String[] {"notifications", "5", "6"}));
+    }
+
+    @Test
+    public void testValidateInputArgsBalance() {
+        assertTrue(inputValidator.validateInputArgs(new String[] {"balance"}));
+        assertTrue(inputValidator.validateInputArgs(new String[] {"balance", "10"}));
+        assertFalse(inputValidator.validateInputArgs(new String[] {"balance", "-1"}));
+        assertFalse(inputValidator.validateInputArgs(new String[] {"balance", "ten"}));
+    }
+
     @Test
     public void testValidateInputArgsPaymentHistory() {
         String[] args = {"payment-history"};
@@ -156,4 +172,18 @@ public class InputValidatorTest {
         boolean result = inputValidator.validateInputArgs(args);
         assertFalse(result);
     }
+
+    @Test
+    public void testValidateInputArgsPaidSubCentAmount() {
+        String[] args = {"paid", "10.005", "user2"};
+        boolean result = inputValidator.validateInputArgs(args);
+        assertFalse(result);
+    }
+
+    @Test
+    public void testValidateInputArgsSplitFriendZeroAmount() {
+        String[] args = {"split-friend", "0.00", "user2"};
+        boolean result = inputValidator.validateInputArgs(args);
+        assertFalse(result);
+    }
 }
@@ -0,0 +1,48 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.money;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MoneyTest {
+
+    @Test
+    public void testParse() {
+        assertEquals(1000L, Money.parse("10"));
+        assertEquals(1050L, Money.parse("10.5"));
+        assertEquals(1005L, Money.parse("10.05"));
+        assertEquals(5L, Money.parse("0.05"));
+    }
+
+    @Test
+    public void testParseInvalidAmount() {
+        assertThrows(NumberFormatException.class, () -> Money.parse("10.005"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("10."));
+        assertThrows(NumberFormatException.class, () -> Money.parse(".5"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("-10"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("1e3"));
+        assertThrows(NumberFormatException.class, () -> Money.parse(""));
+    }
+
+    @Test
+    public void testParseOverflow() {
+        assertThrows(ArithmeticException.class, () -> Money.parse("92233720368547758.08"));
+    }
+
+    @Test
+    public void testParseRounded() {
+        assertEquals(1050L, Money.parseRounded("10.5"));
+        assertEquals(333L, Money.parseRounded("3.3333333333333335"));
+        assertEquals(1001L, Money.parseRounded("10.005"));
+        assertEquals(1000000000L, Money.parseRounded("1.0E7"));
+    }
+
+    @Test
+    public void testFormat() {
+        assertEquals("10.00", Money.format(1000L));
+        assertEquals("10.05", Money.format(1005L));
+        assertEquals("0.50", Money.format(50L));
+        assertEquals("-0.07", Money.format(-7L));
+    }
+}
@@ -0,0 +1,136 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.InvalidFrameException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BinaryCodecTest {
+
+    @Test
+    public void testDecodeRequestWithoutFields() throws InvalidFrameException {
+        assertArrayEquals(new String[] {"status"}, BinaryCodec.decodeRequest(new byte[] {10}));
+    }
+
+    @Test
+    public void testDecodeRequestWithAmount() throws InvalidFrameException {
+        byte[] request = request(buffer -> {
+            BinaryCodec.writeVarLong(buffer, Opcode.PAID.getCode());
+            BinaryCodec.writeSignedVarLong(buffer, 100005);
+            writeString(buffer, "user2");
+        });
+
+        assertArrayEquals(new String[] {"paid", "1000.05", "user2"}, BinaryCodec.decodeRequest(request));
+    }
+
+    @Test
+    public void testDecodeRequestWithStringList() throws InvalidFrameException {
+        byte[] request = request(buffer -> {
+            BinaryCodec.writeVarLong(buffer, Opcode.CREATE_GROUP.getCode());
+            writeString(buffer, "trip");
+            BinaryCodec.writeVarLong(buffer, 2);
+            writeString(buffer, "user2");
+            writeString(buffer, "user3");
+        });
+
+        assertArrayEquals(new String[] {"create-group", "trip", "user2", "user3"}, BinaryCodec.decodeRequest(request));
+    }
+
+    @Test
+    public void testDecodeNotificationsPageRequest() throws InvalidFrameException {
+        assertArrayEquals(new String[] {"notifications", "5"}, BinaryCodec.decodeRequest(new byte[] {16, 10}));
+    }
+
+    @Test
+    public void testDecodeBalanceLeaderboardRequest() throws InvalidFrameException {
+        byte[] request = request(buffer -> {
+            BinaryCodec.writeVarLong(buffer, Opcode.BALANCE_LEADERBOARD.getCode());
+            BinaryCodec.writeSignedVarLong(buffer, -3);
+        });
+
+        assertArrayEquals(new String[] {"balance", "-3"}, BinaryCodec.decodeRequest(request));
+    }
+
+    @Test
+    public void testDecodeRequestCountOutOfBounds() {
+        byte[] request = request(buffer -> {
+            BinaryCodec.writeVarLong(buffer, Opcode.NOTIFICATIONS_PAGE.getCode());
+            BinaryCodec.writeSignedVarLong(buffer, Integer.MAX_VALUE + 1L);
+        });
+
+        assertThrows(InvalidFrameException.class, () -> BinaryCodec.decodeRequest(request));
+    }
+
+    @Test
+    public void testDecodeRequestUnknownOpcode() {
+        assertThrows(InvalidFrameException.class, () -> BinaryCodec.decodeRequest(new byte[] {0}));
+        assertThrows(InvalidFrameException.class, () -> BinaryCodec.decodeRequest(new byte[] {100}));
+    }
+
+    @Test
+    public void testDecodeRequestTruncated() {
+        byte[] request = request(buffer -> {
+            BinaryCodec.writeVarLong(buffer, Opcode.LOGIN.getCode());
+            BinaryCodec.writeVarLong(buffer, 10);
+            buffer.put((byte) 'a');
+        });
+
+        assertThrows(InvalidFrameException.class, () -> BinaryCodec.decodeRequest(request));
+    }
+
+    @Test
+    public void testDecodeRequestTrailingBytes() {
+        assertThrows(InvalidFrameException.class, () -> BinaryCodec.decodeRequest(new byte[] {10, 1}));
+    }
+
+    @Test
+    public void testVarLongRoundTrip() throws InvalidFrameException {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        BinaryCodec.writeVarLong(buffer, 300);
+        BinaryCodec.writeSignedVarLong(buffer, -1);
+        BinaryCodec.writeSignedVarLong(buffer, Long.MIN_VALUE);
+        BinaryCodec.writeVarLong(buffer, Long.MAX_VALUE);
+        buffer.flip();
+
+        assertEquals(300, BinaryCodec.readVarLong(buffer));
+        assertEquals(-1, BinaryCodec.readSignedVarLong(buffer));
+        assertEquals(Long.MIN_VALUE, BinaryCodec.readSignedVarLong(buffer));
+        assertEquals(Long.MAX_VALUE, BinaryCodec.readVarLong(buffer));
+    }
+
+    @Test
+    public void testReadVarLongRejectsOverflow() {
+        byte[] overflowing = {-1, -1, -1, -1, -1, -1, -1, -1, -1, 2};
+        byte[] tooLong = {-1, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1};
+
+        assertThrows(InvalidFrameException.class, () -> BinaryCodec.readVarLong(ByteBuffer.wrap(overflowing)));
+        assertThrows(InvalidFrameException.class, () -> BinaryCodec.readVarLong(ByteBuffer.wrap(tooLong)));
+    }
+
+    @Test
+    public void testEncodeResponse() {
+        byte[] response = BinaryCodec.encodeResponse(ResponseStatus.INVALID_REQUEST, "unknown opcode");
+
+        assertEquals(ResponseStatus.INVALID_REQUEST.getCode(), response[0]);
+        assertEquals("unknown opcode", new String(response, 1, response.length - 1, StandardCharsets.UTF_8));
+    }
+
+    private static byte[] request(Consumer<ByteBuffer> writer) {
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        writer.accept(buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        BinaryCodec.writeVarLong(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+}
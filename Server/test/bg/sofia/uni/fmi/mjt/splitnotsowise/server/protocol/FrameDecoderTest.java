@@ -0,0 +1,110 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.InvalidFrameException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FrameDecoderTest {
+
+    private FrameDecoder decoder;
+
+    @BeforeEach
+    public void setUp() {
+        decoder = new FrameDecoder(8);
+    }
+
+    @Test
+    public void testNextFrameIncompleteHeader() throws InvalidFrameException {
+        decoder.getBuffer().put((byte) 0);
+
+        assertNull(decoder.nextFrame());
+    }
+
+    @Test
+    public void testNextFramePartialReads() throws InvalidFrameException {
+        ByteBuffer frame = FrameCodec.encode(1, "split-friend 10 user2");
+        while (frame.hasRemaining()) {
+            decoder.getBuffer().put(frame.get());
+            if (frame.hasRemaining()) {
+                assertNull(decoder.nextFrame());
+            }
+        }
+
+        assertEquals(new Frame(1, "split-friend 10 user2"), decoder.nextFrame());
+        assertNull(decoder.nextFrame());
+    }
+
+    @Test
+    public void testNextFramePipelinedFrames() throws InvalidFrameException {
+        ByteBuffer first = FrameCodec.encode(1, "status");
+        ByteBuffer second = FrameCodec.encode(2, "groups");
+        ByteBuffer input = ByteBuffer.allocate(first.remaining() + second.remaining()).put(first).put(second);
+        input.flip();
+        while (input.hasRemaining()) {
+            ByteBuffer buffer = decoder.getBuffer();
+            int chunk = Math.min(buffer.remaining(), input.remaining());
+            buffer.put(input.array(), input.position(), chunk);
+            input.position(input.position() + chunk);
+        }
+
+        assertEquals(new Frame(1, "status"), decoder.nextFrame());
+        assertEquals(new Frame(2, "groups"), decoder.nextFrame());
+        assertNull(decoder.nextFrame());
+    }
+
+    @Test
+    public void testNextFrameLargePayload() throws InvalidFrameException {
+        String message = "x".repeat(5000);
+        ByteBuffer frame = FrameCodec.encode(7, message);
+        Frame decoded = null;
+        while (frame.hasRemaining()) {
+            ByteBuffer buffer = decoder.getBuffer();
+            int chunk = Math.min(buffer.remaining(), frame.remaining());
+            buffer.put(frame.array(), frame.position(), chunk);
+            frame.position(frame.position() + chunk);
+            decoded = decoder.nextFrame();
+        }
+
+        assertEquals(new Frame(7, message), decoded);
+        assertNull(decoder.nextFrame());
+    }
+
+    @Test
+    public void testNextFrameLengthOutOfBounds() {
+        decoder.getBuffer().putInt(-1).putInt(1);
+
+        assertThrows(InvalidFrameException.class, () -> decoder.nextFrame());
+    }
+
+    @Test
+    public void testNegotiateProtocolText() throws InvalidFrameException {
+        decoder = new FrameDecoder(64);
+        decoder.getBuffer().put(FrameCodec.encode(1, "status"));
+
+        assertEquals(Protocol.TEXT, decoder.negotiateProtocol());
+        assertEquals(new Frame(1, "status"), decoder.nextFrame());
+    }
+
+    @Test
+    public void testNegotiateProtocolBinary() throws InvalidFrameException {
+        decoder.getBuffer().putInt(BinaryCodec.HANDSHAKE_MAGIC);
+        assertNull(decoder.negotiateProtocol());
+
+        decoder.getBuffer().putInt(BinaryCodec.PROTOCOL_VERSION);
+        assertEquals(Protocol.BINARY, decoder.negotiateProtocol());
+        assertNull(decoder.nextFrame());
+    }
+
+    @Test
+    public void testNegotiateProtocolUnsupportedVersion() {
+        decoder.getBuffer().putInt(BinaryCodec.HANDSHAKE_MAGIC).putInt(BinaryCodec.PROTOCOL_VERSION + 1);
+
+        assertThrows(InvalidFrameException.class, () -> decoder.negotiateProtocol());
+    }
+}
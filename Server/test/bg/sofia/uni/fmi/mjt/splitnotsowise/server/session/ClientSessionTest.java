@@ -0,0 +1,103 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.session;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.InvalidFrameException;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.Frame;
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.protocol.FrameDecoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClientSessionTest {
+
+    private ClientSession session;
+
+    @BeforeEach
+    public void setUp() {
+        session = new ClientSession(1024);
+    }
+
+    @Test
+    public void testFlushShortWritesKeepOutputPending() throws Exception {
+        LimitedChannel channel = new LimitedChannel(3);
+        session.enqueue(new Frame(1, "status"));
+
+        assertFalse(session.flush(channel));
+        assertTrue(session.hasPendingOutput());
+        assertEquals(11, session.getPendingOutputBytes());
+
+        channel.limit = Integer.MAX_VALUE;
+        assertTrue(session.flush(channel));
+        assertFalse(session.hasPendingOutput());
+        assertEquals(0, session.getPendingOutputBytes());
+        assertEquals(new Frame(1, "status"), decode(channel.written.toByteArray()));
+    }
+
+    @Test
+    public void testFlushPreservesFrameOrder() throws Exception {
+        LimitedChannel channel = new LimitedChannel(Integer.MAX_VALUE);
+        session.enqueue(new Frame(1, "first"));
+        session.enqueue(new Frame(2, "second"));
+
+        assertTrue(session.flush(channel));
+
+        FrameDecoder decoder = new FrameDecoder(64);
+        decoder.getBuffer().put(channel.written.toByteArray());
+        assertEquals(new Frame(1, "first"), decoder.nextFrame());
+        assertEquals(new Frame(2, "second"), decoder.nextFrame());
+    }
+
+    @Test
+    public void testStartNextCommandOneAtATime() {
+        session.addPendingCommand(new Frame(1, "status"));
+        session.addPendingCommand(new Frame(2, "groups"));
+
+        assertEquals(new Frame(1, "status"), session.startNextCommand());
+        assertNull(session.startNextCommand());
+
+        session.finishCommand(new Frame(1, "you don't have any money relations"));
+        assertTrue(session.hasPendingOutput());
+        assertEquals(new Frame(2, "groups"), session.startNextCommand());
+    }
+
+    private static Frame decode(byte[] bytes) throws InvalidFrameException {
+        FrameDecoder decoder = new FrameDecoder(64);
+        decoder.getBuffer().put(bytes);
+        return decoder.nextFrame();
+    }
+
+    private static class LimitedChannel implements WritableByteChannel {
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private int limit;
+
+        LimitedChannel(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int count = Math.min(limit, src.remaining());
+            for (int i = 0; i < count; i++) {
+                written.write(src.get());
+            }
+            limit -= count;
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InMemoryStorageEngineTest {
+    private final InMemoryStorageEngine storageEngine = new InMemoryStorageEngine();
+
+    @Test
+    public void testRecoverStartsEmpty() throws DataStorageException {
+        assertNull(storageEngine.loadCheckpoint());
+        assertEquals(List.of(), storageEngine.recover());
+    }
+
+    @Test
+    public void testAppendReturnsIncreasingSequences() throws DataStorageException {
+        LogRecord record = new LogRecord(RecordType.NOTIFICATIONS_READ, "user1");
+
+        assertEquals(1, storageEngine.append(record));
+        assertEquals(2, storageEngine.append(record));
+        storageEngine.awaitDurable(2);
+    }
+
+    @Test
+    public void testCheckpointIsSkipped() throws DataStorageException {
+        assertFalse(storageEngine.checkpoint(List::of));
+    }
+
+    @Test
+    public void testAppendAfterClose() {
+        storageEngine.close();
+
+        assertThrows(DataStorageException.class,
+            () -> storageEngine.append(new LogRecord(RecordType.NOTIFICATIONS_READ, "user1")));
+    }
+}
@@ -0,0 +1,87 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LogFileTest {
+    private final Path testFilePath = Path.of("testLogFile.log");
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(testFilePath);
+    }
+
+    private static LogRecord notification(int index, int length) {
+        return new LogRecord(RecordType.NOTIFICATION_ADDED, "user" + index, "x".repeat(length));
+    }
+
+    private List<LogRecord> write(List<LogRecord> records) throws IOException {
+        try (FileChannel channel = LogFile.open(testFilePath)) {
+            for (LogRecord record : records) {
+                LogFile.writeFully(channel, record.encode());
+            }
+        }
+        return records;
+    }
+
+    private List<LogRecord> read() throws IOException {
+        List<LogRecord> records = new ArrayList<>();
+        try (FileChannel channel = LogFile.open(testFilePath)) {
+            LogFile.readRecords(channel, testFilePath, records);
+        }
+        return records;
+    }
+
+    @Test
+    public void testReadRecordsAcrossReadBuffers() throws IOException {
+        List<LogRecord> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            expected.add(notification(i, i % 97));
+        }
+
+        assertEquals(write(expected), read());
+    }
+
+    @Test
+    public void testReadRecordLargerThanReadBuffer() throws IOException {
+        List<LogRecord> expected = List.of(notification(1, 10), notification(2, 200_000), notification(3, 10));
+
+        assertEquals(write(expected), read());
+    }
+
+    @Test
+    public void testReadRecordsTruncatesTornTail() throws IOException {
+        List<LogRecord> expected = write(List.of(notification(1, 10), notification(2, 10)));
+        long validSize = Files.size(testFilePath);
+        ByteBuffer torn = notification(3, 100).encode();
+        try (FileChannel channel = LogFile.open(testFilePath)) {
+            channel.position(validSize);
+            LogFile.writeFully(channel, torn.limit(torn.limit() / 2));
+        }
+
+        assertEquals(expected, read());
+        assertEquals(validSize, Files.size(testFilePath));
+    }
+
+    @Test
+    public void testReadRecordsStopsAtCorruptRecord() throws IOException {
+        write(List.of(notification(1, 10), notification(2, 10), notification(3, 10)));
+        long firstRecordSize = notification(1, 10).encode().remaining();
+        try (FileChannel channel = LogFile.open(testFilePath)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'y'}), firstRecordSize + LogRecord.HEADER_SIZE + 20);
+        }
+
+        assertEquals(List.of(notification(1, 10)), read());
+        assertEquals(firstRecordSize, Files.size(testFilePath));
+    }
+}
@@ -0,0 +1,60 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LogRecordTest {
+
+    @Test
+    public void testEncodeDecodeRoundTrip() {
+        LogRecord record = new LogRecord(RecordType.GROUP_CREATED, "група", "user1", "user2", "user3");
+        ByteBuffer encoded = record.encode();
+
+        int bodySize = encoded.getInt(0);
+        assertEquals(LogRecord.HEADER_SIZE + bodySize, encoded.remaining());
+        assertEquals(encoded.getInt(Integer.BYTES), LogRecord.checksum(encoded, LogRecord.HEADER_SIZE, bodySize));
+
+        LogRecord decoded = LogRecord.decode(encoded.slice(LogRecord.HEADER_SIZE, bodySize));
+        assertEquals(record, decoded);
+    }
+
+    @Test
+    public void testChecksumDetectsCorruption() {
+        ByteBuffer encoded = new LogRecord(RecordType.DEBT_ADDED, "user1", "user2", "5.0").encode();
+        int bodySize = encoded.getInt(0);
+        int checksum = LogRecord.checksum(encoded, LogRecord.HEADER_SIZE, bodySize);
+
+        encoded.put(encoded.limit() - 1, (byte) '1');
+
+        assertNotEquals(checksum, LogRecord.checksum(encoded, LogRecord.HEADER_SIZE, bodySize));
+    }
+
+    @Test
+    public void testDecodeUnknownType() {
+        ByteBuffer body = ByteBuffer.allocate(Byte.BYTES + Short.BYTES).put((byte) 0).putShort((short) 0).flip();
+
+        assertThrows(IllegalArgumentException.class, () -> LogRecord.decode(body));
+    }
+
+    @Test
+    public void testDecodeFieldOutOfBounds() {
+        ByteBuffer body = ByteBuffer.allocate(Byte.BYTES + Short.BYTES + Integer.BYTES)
+            .put((byte) RecordType.USER_REGISTERED.getCode()).putShort((short) 1).putInt(100).flip();
+
+        assertThrows(IllegalArgumentException.class, () -> LogRecord.decode(body));
+    }
+
+    @Test
+    public void testFieldsAreCopied() {
+        LogRecord record = new LogRecord(RecordType.NOTIFICATIONS_READ, List.of("user1"));
+
+        assertEquals("user1", record.field(0));
+        assertThrows(UnsupportedOperationException.class, () -> record.fields().add("user2"));
+    }
+}
@@ -0,0 +1,313 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RunLogStorageEngineTest {
+    private static final int MAX_RUNS_COUNT = 2;
+    private static final long MAX_ACTIVE_RUN_SIZE = 1024;
+    private final Path testDirectory = Path.of("testRunLog");
+    private final Path testCopyDirectory = Path.of("testRunLogCopy");
+    private RunLogStorageEngine storageEngine;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        deleteTestDirectory(testDirectory);
+        deleteTestDirectory(testCopyDirectory);
+        storageEngine = new RunLogStorageEngine(testDirectory, MAX_RUNS_COUNT, MAX_ACTIVE_RUN_SIZE);
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException, DataStorageException {
+        storageEngine.close();
+        deleteTestDirectory(testDirectory);
+        deleteTestDirectory(testCopyDirectory);
+    }
+
+    private void deleteTestDirectory(Path directory) throws IOException {
+        if (Files.exists(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private RunLogStorageEngine reopen() throws DataStorageException {
+        storageEngine.close();
+        storageEngine = new RunLogStorageEngine(testDirectory, MAX_RUNS_COUNT, MAX_ACTIVE_RUN_SIZE);
+        return storageEngine;
+    }
+
+    private List<String> listTables() throws IOException {
+        try (Stream<Path> files = Files.list(testDirectory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static LogRecord debt(int index) {
+        return new LogRecord(RecordType.DEBT_ADDED, "user" + index, "user" + (index + 1), "100");
+    }
+
+    @Test
+    public void testRecoverEmptyDirectory() throws DataStorageException {
+        assertNull(storageEngine.loadCheckpoint());
+        assertEquals(List.of(), storageEngine.recover());
+    }
+
+    @Test
+    public void testAwaitDurableAppendsToActiveRun() throws DataStorageException, IOException {
+        storageEngine.recover();
+        long sequence = storageEngine.append(debt(1));
+        storageEngine.append(debt(2));
+        storageEngine.awaitDurable(sequence);
+
+        storageEngine.awaitDurable(storageEngine.append(debt(3)));
+
+        assertEquals(List.of("run-0.log"), listTables());
+        assertEquals(2, storageEngine.getSyncStatistics().getSyncsCount());
+        assertEquals(List.of(debt(1), debt(2), debt(3)), reopen().recover());
+    }
+
+    @Test
+    public void testFullActiveRunIsSealed() throws DataStorageException, IOException {
+        storageEngine = new RunLogStorageEngine(testDirectory, MAX_RUNS_COUNT, 1);
+        storageEngine.recover();
+
+        storageEngine.awaitDurable(storageEngine.append(debt(1)));
+        storageEngine.append(debt(2));
+
+        assertEquals(List.of("run-0.dat"), listTables());
+        assertEquals(List.of(debt(1), debt(2)), reopen().recover());
+    }
+
+    @Test
+    public void testRecoverTruncatesTornActiveRun() throws DataStorageException, IOException {
+        storageEngine.recover();
+        storageEngine.awaitDurable(storageEngine.append(debt(1)));
+        storageEngine.close();
+        Path activeRunPath = testDirectory.resolve("run-0.log");
+        long validSize = Files.size(activeRunPath);
+        Files.write(activeRunPath, new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+
+        RunLogStorageEngine reopened = reopen();
+        assertEquals(List.of(debt(1)), reopened.recover());
+        reopened.awaitDurable(reopened.append(debt(2)));
+
+        assertEquals(validSize + debt(2).encode().remaining(), Files.size(activeRunPath));
+        assertEquals(List.of(debt(1), debt(2)), reopen().recover());
+    }
+
+    @Test
+    public void testRecoverDeletesActiveRunThatWasSealed() throws DataStorageException, IOException {
+        Files.createDirectory(testDirectory);
+        SnapshotFile.write(testDirectory.resolve("run-0.dat"), new Checkpoint(0, List.of(debt(0))));
+        try (FileChannel channel = LogFile.open(testDirectory.resolve("run-0.log"))) {
+            LogFile.writeFully(channel, debt(0).encode());
+        }
+
+        assertEquals(List.of(debt(0)), storageEngine.recover());
+        assertEquals(List.of("run-0.dat"), listTables());
+    }
+
+    @Test
+    public void testCloseFlushesPendingRecords() throws DataStorageException {
+        storageEngine.recover();
+        storageEngine.append(debt(1));
+
+        RunLogStorageEngine reopened = reopen();
+
+        assertNull(reopened.loadCheckpoint());
+        assertEquals(List.of(debt(1)), reopened.recover());
+    }
+
+    @Test
+    public void testRunsAreMergedOverMaxRunsCount() throws DataStorageException, IOException {
+        storageEngine = new RunLogStorageEngine(testDirectory, MAX_RUNS_COUNT, 1);
+        storageEngine.recover();
+        List<LogRecord> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(debt(i));
+            storageEngine.awaitDurable(storageEngine.append(debt(i)));
+        }
+
+        assertTrue(listTables().size() <= MAX_RUNS_COUNT);
+        assertEquals(expected, reopen().recover());
+    }
+
+    @Test
+    public void testCheckpointReplacesRunsWithBase() throws DataStorageException, IOException {
+        storageEngine = new RunLogStorageEngine(testDirectory, MAX_RUNS_COUNT, 1);
+        storageEngine.recover();
+        storageEngine.awaitDurable(storageEngine.append(debt(1)));
+        storageEngine.awaitDurable(storageEngine.append(debt(3)));
+        List<LogRecord> state = List.of(new LogRecord(RecordType.DEBT_BALANCE, "user1", "user2", "100"));
+
+        assertTrue(storageEngine.checkpoint(() -> state));
+        storageEngine.append(debt(2));
+
+        assertEquals(List.of("base-2.dat"), listTables());
+        RunLogStorageEngine reopened = reopen();
+        assertEquals(state, reopened.loadCheckpoint());
+        assertEquals(List.of(debt(2)), reopened.recover());
+    }
+
+    @Test
+    public void testFrozenTablesSurviveCheckpoint() throws DataStorageException, IOException {
+        storageEngine.recover();
+        storageEngine.awaitDurable(storageEngine.append(debt(1)));
+        storageEngine.append(debt(2));
+
+        List<FrozenFile> files = storageEngine.freeze();
+        storageEngine.append(debt(3));
+        assertTrue(storageEngine.checkpoint(() -> List.of(debt(4))));
+        try {
+            for (FrozenFile file : files) {
+                file.transferTo(testCopyDirectory.resolve(file.getPath().getFileName()));
+            }
+        } finally {
+            FrozenFile.closeAll(files);
+        }
+
+        RunLogStorageEngine copy = new RunLogStorageEngine(testCopyDirectory, MAX_RUNS_COUNT, MAX_ACTIVE_RUN_SIZE);
+        assertNull(copy.loadCheckpoint());
+        assertEquals(List.of(debt(1), debt(2)), copy.recover());
+        copy.close();
+    }
+
+    @Test
+    public void testCheckpointWithoutChanges() throws DataStorageException {
+        storageEngine.recover();
+
+        assertFalse(storageEngine.checkpoint(List::of));
+    }
+
+    @Test
+    public void testRecoverIgnoresTablesLeftByInterruptedCompaction() throws DataStorageException, IOException {
+        Files.createDirectory(testDirectory);
+        SnapshotFile.write(testDirectory.resolve("run-0.dat"), new Checkpoint(0, List.of(debt(0))));
+        SnapshotFile.write(testDirectory.resolve("run-1.dat"), new Checkpoint(1, List.of(debt(1))));
+        SnapshotFile.write(testDirectory.resolve("run-2.dat"), new Checkpoint(0, List.of(debt(0), debt(1), debt(2))));
+        SnapshotFile.write(testDirectory.resolve("base-3.dat"), new Checkpoint(3, List.of(debt(9))));
+        SnapshotFile.write(testDirectory.resolve("run-3.dat"), new Checkpoint(3, List.of(debt(3))));
+        SnapshotFile.write(testDirectory.resolve("run-4.dat"), new Checkpoint(4, List.of(debt(4))));
+
+        assertEquals(List.of(debt(9)), storageEngine.loadCheckpoint());
+        assertEquals(List.of(debt(4)), storageEngine.recover());
+        assertEquals(List.of("base-3.dat", "run-4.dat"), listTables());
+    }
+
+    @Test
+    public void testRecoverSkipsRunsCoveredByMergedRun() throws DataStorageException, IOException {
+        Files.createDirectory(testDirectory);
+        SnapshotFile.write(testDirectory.resolve("run-0.dat"), new Checkpoint(0, List.of(debt(0))));
+        SnapshotFile.write(testDirectory.resolve("run-1.dat"), new Checkpoint(1, List.of(debt(1))));
+        SnapshotFile.write(testDirectory.resolve("run-2.dat"), new Checkpoint(0, List.of(debt(0), debt(1), debt(2))));
+        SnapshotFile.write(testDirectory.resolve("run-3.dat"), new Checkpoint(3, List.of(debt(3))));
+
+        assertEquals(List.of(debt(0), debt(1), debt(2), debt(3)), storageEngine.recover());
+        assertEquals(List.of("run-2.dat", "run-3.dat"), listTables());
+    }
+
+    @Test
+    public void testNoneDurabilityWritesRecordsWithoutSync() throws DataStorageException, IOException {
+        storageEngine = new RunLogStorageEngine(testDirectory, MAX_RUNS_COUNT, MAX_ACTIVE_RUN_SIZE,
+            new DurabilityPolicy(DurabilityMode.NONE, 0));
+        storageEngine.recover();
+
+        storageEngine.awaitDurable(storageEngine.append(debt(1)));
+
+        assertEquals(List.of("run-0.log"), listTables());
+        assertEquals(0, storageEngine.getSyncStatistics().getSyncsCount());
+        RunLogStorageEngine crashedCopy = new RunLogStorageEngine(testDirectory, MAX_RUNS_COUNT, MAX_ACTIVE_RUN_SIZE);
+        try {
+            assertEquals(List.of(debt(1)), crashedCopy.recover());
+        } finally {
+            crashedCopy.close();
+        }
+    }
+
+    @Test
+    public void testCloseSyncsRecordsWrittenWithoutSync() throws DataStorageException {
+        storageEngine = new RunLogStorageEngine(testDirectory, MAX_RUNS_COUNT, MAX_ACTIVE_RUN_SIZE,
+            new DurabilityPolicy(DurabilityMode.NONE, 0));
+        storageEngine.recover();
+        storageEngine.awaitDurable(storageEngine.append(debt(1)));
+
+        storageEngine.close();
+
+        assertEquals(1, storageEngine.getSyncStatistics().getSyncsCount());
+    }
+
+    @Test
+    public void testBatchWindowDoesNotBlockFreeze() throws Exception {
+        storageEngine = new RunLogStorageEngine(testDirectory, MAX_RUNS_COUNT, MAX_ACTIVE_RUN_SIZE,
+            new DurabilityPolicy(DurabilityMode.BATCH, 2_000));
+        storageEngine.recover();
+        storageEngine.awaitDurable(storageEngine.append(debt(1)));
+        long sequence = storageEngine.append(debt(2));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                storageEngine.awaitDurable(sequence);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        waiter.start();
+        Thread.sleep(100);
+        long startTime = System.nanoTime();
+
+        FrozenFile.closeAll(storageEngine.freeze());
+
+        assertTrue(System.nanoTime() - startTime < 1_000_000_000L);
+        waiter.join();
+        assertNull(failure.get());
+    }
+
+    @Test
+    public void testBatchDurabilityFlushesOncePerInterval() throws DataStorageException {
+        storageEngine = new RunLogStorageEngine(testDirectory, MAX_RUNS_COUNT, MAX_ACTIVE_RUN_SIZE,
+            new DurabilityPolicy(DurabilityMode.BATCH, 50));
+        storageEngine.recover();
+        long startTime = System.nanoTime();
+
+        storageEngine.awaitDurable(storageEngine.append(debt(1)));
+
+        assertTrue(System.nanoTime() - startTime >= 40_000_000);
+        assertEquals(1, storageEngine.getSyncStatistics().getSyncsCount());
+    }
+
+    @Test
+    public void testAppendAfterClose() throws DataStorageException {
+        storageEngine.close();
+
+        assertThrows(DataStorageException.class, () -> storageEngine.append(debt(1)));
+    }
+
+    @Test
+    public void testConstructorWithInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new RunLogStorageEngine(testDirectory, 0, MAX_ACTIVE_RUN_SIZE));
+        assertThrows(IllegalArgumentException.class, () -> new RunLogStorageEngine(testDirectory, MAX_RUNS_COUNT, 0));
+    }
+}
@@ -0,0 +1,66 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SnapshotFileTest {
+    private final Path testSnapshotFilePath = Path.of("testLedger.snapshot");
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(testSnapshotFilePath);
+    }
+
+    @Test
+    public void testWriteAndRead() throws DataStorageException {
+        List<LogRecord> state = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            state.add(new LogRecord(RecordType.DEBT_BALANCE, "user" + i, "user" + (i + 1), "2.5"));
+        }
+        Checkpoint checkpoint = new Checkpoint(7, state);
+
+        SnapshotFile.write(testSnapshotFilePath, checkpoint);
+
+        assertEquals(checkpoint, SnapshotFile.read(testSnapshotFilePath));
+        assertFalse(Files.exists(Path.of("testLedger.snapshot.tmp")));
+    }
+
+    @Test
+    public void testReadMissingFile() throws DataStorageException {
+        assertNull(SnapshotFile.read(testSnapshotFilePath));
+    }
+
+    @Test
+    public void testReadCorruptedFile() throws DataStorageException, IOException {
+        SnapshotFile.write(testSnapshotFilePath,
+            new Checkpoint(1, List.of(new LogRecord(RecordType.USER_REGISTERED, "First1", "Last1", "user1", "hash"))));
+        byte[] content = Files.readAllBytes(testSnapshotFilePath);
+        content[content.length - 1] ^= 1;
+        Files.write(testSnapshotFilePath, content);
+
+        assertThrows(DataStorageException.class, () -> SnapshotFile.read(testSnapshotFilePath));
+    }
+
+    @Test
+    public void testReadIncompleteFile() throws DataStorageException, IOException {
+        SnapshotFile.write(testSnapshotFilePath,
+            new Checkpoint(1, List.of(new LogRecord(RecordType.NOTIFICATIONS_READ, "user1"))));
+        byte[] content = Files.readAllBytes(testSnapshotFilePath);
+        Files.write(testSnapshotFilePath, Arrays.copyOf(content, content.length - 2));
+
+        assertThrows(DataStorageException.class, () -> SnapshotFile.read(testSnapshotFilePath));
+    }
+}
@@ -0,0 +1,290 @@
+package bg.sofia.uni.fmi.mjt.splitnotsowise.server.storage;
+
+import bg.sofia.uni.fmi.mjt.splitnotsowise.server.exception.DataStorageException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WriteAheadLogTest {
+    private final Path testLogDirectory = Path.of("testLog");
+    private final Path testLogFilePath = testLogDirectory.resolve("ledger-0.wal");
+    private WriteAheadLog writeAheadLog;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        deleteTestLogDirectory();
+        Files.createDirectory(testLogDirectory);
+        WriteAheadLog.setLogDirectory(testLogDirectory);
+        WriteAheadLog.resetInstance();
+        writeAheadLog = WriteAheadLog.getInstance();
+    }
+
+    @AfterEach
+    public void cleanup() throws IOException, DataStorageException {
+        writeAheadLog.close();
+        WriteAheadLog.resetInstance();
+        WriteAheadLog.resetLogDirectory();
+        deleteTestLogDirectory();
+    }
+
+    private void deleteTestLogDirectory() throws IOException {
+        if (Files.exists(testLogDirectory)) {
+            try (Stream<Path> files = Files.list(testLogDirectory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(testLogDirectory);
+        }
+    }
+
+    private List<LogRecord> reopen(long firstEpoch) throws DataStorageException {
+        writeAheadLog.close();
+        WriteAheadLog.resetInstance();
+        writeAheadLog = WriteAheadLog.getInstance();
+        return writeAheadLog.recover(firstEpoch);
+    }
+
+    private List<LogRecord> reopen() throws DataStorageException {
+        return reopen(0);
+    }
+
+    @Test
+    public void testRecoverEmptyLog() throws DataStorageException {
+        assertTrue(writeAheadLog.recover(0).isEmpty());
+    }
+
+    @Test
+    public void testAppendAndRecover() throws DataStorageException {
+        LogRecord registered = new LogRecord(RecordType.USER_REGISTERED, "First1", "Last1", "user1", "hash");
+        LogRecord debt = new LogRecord(RecordType.DEBT_ADDED, "user1", "user2", "5.0");
+        writeAheadLog.recover(0);
+        writeAheadLog.append(registered);
+        writeAheadLog.awaitDurable(writeAheadLog.append(debt));
+
+        assertEquals(List.of(registered, debt), reopen());
+    }
+
+    @Test
+    public void testAppendBeforeRecoverFails() throws DataStorageException {
+        LogRecord record = new LogRecord(RecordType.FRIENDSHIP_ADDED, "user1", "user2");
+        writeAheadLog.recover(0);
+        writeAheadLog.awaitDurable(writeAheadLog.append(record));
+        writeAheadLog.close();
+        WriteAheadLog.resetInstance();
+        writeAheadLog = WriteAheadLog.getInstance();
+
+        assertThrows(DataStorageException.class,
+            () -> writeAheadLog.append(new LogRecord(RecordType.FRIENDSHIP_ADDED, "user1", "user3")));
+        assertEquals(List.of(record), writeAheadLog.recover(0));
+    }
+
+    @Test
+    public void testRecoverTruncatesTornTail() throws DataStorageException, IOException {
+        LogRecord record = new LogRecord(RecordType.FRIENDSHIP_ADDED, "user1", "user2");
+        writeAheadLog.recover(0);
+        writeAheadLog.append(record);
+        writeAheadLog.close();
+        long validSize = Files.size(testLogFilePath);
+        try (FileChannel channel = FileChannel.open(testLogFilePath, StandardOpenOption.APPEND)) {
+            channel.write(new LogRecord(RecordType.FRIENDSHIP_ADDED, "user1", "user3").encode().limit(10));
+        }
+
+        assertEquals(List.of(record), reopen());
+        assertEquals(validSize, Files.size(testLogFilePath));
+    }
+
+    @Test
+    public void testRecoverStopsAtCorruptRecord() throws DataStorageException, IOException {
+        LogRecord record = new LogRecord(RecordType.NOTIFICATIONS_READ, "user1");
+        writeAheadLog.recover(0);
+        writeAheadLog.append(record);
+        writeAheadLog.append(new LogRecord(RecordType.NOTIFICATIONS_READ, "user2"));
+        writeAheadLog.close();
+        long validSize = record.encode().remaining();
+        try (FileChannel channel = FileChannel.open(testLogFilePath, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'x'}), Files.size(testLogFilePath) - 1);
+        }
+
+        assertEquals(List.of(record), reopen());
+        assertEquals(validSize, Files.size(testLogFilePath));
+    }
+
+    @Test
+    public void testConcurrentAppendsAreGroupCommitted() throws Exception {
+        final int threadsCount = 8;
+        final int recordsPerThread = 200;
+        writeAheadLog.recover(0);
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threadsCount)) {
+            for (int i = 0; i < threadsCount; i++) {
+                String user = "user" + i;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < recordsPerThread; j++) {
+                        writeAheadLog.awaitDurable(writeAheadLog.append(
+                            new LogRecord(RecordType.DEBT_ADDED, user, "payee", String.valueOf(j))));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertTrue(writeAheadLog.getCommitsCount() < threadsCount * recordsPerThread);
+        assertEquals(threadsCount * recordsPerThread, reopen().size());
+    }
+
+    @Test
+    public void testBatchDurabilitySyncsAtMostOncePerInterval() throws Exception {
+        final int recordsCount = 20;
+        writeAheadLog.setDurabilityPolicy(new DurabilityPolicy(DurabilityMode.BATCH, 50));
+        writeAheadLog.recover(0);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < recordsCount; i++) {
+            writeAheadLog.awaitDurable(writeAheadLog.append(
+                new LogRecord(RecordType.DEBT_ADDED, "user1", "user2", String.valueOf(i))));
+        }
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+
+        assertTrue(writeAheadLog.getSyncStatistics().getSyncsCount() <= elapsedMillis / 50 + 1);
+        assertEquals(recordsCount, reopen().size());
+    }
+
+    @Test
+    public void testNoneDurabilityDoesNotWaitForSync() throws DataStorageException {
+        LogRecord record = new LogRecord(RecordType.FRIENDSHIP_ADDED, "user1", "user2");
+        writeAheadLog.setDurabilityPolicy(new DurabilityPolicy(DurabilityMode.NONE, 0));
+        writeAheadLog.recover(0);
+
+        writeAheadLog.awaitDurable(writeAheadLog.append(record));
+
+        assertEquals(List.of(record), reopen());
+    }
+
+    @Test
+    public void testNoneDurabilityAcknowledgesWrittenRecords() throws DataStorageException, IOException {
+        writeAheadLog.setDurabilityPolicy(new DurabilityPolicy(DurabilityMode.NONE, 0));
+        writeAheadLog.recover(0);
+        Path crashedCopyPath = testLogDirectory.resolve("crashed-copy");
+        List<LogRecord> expected = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            LogRecord record = new LogRecord(RecordType.NOTIFICATION_ADDED, "user1", "notification" + i);
+            writeAheadLog.awaitDurable(writeAheadLog.append(record));
+            expected.add(record);
+
+            Files.copy(testLogFilePath, crashedCopyPath, StandardCopyOption.REPLACE_EXISTING);
+            List<LogRecord> recovered = new ArrayList<>();
+            try (FileChannel crashedCopy = LogFile.open(crashedCopyPath)) {
+                LogFile.readRecords(crashedCopy, crashedCopyPath, recovered);
+            }
+            assertEquals(expected, recovered);
+        }
+        assertEquals(0, writeAheadLog.getSyncStatistics().getSyncsCount());
+    }
+
+    @Test
+    public void testSyncIsForcedInNoneDurability() throws DataStorageException {
+        writeAheadLog.setDurabilityPolicy(new DurabilityPolicy(DurabilityMode.NONE, 0));
+        writeAheadLog.recover(0);
+        writeAheadLog.append(new LogRecord(RecordType.NOTIFICATIONS_READ, "user1"));
+
+        writeAheadLog.sync();
+
+        assertEquals(1, writeAheadLog.getSyncStatistics().getSyncsCount());
+    }
+
+    @Test
+    public void testAppendAfterClose() throws DataStorageException {
+        writeAheadLog.recover(0);
+        writeAheadLog.close();
+
+        assertThrows(DataStorageException.class,
+            () -> writeAheadLog.append(new LogRecord(RecordType.NOTIFICATIONS_READ, "user1")));
+    }
+
+    @Test
+    public void testCheckpointStartsNewSegment() throws DataStorageException {
+        LogRecord compacted = new LogRecord(RecordType.FRIENDSHIP_ADDED, "user1", "user2");
+        LogRecord tail = new LogRecord(RecordType.FRIENDSHIP_ADDED, "user1", "user3");
+        List<LogRecord> state = List.of(new LogRecord(RecordType.FRIENDSHIP_ADDED, "user1", "user2"));
+        writeAheadLog.recover(0);
+        writeAheadLog.append(compacted);
+
+        Checkpoint checkpoint = writeAheadLog.checkpoint(() -> state);
+        writeAheadLog.append(tail);
+        writeAheadLog.flush();
+        writeAheadLog.discardSegmentsBefore(checkpoint.nextEpoch());
+
+        assertEquals(1, checkpoint.nextEpoch());
+        assertEquals(state, checkpoint.state());
+        assertFalse(Files.exists(testLogFilePath));
+        assertEquals(List.of(tail), reopen(checkpoint.nextEpoch()));
+    }
+
+    @Test
+    public void testCheckpointWithoutNewRecords() throws DataStorageException {
+        writeAheadLog.recover(0);
+
+        assertNull(writeAheadLog.checkpoint(List::of));
+    }
+
+    @Test
+    public void testRecoverDiscardsCompactedSegments() throws DataStorageException {
+        writeAheadLog.recover(0);
+        writeAheadLog.append(new LogRecord(RecordType.NOTIFICATIONS_READ, "user1"));
+        writeAheadLog.checkpoint(List::of);
+        LogRecord tail = new LogRecord(RecordType.NOTIFICATIONS_READ, "user2");
+        writeAheadLog.append(tail);
+
+        assertEquals(List.of(tail), reopen(1));
+        assertFalse(Files.exists(testLogFilePath));
+    }
+
+    @Test
+    public void testFreezeStopsAtDurablePosition() throws DataStorageException, IOException {
+        LogRecord first = new LogRecord(RecordType.FRIENDSHIP_ADDED, "user1", "user2");
+        LogRecord second = new LogRecord(RecordType.FRIENDSHIP_ADDED, "user1", "user3");
+        writeAheadLog.recover(0);
+        writeAheadLog.append(first);
+
+        List<FrozenFile> files = writeAheadLog.freeze();
+        writeAheadLog.awaitDurable(writeAheadLog.append(second));
+        Path copy = testLogDirectory.resolve("copy.wal");
+        try {
+            assertEquals(1, files.size());
+            assertEquals(testLogFilePath, files.get(0).getPath());
+            files.get(0).transferTo(copy);
+        } finally {
+            FrozenFile.closeAll(files);
+        }
+
+        List<LogRecord> copied = new ArrayList<>();
+        try (FileChannel channel = LogFile.open(copy)) {
+            LogFile.readRecords(channel, copy, copied);
+        }
+        assertEquals(List.of(first), copied);
+    }
+}